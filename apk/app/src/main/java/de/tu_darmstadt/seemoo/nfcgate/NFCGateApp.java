@@ -8,6 +8,8 @@ import androidx.appcompat.app.AppCompatDelegate;
 import androidx.core.os.LocaleListCompat;
 import androidx.preference.PreferenceManager;
 
+import de.tu_darmstadt.seemoo.nfcgate.nfc.chip.NfcChip;
+
 public class NFCGateApp extends Application {
     public static final String PREF_APP_LANGUAGE = "app_language";
     public static final String PREF_APP_THEME = "app_theme";
@@ -17,6 +19,9 @@ public class NFCGateApp extends Application {
         super.onCreate();
         applyPreferredLocale(this);
         applyPreferredTheme(this);
+
+        // chip detection reads many files, have it ready before the status screen needs it
+        NfcChip.prefetch(this);
     }
 
     public static void applyPreferredLocale(Context context) {
@@ -1,28 +1,38 @@
 package de.tu_darmstadt.seemoo.nfcgate.db;
 
 import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
 import androidx.room.migration.Migration;
 import android.content.Context;
+import android.database.Cursor;
 import androidx.annotation.NonNull;
 
-@Database(entities = {TagInfo.class, SessionLog.class, NfcCommEntry.class}, version = 2, exportSchema = false)
+import java.util.ArrayList;
+import java.util.List;
+
+import de.tu_darmstadt.seemoo.nfcgate.util.ApduDecoder;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+@Database(entities = {TagInfo.class, SessionLog.class, NfcCommEntry.class, NfcCommGram.class, SessionSummary.class}, version = 6, exportSchema = false)
 @TypeConverters({Converters.class})
 public abstract class AppDatabase extends RoomDatabase {
     public abstract TagInfoDao tagInfoDao();
     public abstract SessionLogDao sessionLogDao();
     public abstract SessionLogJoinDao sessionLogJoinDao();
     public abstract NfcCommEntryDao nfcCommEntryDao();
+    public abstract NfcCommGramDao nfcCommGramDao();
+    public abstract SessionSummaryDao sessionSummaryDao();
 
     private static AppDatabase mInstance;
 
     public static AppDatabase getDatabase(Context context) {
         if (mInstance == null)
             mInstance = Room.databaseBuilder(context.getApplicationContext(), AppDatabase.class, "nfcgate")
-                    .addMigrations(MIGRATION_1_2)
+                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6)
                     .build();
         return mInstance;
     }
@@ -33,4 +43,157 @@ public abstract class AppDatabase extends RoomDatabase {
             database.execSQL("ALTER TABLE SessionLog ADD COLUMN type INTEGER DEFAULT 0");
         }
     };
+
+    private static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // decoded APDU columns
+            for (String column : new String[] { "apduCla", "apduIns", "apduP1", "apduP2", "apduLc", "apduLe", "apduSw" })
+                database.execSQL("ALTER TABLE NfcCommEntry ADD COLUMN " + column + " INTEGER NOT NULL DEFAULT -1");
+
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_NfcCommEntry_apduIns` ON `NfcCommEntry` (`apduIns`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_NfcCommEntry_apduSw` ON `NfcCommEntry` (`apduSw`)");
+
+            // decode existing entries
+            ApduDecoder decoder = new ApduDecoder();
+            SupportSQLiteStatement update = database.compileStatement("UPDATE NfcCommEntry SET apduCla = ?, " +
+                    "apduIns = ?, apduP1 = ?, apduP2 = ?, apduLc = ?, apduLe = ?, apduSw = ? WHERE entryId = ?");
+
+            try (Cursor cursor = database.query("SELECT entryId, nfcComm FROM NfcCommEntry")) {
+                while (cursor.moveToNext()) {
+                    byte[] data = cursor.getBlob(1);
+                    if (data == null || !decoder.decode(new NfcComm(data)))
+                        continue;
+
+                    update.bindLong(1, decoder.getCla());
+                    update.bindLong(2, decoder.getIns());
+                    update.bindLong(3, decoder.getP1());
+                    update.bindLong(4, decoder.getP2());
+                    update.bindLong(5, decoder.getLc());
+                    update.bindLong(6, decoder.getLe());
+                    update.bindLong(7, decoder.getSw());
+                    update.bindLong(8, cursor.getLong(0));
+                    update.executeUpdateDelete();
+                }
+            }
+        }
+    };
+
+    private static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `NfcCommGram` (`gram` INTEGER NOT NULL, `entryId` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`gram`, `entryId`), FOREIGN KEY(`entryId`) REFERENCES `NfcCommEntry`(`entryId`) " +
+                    "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_NfcCommGram_entryId` ON `NfcCommGram` (`entryId`)");
+
+            // index existing entries
+            List<NfcCommGram> grams = new ArrayList<>();
+            SupportSQLiteStatement insert = database.compileStatement("INSERT OR IGNORE INTO NfcCommGram (gram, entryId) VALUES (?, ?)");
+
+            try (Cursor cursor = database.query("SELECT entryId, nfcComm FROM NfcCommEntry")) {
+                while (cursor.moveToNext()) {
+                    byte[] data = cursor.getBlob(1);
+                    if (data == null)
+                        continue;
+
+                    grams.clear();
+                    NgramIndex.addPostings(new NfcComm(data), cursor.getInt(0), grams);
+
+                    for (NfcCommGram gram : grams) {
+                        insert.bindLong(1, gram.getGram());
+                        insert.bindLong(2, gram.getEntryId());
+                        insert.executeInsert();
+                    }
+                }
+            }
+        }
+    };
+
+    private static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_SessionLog_date` ON `SessionLog` (`date`)");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `SessionSummary` (`sessionId` INTEGER NOT NULL, " +
+                    "`entryCount` INTEGER NOT NULL, `byteCount` INTEGER NOT NULL, `firstTimestamp` INTEGER NOT NULL, " +
+                    "`lastTimestamp` INTEGER NOT NULL, `tagUid` BLOB, PRIMARY KEY(`sessionId`), " +
+                    "FOREIGN KEY(`sessionId`) REFERENCES `SessionLog`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            database.execSQL("INSERT OR IGNORE INTO SessionSummary (sessionId, entryCount, byteCount, firstTimestamp, lastTimestamp) " +
+                    "SELECT id, 0, 0, 0, 0 FROM SessionLog");
+
+            // summarize existing entries session by session
+            SupportSQLiteStatement update = database.compileStatement("UPDATE SessionSummary SET entryCount = ?, " +
+                    "byteCount = ?, firstTimestamp = ?, lastTimestamp = ?, tagUid = ? WHERE sessionId = ?");
+            SessionSummary summary = null;
+
+            try (Cursor cursor = database.query("SELECT sessionId, nfcComm FROM NfcCommEntry ORDER BY sessionId, entryId")) {
+                while (cursor.moveToNext()) {
+                    long sessionId = cursor.getLong(0);
+                    byte[] data = cursor.getBlob(1);
+
+                    if (summary != null && summary.getSessionId() != sessionId) {
+                        updateSummary(update, summary);
+                        summary = null;
+                    }
+                    if (summary == null)
+                        summary = new SessionSummary(sessionId);
+                    if (data != null)
+                        summary.add(new NfcComm(data));
+                }
+            }
+
+            if (summary != null)
+                updateSummary(update, summary);
+        }
+
+        private void updateSummary(SupportSQLiteStatement update, SessionSummary summary) {
+            update.bindLong(1, summary.getEntryCount());
+            update.bindLong(2, summary.getByteCount());
+            update.bindLong(3, summary.getFirstTimestamp());
+            update.bindLong(4, summary.getLastTimestamp());
+            if (summary.getTagUid() != null)
+                update.bindBlob(5, summary.getTagUid());
+            else
+                update.bindNull(5);
+            update.bindLong(6, summary.getSessionId());
+            update.executeUpdateDelete();
+        }
+    };
+
+    private static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // parsed tag columns
+            database.execSQL("ALTER TABLE TagInfo ADD COLUMN uid BLOB");
+            database.execSQL("ALTER TABLE TagInfo ADD COLUMN technology INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE TagInfo ADD COLUMN sak INTEGER NOT NULL DEFAULT -1");
+            database.execSQL("ALTER TABLE TagInfo ADD COLUMN atqa INTEGER NOT NULL DEFAULT -1");
+            database.execSQL("ALTER TABLE TagInfo ADD COLUMN histHash INTEGER NOT NULL DEFAULT 0");
+
+            // parse existing tags, duplicates saved before are kept
+            SupportSQLiteStatement update = database.compileStatement("UPDATE TagInfo SET uid = ?, technology = ?, " +
+                    "sak = ?, atqa = ?, histHash = ? WHERE id = ?");
+
+            try (Cursor cursor = database.query("SELECT id, data FROM TagInfo")) {
+                while (cursor.moveToNext()) {
+                    TagInfo tagInfo = new TagInfo(null, cursor.getBlob(1));
+
+                    if (tagInfo.getUid() != null)
+                        update.bindBlob(1, tagInfo.getUid());
+                    else
+                        update.bindNull(1);
+                    update.bindLong(2, tagInfo.getTechnology());
+                    update.bindLong(3, tagInfo.getSak());
+                    update.bindLong(4, tagInfo.getAtqa());
+                    update.bindLong(5, tagInfo.getHistHash());
+                    update.bindLong(6, cursor.getLong(0));
+                    update.executeUpdateDelete();
+                }
+            }
+
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_TagInfo_uid_technology_sak_atqa_histHash` " +
+                    "ON `TagInfo` (`uid`, `technology`, `sak`, `atqa`, `histHash`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_TagInfo_name` ON `TagInfo` (`name`)");
+        }
+    };
 }
@@ -6,9 +6,13 @@ import androidx.room.ForeignKey;
 import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import de.tu_darmstadt.seemoo.nfcgate.util.ApduDecoder;
 import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
 
-@Entity(indices = {@Index("sessionId")},
+@Entity(indices = {@Index("sessionId"), @Index("apduIns"), @Index("apduSw")},
         foreignKeys = {
                 @ForeignKey(entity = SessionLog.class, parentColumns = "id", childColumns = "sessionId", onDelete = ForeignKey.CASCADE)
         })
@@ -22,11 +26,46 @@ public class NfcCommEntry {
     @ColumnInfo
     private long sessionId;
 
+    // decoded ISO 7816-4 fields, -1 if absent
+    @ColumnInfo(defaultValue = "-1")
+    private int apduCla = ApduDecoder.NONE;
+
+    @ColumnInfo(defaultValue = "-1")
+    private int apduIns = ApduDecoder.NONE;
+
+    @ColumnInfo(defaultValue = "-1")
+    private int apduP1 = ApduDecoder.NONE;
+
+    @ColumnInfo(defaultValue = "-1")
+    private int apduP2 = ApduDecoder.NONE;
+
+    @ColumnInfo(defaultValue = "-1")
+    private int apduLc = ApduDecoder.NONE;
+
+    @ColumnInfo(defaultValue = "-1")
+    private int apduLe = ApduDecoder.NONE;
+
+    @ColumnInfo(defaultValue = "-1")
+    private int apduSw = ApduDecoder.NONE;
+
     public NfcCommEntry(NfcComm nfcComm, long sessionId) {
         this.nfcComm = nfcComm;
         this.sessionId = sessionId;
     }
 
+    /**
+     * Copies the fields of the last decode call
+     */
+    public void setApdu(ApduDecoder decoder) {
+        apduCla = decoder.getCla();
+        apduIns = decoder.getIns();
+        apduP1 = decoder.getP1();
+        apduP2 = decoder.getP2();
+        apduLc = decoder.getLc();
+        apduLe = decoder.getLe();
+        apduSw = decoder.getSw();
+    }
+
     public int getEntryId() {
         return entryId;
     }
@@ -39,6 +78,16 @@ public class NfcCommEntry {
         return nfcComm;
     }
 
+    /**
+     * Communications of the entries, in order
+     */
+    public static List<NfcComm> toComms(List<NfcCommEntry> entries) {
+        List<NfcComm> result = new ArrayList<>(entries.size());
+        for (NfcCommEntry entry : entries)
+            result.add(entry.getNfcComm());
+        return result;
+    }
+
     public void setNfcComm(NfcComm nfcComm) {
         this.nfcComm = nfcComm;
     }
@@ -51,6 +100,62 @@ public class NfcCommEntry {
         this.sessionId = sessionId;
     }
 
+    public int getApduCla() {
+        return apduCla;
+    }
+
+    public void setApduCla(int apduCla) {
+        this.apduCla = apduCla;
+    }
+
+    public int getApduIns() {
+        return apduIns;
+    }
+
+    public void setApduIns(int apduIns) {
+        this.apduIns = apduIns;
+    }
+
+    public int getApduP1() {
+        return apduP1;
+    }
+
+    public void setApduP1(int apduP1) {
+        this.apduP1 = apduP1;
+    }
+
+    public int getApduP2() {
+        return apduP2;
+    }
+
+    public void setApduP2(int apduP2) {
+        this.apduP2 = apduP2;
+    }
+
+    public int getApduLc() {
+        return apduLc;
+    }
+
+    public void setApduLc(int apduLc) {
+        this.apduLc = apduLc;
+    }
+
+    public int getApduLe() {
+        return apduLe;
+    }
+
+    public void setApduLe(int apduLe) {
+        this.apduLe = apduLe;
+    }
+
+    public int getApduSw() {
+        return apduSw;
+    }
+
+    public void setApduSw(int apduSw) {
+        this.apduSw = apduSw;
+    }
+
     @Override
     public String toString() {
         return nfcComm.toString();
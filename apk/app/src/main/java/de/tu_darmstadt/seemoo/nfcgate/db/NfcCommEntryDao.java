@@ -1,5 +1,7 @@
 package de.tu_darmstadt.seemoo.nfcgate.db;
 
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.Query;
@@ -11,6 +13,24 @@ public interface NfcCommEntryDao {
     @Insert
     void insert(NfcCommEntry log);
 
+    @Insert
+    List<Long> insertAll(List<NfcCommEntry> logs);
+
     @Query("SELECT * FROM NfcCommEntry ORDER BY entryId DESC LIMIT :limit")
     List<NfcCommEntry> getRecent(int limit);
+
+    @Query("SELECT * FROM NfcCommEntry WHERE entryId IN (:entryIds) ORDER BY entryId DESC")
+    List<NfcCommEntry> getByIds(List<Integer> entryIds);
+
+    @Query("SELECT * FROM NfcCommEntry WHERE sessionId = :sessionId ORDER BY entryId ASC")
+    List<NfcCommEntry> getBySession(long sessionId);
+
+    @Query("SELECT * FROM NfcCommEntry WHERE entryId < :beforeId ORDER BY entryId DESC LIMIT :limit")
+    List<NfcCommEntry> getBefore(int beforeId, int limit);
+
+    /**
+     * Streams the rows of a session for callers that only keep a compact key per entry
+     */
+    @Query("SELECT entryId, nfcComm, apduIns, apduSw FROM NfcCommEntry WHERE sessionId = :sessionId ORDER BY entryId ASC")
+    Cursor getSessionCursor(long sessionId);
 }
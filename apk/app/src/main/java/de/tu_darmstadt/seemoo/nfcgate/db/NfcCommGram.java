@@ -0,0 +1,41 @@
+package de.tu_darmstadt.seemoo.nfcgate.db;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+/**
+ * Posting of one distinct 3-byte n-gram of an entry payload, see NgramIndex
+ */
+@Entity(primaryKeys = {"gram", "entryId"},
+        indices = {@Index("entryId")},
+        foreignKeys = {
+                @ForeignKey(entity = NfcCommEntry.class, parentColumns = "entryId", childColumns = "entryId", onDelete = ForeignKey.CASCADE)
+        })
+public class NfcCommGram {
+    // three payload bytes packed big-endian
+    private int gram;
+
+    private int entryId;
+
+    public NfcCommGram(int gram, int entryId) {
+        this.gram = gram;
+        this.entryId = entryId;
+    }
+
+    public int getGram() {
+        return gram;
+    }
+
+    public void setGram(int gram) {
+        this.gram = gram;
+    }
+
+    public int getEntryId() {
+        return entryId;
+    }
+
+    public void setEntryId(int entryId) {
+        this.entryId = entryId;
+    }
+}
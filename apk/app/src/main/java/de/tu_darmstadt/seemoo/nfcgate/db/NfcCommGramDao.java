@@ -0,0 +1,29 @@
+package de.tu_darmstadt.seemoo.nfcgate.db;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface NfcCommGramDao {
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertAll(List<NfcCommGram> grams);
+
+    /**
+     * Number of postings of the gram, counting stops at cap
+     */
+    @Query("SELECT COUNT(*) FROM (SELECT 1 FROM NfcCommGram WHERE gram = :gram LIMIT :cap)")
+    int countPostings(int gram, int cap);
+
+    /**
+     * Entries containing all given grams, newest first.
+     * Walks the postings of the driver gram in order and probes the others per entry
+     */
+    @Query("SELECT g.entryId FROM NfcCommGram g WHERE g.gram = :driver AND g.entryId < :beforeId " +
+            "AND (SELECT COUNT(*) FROM NfcCommGram h WHERE h.entryId = g.entryId AND h.gram IN (:grams)) = :count " +
+            "ORDER BY g.entryId DESC LIMIT :limit")
+    List<Integer> getCandidates(int driver, List<Integer> grams, int count, int beforeId, int limit);
+}
@@ -0,0 +1,124 @@
+package de.tu_darmstadt.seemoo.nfcgate.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.tu_darmstadt.seemoo.nfcgate.util.BytePattern;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * Byte pattern search over all stored payloads backed by 3-byte n-gram postings.
+ * The log writer adds the postings of every entry, a search walks the postings of the rarest
+ * concrete gram of the pattern, probes the others and verifies each candidate against the pattern.
+ * Patterns without three consecutive concrete bytes fall back to scanning the entries.
+ */
+public class NgramIndex {
+    public static final int N = 3;
+    // candidates fetched and verified per round
+    private static final int PAGE_SIZE = 256;
+    // posting counts above this are treated as equally common
+    private static final int COUNT_CAP = 10_000;
+    // grams probed per candidate, the verification covers the rest of the pattern
+    private static final int MAX_GRAMS = 32;
+
+    public static class Hit {
+        public final long sessionId;
+        public final int entryId;
+        public final int offset;
+        public final NfcComm comm;
+
+        Hit(NfcCommEntry entry, int offset) {
+            this.sessionId = entry.getSessionId();
+            this.entryId = entry.getEntryId();
+            this.offset = offset;
+            this.comm = entry.getNfcComm();
+        }
+    }
+
+    /**
+     * Appends one posting for every distinct gram of the payload
+     */
+    public static void addPostings(NfcComm comm, int entryId, List<NfcCommGram> out) {
+        int count = comm.getDataLength() - N + 1;
+        if (count <= 0)
+            return;
+
+        int[] grams = new int[count];
+        for (int i = 0; i < count; i++)
+            grams[i] = (comm.getDataByte(i) << 16) | (comm.getDataByte(i + 1) << 8) | comm.getDataByte(i + 2);
+
+        Arrays.sort(grams);
+        for (int i = 0; i < count; i++)
+            if (i == 0 || grams[i] != grams[i - 1])
+                out.add(new NfcCommGram(grams[i], entryId));
+    }
+
+    /**
+     * Returns up to limit hits, newest entries first. Must not be called on the main thread
+     */
+    public static List<Hit> search(AppDatabase db, BytePattern pattern, int limit) {
+        List<Integer> grams = concreteGrams(pattern);
+        List<Hit> result = new ArrayList<>();
+
+        // the rarest gram drives the candidate walk
+        int driver = -1, driverCount = Integer.MAX_VALUE;
+        for (int gram : grams) {
+            int count = db.nfcCommGramDao().countPostings(gram, COUNT_CAP);
+            if (count < driverCount) {
+                driver = gram;
+                driverCount = count;
+            }
+        }
+
+        // no entry contains the rarest gram
+        if (driverCount == 0)
+            return result;
+
+        int beforeId = Integer.MAX_VALUE;
+        while (result.size() < limit) {
+            List<NfcCommEntry> page;
+
+            if (grams.isEmpty()) {
+                page = db.nfcCommEntryDao().getBefore(beforeId, PAGE_SIZE);
+                if (page.isEmpty())
+                    break;
+                beforeId = page.get(page.size() - 1).getEntryId();
+            }
+            else {
+                List<Integer> ids = db.nfcCommGramDao().getCandidates(driver, grams, grams.size(), beforeId, PAGE_SIZE);
+                if (ids.isEmpty())
+                    break;
+                beforeId = ids.get(ids.size() - 1);
+                page = db.nfcCommEntryDao().getByIds(ids);
+            }
+
+            // postings only prove the grams occur somewhere, verify order and wildcards
+            for (NfcCommEntry entry : page) {
+                int offset = pattern.indexIn(entry.getNfcComm());
+                if (offset >= 0 && result.size() < limit)
+                    result.add(new Hit(entry, offset));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Distinct grams of the windows of the pattern without wildcards
+     */
+    private static List<Integer> concreteGrams(BytePattern pattern) {
+        List<Integer> result = new ArrayList<>();
+
+        for (int i = 0; i + N <= pattern.length() && result.size() < MAX_GRAMS; i++) {
+            if (pattern.isWildcard(i) || pattern.isWildcard(i + 1) || pattern.isWildcard(i + 2))
+                continue;
+
+            int gram = (pattern.byteAt(i) << 16) | (pattern.byteAt(i + 1) << 8) | pattern.byteAt(i + 2);
+            if (!result.contains(gram))
+                result.add(gram);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package de.tu_darmstadt.seemoo.nfcgate.db;
+
+import android.database.Cursor;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.tu_darmstadt.seemoo.nfcgate.util.ApduDecoder;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+import de.tu_darmstadt.seemoo.nfcgate.util.SequenceAligner;
+
+/**
+ * Aligns the entries of two sessions.
+ * Sessions are streamed from the database and reduced to one key and entry id per entry,
+ * payloads are only loaded again for the entries that are displayed.
+ */
+public class SessionDiff {
+    public enum Mode {
+        // compare command instructions and response status words
+        INSTRUCTION,
+        // compare complete payloads
+        PAYLOAD
+    }
+
+    public final long sessionA, sessionB;
+    public final int[] entryIdsA, entryIdsB;
+    public final List<SequenceAligner.Run> runs;
+
+    private SessionDiff(long sessionA, long sessionB, Keys a, Keys b) {
+        this.sessionA = sessionA;
+        this.sessionB = sessionB;
+        this.entryIdsA = a.entryIds;
+        this.entryIdsB = b.entryIds;
+        this.runs = SequenceAligner.align(a.keys, b.keys);
+    }
+
+    /**
+     * Loads and aligns both sessions. Must not be called on the main thread
+     */
+    public static SessionDiff compute(AppDatabase db, long sessionA, long sessionB, Mode mode) {
+        return new SessionDiff(sessionA, sessionB, load(db, sessionA, mode), load(db, sessionB, mode));
+    }
+
+    private static class Keys {
+        int[] keys = new int[256];
+        int[] entryIds = new int[256];
+        int size = 0;
+
+        void add(int key, int entryId) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                entryIds = Arrays.copyOf(entryIds, size * 2);
+            }
+
+            keys[size] = key;
+            entryIds[size++] = entryId;
+        }
+
+        Keys trim() {
+            keys = Arrays.copyOf(keys, size);
+            entryIds = Arrays.copyOf(entryIds, size);
+            return this;
+        }
+    }
+
+    private static Keys load(AppDatabase db, long sessionId, Mode mode) {
+        Keys result = new Keys();
+
+        try (Cursor cursor = db.nfcCommEntryDao().getSessionCursor(sessionId)) {
+            while (cursor.moveToNext()) {
+                int ins = cursor.getInt(2), sw = cursor.getInt(3);
+                int key;
+
+                // decoded columns are enough for instruction keys, tagged to keep both kinds apart
+                if (mode == Mode.INSTRUCTION && ins != ApduDecoder.NONE)
+                    key = 0x1000000 | ins;
+                else if (mode == Mode.INSTRUCTION && sw != ApduDecoder.NONE)
+                    key = 0x2000000 | sw;
+                else {
+                    NfcComm comm = new NfcComm(cursor.getBlob(1));
+                    key = 31 * Arrays.hashCode(comm.getData()) + (comm.isCard() ? 1 : 0);
+                }
+
+                result.add(key, cursor.getInt(0));
+            }
+        }
+
+        return result.trim();
+    }
+}
@@ -2,12 +2,13 @@ package de.tu_darmstadt.seemoo.nfcgate.db;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
-@Entity
+@Entity(indices = {@Index("date")})
 public class SessionLog {
 
     public enum SessionType {
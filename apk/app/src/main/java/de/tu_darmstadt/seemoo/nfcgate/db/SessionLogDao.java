@@ -1,21 +1,26 @@
 package de.tu_darmstadt.seemoo.nfcgate.db;
 
-import androidx.lifecycle.LiveData;
+import androidx.paging.DataSource;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
 
-import java.util.List;
-
 @Dao
 public interface SessionLogDao {
-    @Query("SELECT * FROM SessionLog ORDER BY Date DESC")
-    LiveData<List<SessionLog>> getAll();
+    /**
+     * Sessions with their summaries for the paged session list, newest first
+     */
+    @Query("SELECT * FROM SessionLog LEFT JOIN SessionSummary ON SessionSummary.sessionId = SessionLog.id " +
+            "ORDER BY date DESC, id DESC")
+    DataSource.Factory<Integer, SessionLogSummary> getAllPaged();
 
     @Insert
     long insert(SessionLog log);
 
     @Delete
     void delete(SessionLog log);
+
+    @Query("DELETE FROM SessionLog WHERE id = :id")
+    void deleteById(long id);
 }
@@ -0,0 +1,35 @@
+package de.tu_darmstadt.seemoo.nfcgate.db;
+
+import androidx.room.Embedded;
+
+/**
+ * Session row of the session list, summary is null for sessions without one
+ */
+public class SessionLogSummary {
+    @Embedded
+    private SessionLog sessionLog;
+
+    @Embedded
+    private SessionSummary summary;
+
+    public SessionLogSummary(SessionLog sessionLog, SessionSummary summary) {
+        this.sessionLog = sessionLog;
+        this.summary = summary;
+    }
+
+    public SessionLog getSessionLog() {
+        return sessionLog;
+    }
+
+    public void setSessionLog(SessionLog sessionLog) {
+        this.sessionLog = sessionLog;
+    }
+
+    public SessionSummary getSummary() {
+        return summary;
+    }
+
+    public void setSummary(SessionSummary summary) {
+        this.summary = summary;
+    }
+}
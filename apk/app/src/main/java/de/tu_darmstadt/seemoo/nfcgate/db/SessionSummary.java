@@ -0,0 +1,151 @@
+package de.tu_darmstadt.seemoo.nfcgate.db;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.PrimaryKey;
+
+import de.tu_darmstadt.seemoo.nfcgate.nfc.config.OptionType;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * Aggregates of the entries of one session, maintained by the log writer
+ * so the session list never has to scan or decode entries.
+ */
+@Entity(foreignKeys = {
+        @ForeignKey(entity = SessionLog.class, parentColumns = "id", childColumns = "sessionId", onDelete = ForeignKey.CASCADE)
+})
+public class SessionSummary {
+    @PrimaryKey
+    private long sessionId;
+
+    @ColumnInfo
+    private int entryCount;
+
+    // payload bytes of all entries
+    @ColumnInfo
+    private long byteCount;
+
+    // entry timestamps in millis, 0 without entries
+    @ColumnInfo
+    private long firstTimestamp;
+
+    @ColumnInfo
+    private long lastTimestamp;
+
+    // UID of the first initial card data, null if none was logged
+    @ColumnInfo
+    private byte[] tagUid;
+
+    public SessionSummary(long sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * Adds one entry to the aggregates
+     */
+    public void add(NfcComm comm) {
+        entryCount++;
+        byteCount += comm.getDataLength();
+
+        if (firstTimestamp == 0)
+            firstTimestamp = comm.getTimestamp();
+        lastTimestamp = comm.getTimestamp();
+
+        if (tagUid == null)
+            tagUid = findUid(comm);
+    }
+
+    /**
+     * Resets the aggregates, keeping the session
+     */
+    public void clear() {
+        entryCount = 0;
+        byteCount = 0;
+        firstTimestamp = 0;
+        lastTimestamp = 0;
+        tagUid = null;
+    }
+
+    /**
+     * Returns the NFCID1 or NFCID0 option of initial card data, null otherwise
+     */
+    public static byte[] findUid(NfcComm comm) {
+        if (!comm.isInitial() || !comm.isCard())
+            return null;
+
+        // walk the config stream options without parsing them
+        int length = comm.getDataLength();
+        for (int index = 0; index + 2 <= length; ) {
+            int type = comm.getDataByte(index), optionLength = comm.getDataByte(index + 1);
+            if (index + 2 + optionLength > length)
+                break;
+
+            if (type == (OptionType.LA_NFCID1.getID() & 0xFF) || type == (OptionType.LB_NFCID0.getID() & 0xFF)) {
+                byte[] uid = new byte[optionLength];
+                for (int i = 0; i < optionLength; i++)
+                    uid[i] = (byte) comm.getDataByte(index + 2 + i);
+                return uid;
+            }
+
+            index += optionLength + 2;
+        }
+
+        return null;
+    }
+
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(long sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(int entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    public void setByteCount(long byteCount) {
+        this.byteCount = byteCount;
+    }
+
+    public long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    public void setFirstTimestamp(long firstTimestamp) {
+        this.firstTimestamp = firstTimestamp;
+    }
+
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public void setLastTimestamp(long lastTimestamp) {
+        this.lastTimestamp = lastTimestamp;
+    }
+
+    public byte[] getTagUid() {
+        return tagUid;
+    }
+
+    public void setTagUid(byte[] tagUid) {
+        this.tagUid = tagUid;
+    }
+
+    /**
+     * Duration between first and last entry in millis
+     */
+    public long getDuration() {
+        return lastTimestamp - firstTimestamp;
+    }
+}
@@ -0,0 +1,20 @@
+package de.tu_darmstadt.seemoo.nfcgate.db;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+@Dao
+public interface SessionSummaryDao {
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insert(SessionSummary summary);
+
+    /**
+     * Adds the aggregates of a batch of entries to the summary of its session
+     */
+    @Query("UPDATE SessionSummary SET entryCount = entryCount + :entryCount, byteCount = byteCount + :byteCount, " +
+            "firstTimestamp = CASE WHEN firstTimestamp = 0 THEN :firstTimestamp ELSE firstTimestamp END, " +
+            "lastTimestamp = :lastTimestamp, tagUid = COALESCE(tagUid, :tagUid) WHERE sessionId = :sessionId")
+    void add(long sessionId, int entryCount, long byteCount, long firstTimestamp, long lastTimestamp, byte[] tagUid);
+}
@@ -2,22 +2,165 @@ package de.tu_darmstadt.seemoo.nfcgate.db;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity
+import java.util.Arrays;
+
+import de.tu_darmstadt.seemoo.nfcgate.nfc.config.ConfigView;
+import de.tu_darmstadt.seemoo.nfcgate.nfc.config.OptionType;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * Saved clone tag. The identifying options of the config are kept in indexed columns,
+ * so the library can be searched by UID and a rescanned card is recognized without decoding every tag.
+ */
+@Entity(indices = {
+        @Index({"uid", "technology", "sak", "atqa", "histHash"}),
+        @Index("name")
+})
 public class TagInfo {
+    // technology bits, by the listen options present in the config
+    public static final int TECH_A = 1;
+    public static final int TECH_B = 2;
+    public static final int TECH_F = 4;
+
     @PrimaryKey(autoGenerate = true)
     private int id;
 
     @ColumnInfo
     private String name;
 
+    // serialized NfcComm with the initial card data
     @ColumnInfo
     private byte[] data;
 
+    // NFCID1, NFCID0 or NFCID2, null if the config has none
+    @ColumnInfo
+    private byte[] uid;
+
+    @ColumnInfo
+    private int technology;
+
+    // -1 if not present
+    @ColumnInfo
+    private int sak = -1;
+
+    // ATQA[0] << 8 | ATQA[1], -1 if not present
+    @ColumnInfo
+    private int atqa = -1;
+
+    // hash of the historical bytes or higher layer response, 0 if not present
+    @ColumnInfo
+    private int histHash;
+
+    public TagInfo() {
+    }
+
+    @Ignore
     public TagInfo(String name, byte[] data) {
         this.name = name;
         this.data = data;
+        index();
+    }
+
+    /**
+     * Fills the indexed columns from the config in data
+     */
+    public void index() {
+        uid = null;
+        technology = 0;
+        sak = -1;
+        atqa = -1;
+        histHash = 0;
+
+        byte[] config = configOf(data);
+        if (config == null)
+            return;
+
+        int atqa0 = -1, atqa1 = -1;
+        ConfigView view = new ConfigView(config);
+        while (view.next()) {
+            OptionType type = view.optionType();
+            if (type == null)
+                continue;
+
+            int offset = view.offset(), length = view.length();
+            switch (type) {
+                case LA_BIT_FRAME_SDD:
+                    atqa0 = length > 0 ? config[offset] & 0xFF : -1;
+                    break;
+                case LA_PLATFORM_CONFIG:
+                    atqa1 = length > 0 ? config[offset] & 0xFF : -1;
+                    break;
+                case LA_SEL_INFO:
+                    sak = length > 0 ? config[offset] & 0xFF : -1;
+                    break;
+                case LA_NFCID1:
+                case LB_NFCID0:
+                    uid = Arrays.copyOfRange(config, offset, offset + length);
+                    break;
+                case LF_T3T_IDENTIFIERS_1:
+                    // NFCID2 follows the system code, keep a NFCID1/NFCID0 seen first
+                    if (uid == null && length >= 10)
+                        uid = Arrays.copyOfRange(config, offset + 2, offset + 10);
+                    break;
+                case LA_HIST_BY:
+                case LB_H_INFO_RSP:
+                    histHash = hash(config, offset, length);
+                    break;
+            }
+
+            technology |= technologyOf(type);
+        }
+
+        if (atqa0 >= 0 && atqa1 >= 0)
+            atqa = atqa0 << 8 | atqa1;
+    }
+
+    private static byte[] configOf(byte[] data) {
+        if (data == null)
+            return null;
+
+        try {
+            return new NfcComm(data).getData();
+        } catch (RuntimeException e) {
+            // not a serialized NfcComm
+            return null;
+        }
+    }
+
+    private static int technologyOf(OptionType type) {
+        switch (type) {
+            case LA_BIT_FRAME_SDD:
+            case LA_PLATFORM_CONFIG:
+            case LA_SEL_INFO:
+            case LA_NFCID1:
+            case LA_HIST_BY:
+                return TECH_A;
+            case LB_NFCID0:
+            case LB_APPLICATION_DATA:
+            case LB_SFGI:
+            case LB_SENSB_INFO:
+            case LB_ADC_FO:
+            case LB_H_INFO_RSP:
+                return TECH_B;
+            case LF_T3T_IDENTIFIERS_1:
+            case LF_T3T_FLAGS:
+            case LF_T3T_PMM:
+                return TECH_F;
+            default:
+                return 0;
+        }
+    }
+
+    private static int hash(byte[] data, int offset, int length) {
+        // like Arrays.hashCode, never 0 for present bytes
+        int result = 1;
+        for (int i = offset; i < offset + length; i++)
+            result = 31 * result + data[i];
+        return result != 0 ? result : 1;
     }
 
     public int getId() {
@@ -44,6 +187,46 @@ public class TagInfo {
         this.data = data;
     }
 
+    public byte[] getUid() {
+        return uid;
+    }
+
+    public void setUid(byte[] uid) {
+        this.uid = uid;
+    }
+
+    public int getTechnology() {
+        return technology;
+    }
+
+    public void setTechnology(int technology) {
+        this.technology = technology;
+    }
+
+    public int getSak() {
+        return sak;
+    }
+
+    public void setSak(int sak) {
+        this.sak = sak;
+    }
+
+    public int getAtqa() {
+        return atqa;
+    }
+
+    public void setAtqa(int atqa) {
+        this.atqa = atqa;
+    }
+
+    public int getHistHash() {
+        return histHash;
+    }
+
+    public void setHistHash(int histHash) {
+        this.histHash = histHash;
+    }
+
     @Override
     public String toString() {
         return getName();
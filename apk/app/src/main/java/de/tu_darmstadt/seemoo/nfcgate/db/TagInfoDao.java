@@ -1,21 +1,87 @@
 package de.tu_darmstadt.seemoo.nfcgate.db;
 
-import androidx.lifecycle.LiveData;
+import androidx.paging.DataSource;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Update;
 
-import java.util.List;
+import java.util.Arrays;
 
 @Dao
-public interface TagInfoDao {
-    @Query("SELECT * FROM TagInfo ORDER BY Name ASC")
-    LiveData<List<TagInfo>> getAll();
+public abstract class TagInfoDao {
+    /**
+     * Tags for the paged clone library, by name
+     */
+    @Query("SELECT * FROM TagInfo ORDER BY name ASC, id ASC")
+    public abstract DataSource.Factory<Integer, TagInfo> getAllPaged();
+
+    /**
+     * Tags whose UID starts with a prefix, as the UID range [from, to), to is null if the prefix has no successor
+     */
+    @Query("SELECT * FROM TagInfo WHERE uid >= :from AND (:to IS NULL OR uid < :to) ORDER BY name ASC, id ASC")
+    public abstract DataSource.Factory<Integer, TagInfo> searchByUid(byte[] from, byte[] to);
+
+    /**
+     * Tags whose UID starts with prefix, by name
+     */
+    public DataSource.Factory<Integer, TagInfo> searchByUidPrefix(byte[] prefix) {
+        return searchByUid(prefix, successor(prefix));
+    }
+
+    /**
+     * Smallest byte string greater than all strings starting with prefix, null if there is none
+     */
+    static byte[] successor(byte[] prefix) {
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            if (prefix[i] != (byte) 0xFF) {
+                byte[] result = Arrays.copyOf(prefix, i + 1);
+                result[i]++;
+                return result;
+            }
+        }
+        return null;
+    }
+
+    @Query("SELECT * FROM TagInfo WHERE uid = :uid AND technology = :technology AND sak = :sak " +
+            "AND atqa = :atqa AND histHash = :histHash LIMIT 1")
+    public abstract TagInfo find(byte[] uid, int technology, int sak, int atqa, int histHash);
+
+    /**
+     * Saved tag describing the same card as tagInfo, null if there is none.
+     * Tags without UID (e.g. NfcV or unparsable configs) have nothing identifying and never match.
+     */
+    public TagInfo findSameTag(TagInfo tagInfo) {
+        if (tagInfo.getUid() == null)
+            return null;
+
+        return find(tagInfo.getUid(), tagInfo.getTechnology(), tagInfo.getSak(), tagInfo.getAtqa(), tagInfo.getHistHash());
+    }
 
     @Insert
-    void insert(TagInfo tagInfo);
+    public abstract long insert(TagInfo tagInfo);
+
+    @Update
+    public abstract void update(TagInfo tagInfo);
+
+    /**
+     * Inserts the tag, or renames and updates the saved tag of the same card. Returns the id of the row.
+     */
+    @Transaction
+    public long insertOrUpdate(TagInfo tagInfo) {
+        TagInfo existing = findSameTag(tagInfo);
+        if (existing == null) {
+            tagInfo.setId((int) insert(tagInfo));
+            return tagInfo.getId();
+        }
+
+        tagInfo.setId(existing.getId());
+        update(tagInfo);
+        return existing.getId();
+    }
 
     @Delete
-    void delete(TagInfo tagInfo);
+    public abstract void delete(TagInfo tagInfo);
 }
@@ -4,22 +4,29 @@ import android.app.Application;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.annotation.NonNull;
-
-import java.util.List;
+import androidx.paging.LivePagedListBuilder;
+import androidx.paging.PagedList;
 
 import de.tu_darmstadt.seemoo.nfcgate.db.AppDatabase;
-import de.tu_darmstadt.seemoo.nfcgate.db.SessionLog;
+import de.tu_darmstadt.seemoo.nfcgate.db.SessionLogSummary;
 
 public class SessionLogViewModel extends AndroidViewModel {
-    private final LiveData<List<SessionLog>> mSessionLog;
+    // sessions loaded per page
+    private static final int PAGE_SIZE = 50;
+
+    private final LiveData<PagedList<SessionLogSummary>> mSessionLog;
 
     public SessionLogViewModel(@NonNull Application application) {
         super(application);
 
-        mSessionLog = AppDatabase.getDatabase(application).sessionLogDao().getAll();
+        PagedList.Config config = new PagedList.Config.Builder()
+                .setPageSize(PAGE_SIZE)
+                .setEnablePlaceholders(false)
+                .build();
+        mSessionLog = new LivePagedListBuilder<>(AppDatabase.getDatabase(application).sessionLogDao().getAllPaged(), config).build();
     }
 
-    public LiveData<List<SessionLog>> getSessionLogs() {
+    public LiveData<PagedList<SessionLogSummary>> getSessionLogs() {
         return mSessionLog;
     }
 }
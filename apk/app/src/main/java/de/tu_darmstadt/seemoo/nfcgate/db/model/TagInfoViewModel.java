@@ -1,65 +1,103 @@
 package de.tu_darmstadt.seemoo.nfcgate.db.model;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
-import android.os.AsyncTask;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 import androidx.annotation.NonNull;
+import androidx.paging.DataSource;
+import androidx.paging.LivePagedListBuilder;
+import androidx.paging.PagedList;
 
-import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import de.tu_darmstadt.seemoo.nfcgate.db.AppDatabase;
 import de.tu_darmstadt.seemoo.nfcgate.db.TagInfo;
 import de.tu_darmstadt.seemoo.nfcgate.db.TagInfoDao;
 
 public class TagInfoViewModel extends AndroidViewModel {
-    private final LiveData<List<TagInfo>> mTagInfos;
-    private final AppDatabase mAppDb;
+    // tags loaded per page
+    private static final int PAGE_SIZE = 50;
+
+    private final TagInfoDao mDao;
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+
+    // UID prefix of the shown tags, empty for all
+    private final MutableLiveData<byte[]> mUidFilter = new MutableLiveData<>();
+    private final LiveData<PagedList<TagInfo>> mTagInfos;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    public interface SameTagCallback {
+        /**
+         * Called on the main thread with the saved tag of the same card, null if it is not saved
+         */
+        void onSameTag(TagInfo sameTag);
+    }
 
     public TagInfoViewModel(@NonNull Application application) {
         super(application);
 
-        mAppDb = AppDatabase.getDatabase(application);
-        mTagInfos = mAppDb.tagInfoDao().getAll();
-    }
+        mDao = AppDatabase.getDatabase(application).tagInfoDao();
+        mUidFilter.setValue(new byte[0]);
 
-    public LiveData<List<TagInfo>> getTagInfos() {
-        return mTagInfos;
+        PagedList.Config config = new PagedList.Config.Builder()
+                .setPageSize(PAGE_SIZE)
+                .setEnablePlaceholders(false)
+                .build();
+        mTagInfos = Transformations.switchMap(mUidFilter,
+                prefix -> new LivePagedListBuilder<>(query(prefix), config).build());
     }
 
-    public void insert(TagInfo tagInfo) {
-        new insertAsyncTask(mAppDb.tagInfoDao()).execute(tagInfo);
+    private DataSource.Factory<Integer, TagInfo> query(byte[] prefix) {
+        if (prefix.length == 0)
+            return mDao.getAllPaged();
+
+        return mDao.searchByUidPrefix(prefix);
     }
 
-    public void delete(TagInfo tagInfo) {
-        new deleteAsyncTask(mAppDb.tagInfoDao()).execute(tagInfo);
+    public LiveData<PagedList<TagInfo>> getTagInfos() {
+        return mTagInfos;
     }
 
-    private static class insertAsyncTask extends AsyncTask<TagInfo, Void, Void> {
-        private final TagInfoDao mAsyncTaskDao;
+    /**
+     * Shows only tags whose UID starts with prefix, an empty prefix shows all tags
+     */
+    public void setUidFilter(byte[] prefix) {
+        mUidFilter.setValue(prefix);
+    }
 
-        insertAsyncTask(TagInfoDao dao) {
-            mAsyncTaskDao = dao;
-        }
+    public byte[] getUidFilter() {
+        return mUidFilter.getValue();
+    }
 
-        @Override
-        protected Void doInBackground(final TagInfo... params) {
-            mAsyncTaskDao.insert(params[0]);
-            return null;
-        }
+    /**
+     * Looks up the saved tag of the same card
+     */
+    public void findSameTag(TagInfo tagInfo, SameTagCallback callback) {
+        mExecutor.execute(() -> {
+            TagInfo sameTag = mDao.findSameTag(tagInfo);
+            mHandler.post(() -> callback.onSameTag(sameTag));
+        });
     }
 
-    private static class deleteAsyncTask extends AsyncTask<TagInfo, Void, Void> {
-        private final TagInfoDao mAsyncTaskDao;
+    /**
+     * Saves the tag, a saved tag of the same card is renamed and updated instead
+     */
+    public void insert(TagInfo tagInfo) {
+        mExecutor.execute(() -> mDao.insertOrUpdate(tagInfo));
+    }
 
-        deleteAsyncTask(TagInfoDao dao) {
-            mAsyncTaskDao = dao;
-        }
+    public void delete(TagInfo tagInfo) {
+        mExecutor.execute(() -> mDao.delete(tagInfo));
+    }
 
-        @Override
-        protected Void doInBackground(final TagInfo... params) {
-            mAsyncTaskDao.delete(params[0]);
-            return null;
-        }
+    @Override
+    protected void onCleared() {
+        // queued writes still finish
+        mExecutor.shutdown();
     }
 }
@@ -5,21 +5,29 @@ import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
 public class LogEntry {
     private final boolean mValid;
     private final NfcComm mData;
+    // System.nanoTime() when the entry was queued
+    private final long mEnqueuedNs;
 
     LogEntry() {
         mData = null;
         mValid = false;
+        mEnqueuedNs = System.nanoTime();
     }
 
     LogEntry(NfcComm data) {
         mData = data;
         mValid = true;
+        mEnqueuedNs = System.nanoTime();
     }
 
     NfcComm getData() {
         return mData;
     }
 
+    long getEnqueuedNs() {
+        return mEnqueuedNs;
+    }
+
     boolean isValid() {
         return mValid;
     }
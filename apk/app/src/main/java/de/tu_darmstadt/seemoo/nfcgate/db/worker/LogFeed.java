@@ -0,0 +1,52 @@
+package de.tu_darmstadt.seemoo.nfcgate.db.worker;
+
+import android.util.Log;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import de.tu_darmstadt.seemoo.nfcgate.db.NfcCommEntry;
+
+/**
+ * Change feed of the log writer. Listeners receive every batch right after it was committed,
+ * so live views can append entries instead of re-querying their session.
+ */
+public final class LogFeed {
+    private static final String TAG = "LogFeed";
+
+    public interface Listener {
+        /**
+         * Called on the writer thread with entries that already carry their entry id
+         */
+        void onEntriesAdded(long sessionId, List<NfcCommEntry> entries);
+    }
+
+    private static final List<Listener> mListeners = new CopyOnWriteArrayList<>();
+
+    private LogFeed() { }
+
+    public static void register(Listener listener) {
+        mListeners.add(listener);
+    }
+
+    public static void unregister(Listener listener) {
+        mListeners.remove(listener);
+    }
+
+    static boolean hasListeners() {
+        return !mListeners.isEmpty();
+    }
+
+    static void publish(long sessionId, List<NfcCommEntry> entries) {
+        List<NfcCommEntry> snapshot = Collections.unmodifiableList(entries);
+        for (Listener listener : mListeners) {
+            // a listener may be torn down concurrently, it must never break the writer
+            try {
+                listener.onEntriesAdded(sessionId, snapshot);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Listener failed", e);
+            }
+        }
+    }
+}
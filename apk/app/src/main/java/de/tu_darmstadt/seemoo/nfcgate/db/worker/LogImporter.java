@@ -0,0 +1,104 @@
+package de.tu_darmstadt.seemoo.nfcgate.db.worker;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import de.tu_darmstadt.seemoo.nfcgate.db.AppDatabase;
+import de.tu_darmstadt.seemoo.nfcgate.db.SessionLog;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+import de.tu_darmstadt.seemoo.nfcgate.util.RecentEvents;
+
+/**
+ * Bulk import of complete sessions, e.g. pcapng files or on-device captures.
+ * Unlike LogInserter there is no queue and no rate limit, entries are read and written
+ * on a background thread in large transactions and every imported session is complete:
+ * a source that fails to read creates no session, a failed write deletes it again.
+ */
+public class LogImporter {
+    private static final String TAG = "LogImporter";
+
+    // entries written per transaction
+    private static final int IMPORT_BATCH_SIZE = 512;
+
+    // imports run one after another on a shared worker
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+
+    public interface Source {
+        /**
+         * Reads the entries to import, called on the import thread
+         */
+        List<NfcComm> read() throws Exception;
+    }
+
+    public interface Callback {
+        /**
+         * Called on the main thread with the number of imported entries,
+         * error is null on success
+         */
+        void onImportDone(int imported, Exception error);
+    }
+
+    private final AppDatabase mDatabase;
+    private final SessionLog.SessionType mSessionType;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    public LogImporter(Context ctx, SessionLog.SessionType sessionType) {
+        mDatabase = AppDatabase.getDatabase(ctx);
+        mSessionType = sessionType;
+    }
+
+    /**
+     * Imports all entries of the source into one new session
+     */
+    public void importAsync(Source source, Callback callback) {
+        EXECUTOR.execute(() -> {
+            int imported = 0;
+            Exception error = null;
+
+            try {
+                List<NfcComm> entries = source.read();
+                imported = write(entries);
+            } catch (Exception e) {
+                Log.e(TAG, "Import failed", e);
+                RecentEvents.error("Import failed", e);
+                error = e;
+            }
+
+            final int importedFinal = imported;
+            final Exception errorFinal = error;
+            mMainHandler.post(() -> callback.onImportDone(importedFinal, errorFinal));
+        });
+    }
+
+    private int write(List<NfcComm> entries) {
+        if (entries.isEmpty())
+            return 0;
+
+        LogWriter writer = new LogWriter(mDatabase, mSessionType);
+        int written = 0;
+
+        writer.beginSession();
+        try {
+            for (NfcComm entry : entries) {
+                writer.add(entry);
+
+                if (writer.pending() >= IMPORT_BATCH_SIZE)
+                    written += writer.flush();
+            }
+            written += writer.flush();
+            writer.endSession();
+        } catch (RuntimeException e) {
+            // batches are committed separately, do not leave a partial session behind
+            writer.abortSession();
+            throw e;
+        }
+
+        return written;
+    }
+}
@@ -2,14 +2,15 @@ package de.tu_darmstadt.seemoo.nfcgate.db.worker;
 
 import android.content.Context;
 
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import de.tu_darmstadt.seemoo.nfcgate.db.AppDatabase;
-import de.tu_darmstadt.seemoo.nfcgate.db.NfcCommEntry;
 import de.tu_darmstadt.seemoo.nfcgate.db.SessionLog;
-import de.tu_darmstadt.seemoo.nfcgate.util.DiagnosticsStats;
+import de.tu_darmstadt.seemoo.nfcgate.util.Metrics;
 import de.tu_darmstadt.seemoo.nfcgate.util.RecentEvents;
 import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
 import de.tu_darmstadt.seemoo.nfcgate.util.PrefUtils;
@@ -24,8 +25,11 @@ public class LogInserter {
     private final SessionLog.SessionType mSessionType;
     private static final int DEFAULT_LOG_QUEUE_CAPACITY = 512;
     private static final int DEFAULT_MAX_LOGS_PER_SECOND = 200;
+    // maximum number of entries written in one transaction
+    private static final int MAX_BATCH_SIZE = 64;
     private final BlockingQueue<LogEntry> mQueue;
     private final int mMaxLogsPerSecond;
+    private final LogInserterThread mThread;
     private long mSessionId = -1;
 
     private int mDroppedLogs = 0;
@@ -36,18 +40,25 @@ public class LogInserter {
     private final SIDChangedListener mListener;
 
     public LogInserter(Context ctx, SessionLog.SessionType sessionType, SIDChangedListener listener) {
-        mDatabase = AppDatabase.getDatabase(ctx);
+        this(AppDatabase.getDatabase(ctx), sessionType, listener,
+                PrefUtils.readClampedInt(ctx, "log_queue_capacity", DEFAULT_LOG_QUEUE_CAPACITY, 64, 16384),
+                // 0 disables rate limiting.
+                PrefUtils.readClampedInt(ctx, "log_rate_limit_per_sec", DEFAULT_MAX_LOGS_PER_SECOND, 0, 100_000));
+    }
+
+    /**
+     * Inserter on an explicit database, used by tests and benchmarks
+     */
+    LogInserter(AppDatabase database, SessionLog.SessionType sessionType, SIDChangedListener listener,
+                int queueCapacity, int maxLogsPerSecond) {
+        mDatabase = database;
         mSessionType = sessionType;
         mListener = listener;
-
-        int queueCapacity = PrefUtils.readClampedInt(ctx, "log_queue_capacity", DEFAULT_LOG_QUEUE_CAPACITY, 64, 16384);
         mQueue = new LinkedBlockingQueue<>(queueCapacity);
+        mMaxLogsPerSecond = maxLogsPerSecond;
 
-        // 0 disables rate limiting.
-        int rate = PrefUtils.readClampedInt(ctx, "log_rate_limit_per_sec", DEFAULT_MAX_LOGS_PER_SECOND, 0, 100_000);
-        mMaxLogsPerSecond = rate;
-
-        new LogInserterThread().start();
+        mThread = new LogInserterThread();
+        mThread.start();
     }
 
     private void setSessionId(long sid) {
@@ -68,7 +79,7 @@ public class LogInserter {
             mRateWindowCount++;
             if (mRateWindowCount > mMaxLogsPerSecond) {
                 mDroppedLogs++;
-                DiagnosticsStats.incDroppedLogEntries();
+                Metrics.DROPPED_LOG_ENTRIES.inc();
                 if (mDroppedLogs == 1 || (mDroppedLogs % 200) == 0) {
                     RecentEvents.warn("Log rate limited; dropped " + mDroppedLogs + " entries");
                 }
@@ -79,7 +90,7 @@ public class LogInserter {
         boolean ok = mQueue.offer(new LogEntry(data));
         if (!ok) {
             mDroppedLogs++;
-            DiagnosticsStats.incDroppedLogEntries();
+            Metrics.DROPPED_LOG_ENTRIES.inc();
             if (mDroppedLogs == 1 || (mDroppedLogs % 200) == 0) {
                 RecentEvents.warn("Log queue full; dropped " + mDroppedLogs + " entries");
             }
@@ -92,7 +103,18 @@ public class LogInserter {
         mQueue.offer(new LogEntry());
     }
 
+    /**
+     * Stops the worker thread, entries still queued are discarded
+     */
+    void close() throws InterruptedException {
+        mThread.interrupt();
+        mThread.join();
+    }
+
     class LogInserterThread extends Thread {
+        private final List<LogEntry> mTaken = new ArrayList<>(MAX_BATCH_SIZE);
+        private final LogWriter mWriter = new LogWriter(mDatabase, mSessionType);
+
         LogInserterThread() {
             // ensure JVM stops this thread at the end of app
             setDaemon(true);
@@ -100,21 +122,46 @@ public class LogInserter {
 
         @Override
         public void run() {
-            while (true) {
+            while (!isInterrupted()) {
                 try {
-                    LogEntry entry = mQueue.take();
-
-                    // set session id if none is set or reset it on reset data
-                    if (!entry.isValid())
-                        setSessionId(-1);
-                    else if (mSessionId == -1)
-                        setSessionId(mDatabase.sessionLogDao().insert(new SessionLog(new Date(), mSessionType)));
-
-                    if (entry.isValid())
-                        mDatabase.nfcCommEntryDao().insert(new NfcCommEntry(entry.getData(), mSessionId));
-
+                    // wait for one entry, then take whatever else is already queued.
+                    // When idle, the throttled summary catches up with the written entries
+                    LogEntry first = mWriter.hasPendingSummary()
+                            ? mQueue.poll(LogWriter.SUMMARY_INTERVAL_MS, TimeUnit.MILLISECONDS) : mQueue.take();
+                    if (first == null) {
+                        mWriter.writeSummary();
+                        continue;
+                    }
+                    mTaken.add(first);
+                    Metrics.LOG_QUEUE_DEPTH.set(mQueue.size() + 1);
+                    mQueue.drainTo(mTaken, MAX_BATCH_SIZE - 1);
+
+                    for (LogEntry entry : mTaken) {
+                        // reset session id on reset data, entries before it belong to the old session
+                        if (!entry.isValid()) {
+                            mWriter.endSession();
+                            setSessionId(-1);
+                            continue;
+                        }
+
+                        // set session id if none is set
+                        if (!mWriter.hasSession())
+                            setSessionId(mWriter.beginSession());
+
+                        mWriter.add(entry.getData());
+                    }
+
+                    mWriter.flush();
+
+                    final long now = System.nanoTime();
+                    for (LogEntry entry : mTaken)
+                        if (entry.isValid())
+                            Metrics.LOG_COMMIT.record(now - entry.getEnqueuedNs());
                 } catch (InterruptedException ignored) {
-                    Thread.currentThread().interrupt();
+                    // only close() interrupts this thread
+                    return;
+                } finally {
+                    mTaken.clear();
                 }
             }
         }
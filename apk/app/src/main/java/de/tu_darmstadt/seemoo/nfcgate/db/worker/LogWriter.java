@@ -0,0 +1,153 @@
+package de.tu_darmstadt.seemoo.nfcgate.db.worker;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import de.tu_darmstadt.seemoo.nfcgate.db.AppDatabase;
+import de.tu_darmstadt.seemoo.nfcgate.db.NfcCommEntry;
+import de.tu_darmstadt.seemoo.nfcgate.db.NfcCommGram;
+import de.tu_darmstadt.seemoo.nfcgate.db.NgramIndex;
+import de.tu_darmstadt.seemoo.nfcgate.db.SessionLog;
+import de.tu_darmstadt.seemoo.nfcgate.db.SessionSummary;
+import de.tu_darmstadt.seemoo.nfcgate.util.ApduDecoder;
+import de.tu_darmstadt.seemoo.nfcgate.util.Metrics;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * Collects entries of one session and writes them in batched transactions.
+ * The session summary is written at most once per SUMMARY_INTERVAL_MS and when the session ends,
+ * every summary write reloads the paged session list.
+ * Not thread safe, every writer belongs to a single worker thread.
+ */
+class LogWriter {
+    static final long SUMMARY_INTERVAL_MS = 1000;
+
+    private final AppDatabase mDatabase;
+    private final SessionLog.SessionType mSessionType;
+    private long mSessionId = -1;
+
+    private final List<NfcCommEntry> mBatch = new ArrayList<>();
+    private final List<NfcCommGram> mGrams = new ArrayList<>();
+    private final ApduDecoder mDecoder = new ApduDecoder();
+    // aggregates of the entries written since the last summary update
+    private final SessionSummary mDelta = new SessionSummary(-1);
+    // System.nanoTime() of the last summary update, 0 before the first one
+    private long mSummaryWrittenNs = 0;
+
+    LogWriter(AppDatabase database, SessionLog.SessionType sessionType) {
+        mDatabase = database;
+        mSessionType = sessionType;
+    }
+
+    boolean hasSession() {
+        return mSessionId != -1;
+    }
+
+    /**
+     * Inserts a new session with an empty summary and returns its id
+     */
+    long beginSession() {
+        mSessionId = mDatabase.runInTransaction(() -> {
+            long sessionId = mDatabase.sessionLogDao().insert(new SessionLog(new Date(), mSessionType));
+            mDatabase.sessionSummaryDao().insert(new SessionSummary(sessionId));
+            return sessionId;
+        });
+        return mSessionId;
+    }
+
+    /**
+     * Writes pending entries, further entries need a new session
+     */
+    void endSession() {
+        flush();
+        writeSummary();
+        mSessionId = -1;
+    }
+
+    /**
+     * Deletes the current session with all entries written so far, e.g. after a failed import
+     */
+    void abortSession() {
+        mBatch.clear();
+        mGrams.clear();
+        mDelta.clear();
+        if (hasSession())
+            mDatabase.sessionLogDao().deleteById(mSessionId);
+        mSessionId = -1;
+    }
+
+    /**
+     * Queues an entry of the current session until the next flush
+     */
+    void add(NfcComm data) {
+        // decode APDU fields into their columns
+        NfcCommEntry commEntry = new NfcCommEntry(data, mSessionId);
+        if (mDecoder.decode(data))
+            commEntry.setApdu(mDecoder);
+        mBatch.add(commEntry);
+        mDelta.add(data);
+    }
+
+    int pending() {
+        return mBatch.size();
+    }
+
+    /**
+     * True if written entries are not yet part of the session summary
+     */
+    boolean hasPendingSummary() {
+        return mDelta.getEntryCount() > 0;
+    }
+
+    /**
+     * Adds the aggregates of all entries written since the last update to the session summary.
+     * Queued entries are counted as well, so callers flush first
+     */
+    void writeSummary() {
+        if (!hasPendingSummary())
+            return;
+
+        mDatabase.sessionSummaryDao().add(mSessionId, mDelta.getEntryCount(), mDelta.getByteCount(),
+                mDelta.getFirstTimestamp(), mDelta.getLastTimestamp(), mDelta.getTagUid());
+        mDelta.clear();
+        mSummaryWrittenNs = System.nanoTime();
+    }
+
+    /**
+     * Writes all queued entries in one transaction, returns their number
+     */
+    int flush() {
+        if (mBatch.isEmpty())
+            return 0;
+
+        // entries and their search postings are written together, the summary is throttled
+        final long start = System.nanoTime();
+        final boolean summary = mSummaryWrittenNs == 0
+                || start - mSummaryWrittenNs >= TimeUnit.MILLISECONDS.toNanos(SUMMARY_INTERVAL_MS);
+        mDatabase.runInTransaction(() -> {
+            List<Long> ids = mDatabase.nfcCommEntryDao().insertAll(mBatch);
+            for (int i = 0; i < ids.size(); i++) {
+                mBatch.get(i).setEntryId(ids.get(i).intValue());
+                NgramIndex.addPostings(mBatch.get(i).getNfcComm(), ids.get(i).intValue(), mGrams);
+            }
+
+            mDatabase.nfcCommGramDao().insertAll(mGrams);
+            if (summary)
+                writeSummary();
+        });
+        Metrics.LOG_INSERT.recordSince(start);
+        Metrics.LOG_BATCH_SIZE.set(mBatch.size());
+        Metrics.LOG_ENTRIES.add(mBatch.size());
+
+        // live views append the committed entries, the batch list itself is reused
+        if (LogFeed.hasListeners())
+            LogFeed.publish(mSessionId, new ArrayList<>(mBatch));
+
+        int written = mBatch.size();
+        mGrams.clear();
+        mBatch.clear();
+        return written;
+    }
+}
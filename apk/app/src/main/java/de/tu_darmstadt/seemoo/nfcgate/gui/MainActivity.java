@@ -1,5 +1,6 @@
 package de.tu_darmstadt.seemoo.nfcgate.gui;
 
+import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.nfc.NfcAdapter;
@@ -18,13 +19,14 @@ import android.view.MenuItem;
 import android.view.View;
 import android.widget.Toast;
 
-import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 
 import de.tu_darmstadt.seemoo.nfcgate.R;
 import de.tu_darmstadt.seemoo.nfcgate.db.SessionLog;
 import de.tu_darmstadt.seemoo.nfcgate.db.pcapng.ISO14443Stream;
-import de.tu_darmstadt.seemoo.nfcgate.db.worker.LogInserter;
+import de.tu_darmstadt.seemoo.nfcgate.db.worker.LogImporter;
 import de.tu_darmstadt.seemoo.nfcgate.gui.fragment.CaptureFragment;
 import de.tu_darmstadt.seemoo.nfcgate.gui.fragment.CloneFragment;
 import de.tu_darmstadt.seemoo.nfcgate.gui.fragment.StatusFragment;
@@ -200,26 +202,30 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void importPcap(Uri uri) {
-        try {
-            LogInserter inserter = new LogInserter(this, SessionLog.SessionType.RELAY, null);
+        final Context ctx = getApplicationContext();
 
-            for (NfcComm e : new ISO14443Stream().readAll(getContentResolver().openInputStream(uri)))
-                inserter.log(e);
-            Toast.makeText(this, getString(R.string.pcap_success), Toast.LENGTH_SHORT).show();
-        }
-        catch (IOException e) {
-            e.printStackTrace();
-            Toast.makeText(this, getString(R.string.pcap_error), Toast.LENGTH_SHORT).show();
-        }
+        // parsing and writing both happen on the import thread
+        new LogImporter(this, SessionLog.SessionType.RELAY).importAsync(() -> {
+            try (InputStream in = ctx.getContentResolver().openInputStream(uri)) {
+                return new ISO14443Stream().readAll(in);
+            }
+        }, (imported, error) -> Toast.makeText(ctx, error == null ?
+                ctx.getString(R.string.pcap_success, imported) : ctx.getString(R.string.pcap_error),
+                Toast.LENGTH_SHORT).show());
     }
 
     public void importCapture(List<Bundle> capture) {
-        LogInserter inserter = new LogInserter(this, SessionLog.SessionType.CAPTURE, null);
-
-        for (Bundle b : capture)
-            inserter.log(CaptureFragment.fromBundle(b));
-
-        Toast.makeText(this, getString(R.string.pcap_log), Toast.LENGTH_SHORT).show();
+        final Context ctx = getApplicationContext();
+
+        // converting initial tags builds their config, keep that off the UI thread as well
+        new LogImporter(this, SessionLog.SessionType.CAPTURE).importAsync(() -> {
+            List<NfcComm> entries = new ArrayList<>(capture.size());
+            for (Bundle b : capture)
+                entries.add(CaptureFragment.fromBundle(b));
+            return entries;
+        }, (imported, error) -> Toast.makeText(ctx, error == null ?
+                ctx.getString(R.string.pcap_log, imported) : ctx.getString(R.string.pcap_error),
+                Toast.LENGTH_SHORT).show());
     }
 
     @Override
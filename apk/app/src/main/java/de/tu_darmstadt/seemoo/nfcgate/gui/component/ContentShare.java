@@ -15,12 +15,9 @@ import java.io.OutputStream;
 
 import de.tu_darmstadt.seemoo.nfcgate.BuildConfig;
 import de.tu_darmstadt.seemoo.nfcgate.R;
+import de.tu_darmstadt.seemoo.nfcgate.util.IFileShareable;
 
 public class ContentShare {
-    public interface IFileShareable {
-        void write(OutputStream stream) throws IOException;
-    }
-
     // state variables
     private final Context mContext;
     private String mPrefix;
@@ -8,6 +8,10 @@ import android.os.Bundle;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.FragmentActivity;
+import androidx.paging.PagedListAdapter;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import android.text.InputType;
 import android.view.LayoutInflater;
 import android.view.Menu;
@@ -15,11 +19,12 @@ import android.view.MenuInflater;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.EditText;
 import android.widget.ImageView;
-import android.widget.ListView;
 import android.widget.TextView;
+import android.widget.Toast;
+
+import java.util.Arrays;
 
 import de.tu_darmstadt.seemoo.nfcgate.R;
 import de.tu_darmstadt.seemoo.nfcgate.db.TagInfo;
@@ -28,6 +33,7 @@ import de.tu_darmstadt.seemoo.nfcgate.gui.component.StatusBanner;
 import de.tu_darmstadt.seemoo.nfcgate.nfc.NfcManager;
 import de.tu_darmstadt.seemoo.nfcgate.nfc.config.ConfigBuilder;
 import de.tu_darmstadt.seemoo.nfcgate.nfc.modes.CloneMode;
+import de.tu_darmstadt.seemoo.nfcgate.util.HexCodec;
 import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
 
 public class CloneFragment extends BaseFragment {
@@ -35,16 +41,19 @@ public class CloneFragment extends BaseFragment {
     View mTagWaiting;
     ImageView mCloneType;
     TextView mCloneContent;
-    ListView mCloneSaved;
+    TextView mCloneSavedTitle;
+    RecyclerView mCloneSaved;
     StatusBanner mStatusBanner;
 
     // clone data
     byte[] mCloneData;
     boolean mTagInfoDisplayed = false;
+    // saved tag of the displayed card, null if it is not saved
+    TagInfo mSameTag;
 
     // db data
     private TagInfoViewModel mTagInfoViewModel;
-    private ArrayAdapter<TagInfo> mTagInfoAdapter;
+    private TagInfoListAdapter mTagInfoAdapter;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
@@ -55,35 +64,21 @@ public class CloneFragment extends BaseFragment {
         mCloneType = v.findViewById(R.id.type);
         mCloneContent = v.findViewById(R.id.data);
         mCloneSaved = v.findViewById(R.id.clone_saved);
+        mCloneSavedTitle = v.findViewById(R.id.clone_saved_title);
         mStatusBanner = new StatusBanner(getMainActivity());
 
         setHasOptionsMenu(true);
-        beginClone();
 
-        // setup db model
+        // setup db model before the first tag can arrive
         mTagInfoViewModel = ViewModelProviders.of(this).get(TagInfoViewModel.class);
-        mTagInfoViewModel.getTagInfos().observe(getViewLifecycleOwner(), tagInfos -> {
-            mTagInfoAdapter.clear();
-            mTagInfoAdapter.addAll(tagInfos);
-            mTagInfoAdapter.notifyDataSetChanged();
-        });
+        beginClone();
 
-        // handlers
-        mCloneSaved.setOnItemLongClickListener((parent, view, position, id) -> {
-            if (position >= 0) {
-                // deleting inside models automatically updates adapter
-                mTagInfoViewModel.delete(mTagInfoAdapter.getItem(position));
-                return true;
-            }
-            return false;
-        });
-        mCloneSaved.setOnItemClickListener((parent, view, position, id) -> {
-            if (position >= 0) {
-                // load configuration of saved tag
-                final TagInfo item = mTagInfoAdapter.getItem(position);
-                getNfc().handleData(false, new NfcComm(item.getData()));
-            }
-        });
+        // saved tags are loaded page by page
+        mTagInfoAdapter = new TagInfoListAdapter();
+        mCloneSaved.setLayoutManager(new LinearLayoutManager(getActivity()));
+        mCloneSaved.setAdapter(mTagInfoAdapter);
+        mTagInfoViewModel.getTagInfos().observe(getViewLifecycleOwner(), tagInfos -> mTagInfoAdapter.submitList(tagInfos));
+        updateSavedTitle();
 
         return v;
     }
@@ -92,9 +87,6 @@ public class CloneFragment extends BaseFragment {
     public void onActivityCreated(@Nullable Bundle savedInstanceState) {
         super.onActivityCreated(savedInstanceState);
 
-        mTagInfoAdapter = new ArrayAdapter<>(getActivity(), android.R.layout.simple_list_item_1);
-        mCloneSaved.setAdapter(mTagInfoAdapter);
-
         getNfc().setStatusChangedHandler(() -> {
             mStatusBanner.reset();
 
@@ -136,6 +128,9 @@ public class CloneFragment extends BaseFragment {
         } else if (R.id.action_save == item.getItemId()) {
             beginSave();
             return true;
+        } else if (R.id.action_search == item.getItemId()) {
+            beginSearch();
+            return true;
         }
         return super.onOptionsItemSelected(item);
     }
@@ -164,6 +159,17 @@ public class CloneFragment extends BaseFragment {
         mCloneType.setImageResource(data.isCard() ? R.drawable.ic_tag_grey_60dp : R.drawable.ic_reader_grey_60dp);
         mCloneContent.setText(new ConfigBuilder(data.getData()).toString());
         mCloneData = data.toByteArray();
+
+        // recognize cards that are already saved
+        mSameTag = null;
+        final byte[] cloneData = mCloneData;
+        mTagInfoViewModel.findSameTag(new TagInfo(null, cloneData), sameTag -> {
+            if (sameTag == null || cloneData != mCloneData || getActivity() == null)
+                return;
+
+            mSameTag = sameTag;
+            Toast.makeText(getActivity(), getString(R.string.clone_known, sameTag.getName()), Toast.LENGTH_LONG).show();
+        });
     }
 
     void beginClone() {
@@ -178,6 +184,9 @@ public class CloneFragment extends BaseFragment {
     private void beginSave() {
         final EditText input = new EditText(getContext());
         input.setInputType(InputType.TYPE_CLASS_TEXT);
+        // saving a known card renames it
+        if (mSameTag != null)
+            input.setText(mSameTag.getName());
 
         new AlertDialog.Builder(getContext())
             .setTitle(getString(R.string.clone_save_title))
@@ -185,13 +194,148 @@ public class CloneFragment extends BaseFragment {
             .setPositiveButton(getString(R.string.button_ok), (dialog, which) -> {
                 final String description = input.getText().toString();
 
-                if (!description.isEmpty())
-                    mTagInfoViewModel.insert(new TagInfo(description, mCloneData));
+                if (!description.isEmpty()) {
+                    mSameTag = new TagInfo(description, mCloneData);
+                    mTagInfoViewModel.insert(mSameTag);
+                }
             })
             .setNegativeButton(getString(R.string.button_cancel), null)
             .show();
     }
 
+    private void beginSearch() {
+        final EditText input = new EditText(getContext());
+        input.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_NO_SUGGESTIONS);
+        input.setHint(R.string.clone_search_hint);
+        input.setText(HexCodec.toHex(mTagInfoViewModel.getUidFilter(), ' '));
+
+        new AlertDialog.Builder(getContext())
+            .setTitle(getString(R.string.clone_search))
+            .setView(input)
+            .setPositiveButton(getString(R.string.button_ok), (dialog, which) -> {
+                try {
+                    setUidFilter(HexCodec.parse(input.getText()));
+                } catch (IllegalArgumentException e) {
+                    Toast.makeText(getActivity(), getString(R.string.clone_search_invalid), Toast.LENGTH_LONG).show();
+                }
+            })
+            .setNegativeButton(getString(R.string.button_cancel), null)
+            .show();
+    }
+
+    private void setUidFilter(byte[] prefix) {
+        mTagInfoViewModel.setUidFilter(prefix);
+        updateSavedTitle();
+    }
+
+    private void updateSavedTitle() {
+        byte[] prefix = mTagInfoViewModel.getUidFilter();
+        mCloneSavedTitle.setText(prefix.length == 0 ? getString(R.string.clone_saved)
+                : getString(R.string.clone_saved_filter, HexCodec.toHex(prefix, ':')));
+    }
+
+    void onTagInfoClick(TagInfo item) {
+        // load configuration of saved tag
+        getNfc().handleData(false, new NfcComm(item.getData()));
+    }
+
+    boolean onTagInfoLongClick(TagInfo item) {
+        // deleting inside models automatically updates adapter
+        mTagInfoViewModel.delete(item);
+        if (mSameTag != null && mSameTag.getId() == item.getId())
+            mSameTag = null;
+        return true;
+    }
+
+    private String bySummary(TagInfo item) {
+        String uid = item.getUid() != null ? HexCodec.toHex(item.getUid(), ':') : getString(R.string.clone_tag_no_uid);
+        String result = getString(R.string.clone_tag_summary, uid, byTechnology(item.getTechnology()));
+        if (item.getSak() >= 0 && item.getAtqa() >= 0)
+            result += getString(R.string.clone_tag_sak_atqa, item.getSak(), item.getAtqa());
+        return result;
+    }
+
+    private static String byTechnology(int technology) {
+        StringBuilder result = new StringBuilder("NFC-");
+        if ((technology & TagInfo.TECH_A) != 0)
+            result.append('A');
+        if ((technology & TagInfo.TECH_B) != 0)
+            result.append(result.length() > 4 ? "/B" : "B");
+        if ((technology & TagInfo.TECH_F) != 0)
+            result.append(result.length() > 4 ? "/F" : "F");
+        return result.length() > 4 ? result.toString() : "?";
+    }
+
+    private static final DiffUtil.ItemCallback<TagInfo> TAG_INFO_DIFF = new DiffUtil.ItemCallback<TagInfo>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull TagInfo oldItem, @NonNull TagInfo newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull TagInfo oldItem, @NonNull TagInfo newItem) {
+            // rescanned cards keep their row but may be renamed
+            return oldItem.getName().equals(newItem.getName()) && Arrays.equals(oldItem.getData(), newItem.getData());
+        }
+    };
+
+    private class TagInfoViewHolder extends RecyclerView.ViewHolder {
+        final ImageView type;
+        final TextView title;
+        final TextView summary;
+
+        TagInfoViewHolder(View v) {
+            super(v);
+            type = v.findViewById(R.id.type);
+            title = v.findViewById(R.id.title);
+            summary = v.findViewById(R.id.summary);
+
+            v.setOnClickListener(view -> {
+                TagInfo item = mTagInfoAdapter.getItemAt(getBindingAdapterPosition());
+                if (item != null)
+                    onTagInfoClick(item);
+            });
+            v.setOnLongClickListener(view -> {
+                TagInfo item = mTagInfoAdapter.getItemAt(getBindingAdapterPosition());
+                return item != null && onTagInfoLongClick(item);
+            });
+        }
+    }
+
+    private class TagInfoListAdapter extends PagedListAdapter<TagInfo, TagInfoViewHolder> {
+        TagInfoListAdapter() {
+            super(TAG_INFO_DIFF);
+            setHasStableIds(true);
+        }
+
+        TagInfo getItemAt(int position) {
+            return position == RecyclerView.NO_POSITION ? null : getItem(position);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            TagInfo item = getItem(position);
+            return item != null ? item.getId() : RecyclerView.NO_ID;
+        }
+
+        @NonNull
+        @Override
+        public TagInfoViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            return new TagInfoViewHolder(LayoutInflater.from(parent.getContext()).inflate(R.layout.list_log, parent, false));
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull TagInfoViewHolder holder, int position) {
+            final TagInfo item = getItem(position);
+            if (item == null)
+                return;
+
+            holder.type.setImageResource(R.drawable.ic_tag_grey_60dp);
+            holder.title.setText(item.getName());
+            holder.summary.setText(bySummary(item));
+        }
+    }
+
     class UICloneMode extends CloneMode {
         @Override
         public void onData(boolean isForeign, final NfcComm data) {
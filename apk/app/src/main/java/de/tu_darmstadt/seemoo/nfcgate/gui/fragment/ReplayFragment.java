@@ -79,6 +79,9 @@ public class ReplayFragment extends BaseNetworkFragment implements LoggingFragme
         SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(getActivity());
         mOfflineReplay = !prefs.getBoolean("network", false);
         mReplayMode = prefs.getString("mode", "index");
+        // masked matching takes the variable byte ranges as argument
+        if ("masked".equals(mReplayMode))
+            mReplayMode += ":" + prefs.getString("replay_mask", "");
         mStatusBanner.setVisibility(!mOfflineReplay);
     }
 
@@ -156,12 +159,27 @@ public class ReplayFragment extends BaseNetworkFragment implements LoggingFragme
         setSelectorVisible(false);
         setTagWaitVisible(true, !reader);
 
-        // init replayer and mode
-        mReplayer = new UIReplayer(reader);
-        getNfc().startMode(new UIReplayMode(reader));
+        // indexing large sessions takes a while, build the replayer in the background
+        final List<NfcCommEntry> sessionLog = mSessionLog;
+        new Thread(() -> {
+            final NfcLogReplayer replayer = new NfcLogReplayer(reader, mReplayMode, NfcCommEntry.toComms(sessionLog));
 
-        // initial tickle required for tag replay
-        tickleReplayer();
+            FragmentActivity activity = getActivity();
+            if (activity != null) {
+                activity.runOnUiThread(() -> {
+                    // session was reset or fragment left in the meantime
+                    if (mSessionLog != sessionLog || getActivity() == null)
+                        return;
+
+                    // init replayer and mode
+                    mReplayer = new UIReplayer(replayer);
+                    getNfc().startMode(new UIReplayMode(reader));
+
+                    // initial tickle required for tag replay
+                    tickleReplayer();
+                });
+            }
+        }).start();
     }
 
     void setSessionSelectionVisible(boolean visible) {
@@ -238,8 +256,8 @@ public class ReplayFragment extends BaseNetworkFragment implements LoggingFragme
         final NfcLogReplayer mReplayer;
         NetworkManager mReplayNetwork = null;
 
-        UIReplayer(boolean reader) {
-            mReplayer = new NfcLogReplayer(reader, mReplayMode, mSessionLog);
+        UIReplayer(NfcLogReplayer replayer) {
+            mReplayer = replayer;
 
             if (!mOfflineReplay) {
                 mReplayNetwork = new NetworkManager(getMainActivity(), this);
@@ -33,10 +33,11 @@ import de.tu_darmstadt.seemoo.nfcgate.R;
 import de.tu_darmstadt.seemoo.nfcgate.gui.component.ContentShare;
 import de.tu_darmstadt.seemoo.nfcgate.network.UserTrustManager;
 import de.tu_darmstadt.seemoo.nfcgate.util.ConnectionPresets;
-import de.tu_darmstadt.seemoo.nfcgate.util.DiagnosticsStats;
+import de.tu_darmstadt.seemoo.nfcgate.util.Metrics;
 import de.tu_darmstadt.seemoo.nfcgate.util.PrefUtils;
 import de.tu_darmstadt.seemoo.nfcgate.util.RecentEvents;
 import de.tu_darmstadt.seemoo.nfcgate.util.SettingsLock;
+import de.tu_darmstadt.seemoo.nfcgate.util.Trace;
 
 public class SettingsFragment extends PreferenceFragmentCompat implements SharedPreferences.OnSharedPreferenceChangeListener {
     private static final String TAG = "SettingsFragment";
@@ -783,13 +784,20 @@ public class SettingsFragment extends PreferenceFragmentCompat implements Shared
         }
 
         sb.append("\n").append(getString(R.string.diag_section_health_counters)).append("\n");
-        sb.append(getString(R.string.diag_kv_dropped_send_messages, DiagnosticsStats.getDroppedSendMessages())).append("\n");
-        sb.append(getString(R.string.diag_kv_dropped_log_entries, DiagnosticsStats.getDroppedLogEntries())).append("\n");
-        sb.append(getString(R.string.diag_kv_watchdog_reconnects, DiagnosticsStats.getWatchdogReconnects())).append("\n");
+        sb.append(getString(R.string.diag_kv_dropped_send_messages, Metrics.DROPPED_SEND_MESSAGES.get())).append("\n");
+        sb.append(getString(R.string.diag_kv_dropped_log_entries, Metrics.DROPPED_LOG_ENTRIES.get())).append("\n");
+        sb.append(getString(R.string.diag_kv_watchdog_reconnects, Metrics.WATCHDOG_RECONNECTS.get())).append("\n");
 
         sb.append("\n").append(getString(R.string.diag_section_recent_events, 80)).append("\n");
         sb.append(RecentEvents.dump(80));
 
+        long traceRecords = Trace.count();
+        sb.append("\n").append(getString(R.string.diag_section_trace, Math.min(256, traceRecords), traceRecords)).append("\n");
+        sb.append(Trace.dump(256));
+
+        sb.append("\n").append(getString(R.string.diag_section_metrics)).append("\n");
+        sb.append(Metrics.toJson());
+
         new ContentShare(getActivity())
                 .setPrefix("nfcgate_diagnostics_" + timestamp)
                 .setExtension(".txt")
@@ -4,6 +4,8 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import androidx.annotation.DrawableRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -25,7 +27,9 @@ import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import javax.net.ssl.SSLException;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import de.tu_darmstadt.seemoo.nfcgate.R;
@@ -38,16 +42,34 @@ import de.tu_darmstadt.seemoo.nfcgate.network.UserTrustManager;
 import de.tu_darmstadt.seemoo.nfcgate.network.transport.PlainTransport;
 import de.tu_darmstadt.seemoo.nfcgate.network.transport.TLSTransport;
 import de.tu_darmstadt.seemoo.nfcgate.network.transport.Transport;
-import de.tu_darmstadt.seemoo.nfcgate.util.DiagnosticsStats;
 import de.tu_darmstadt.seemoo.nfcgate.util.DeviceNames;
+import de.tu_darmstadt.seemoo.nfcgate.util.LatencyHistogram;
+import de.tu_darmstadt.seemoo.nfcgate.util.Metrics;
+import de.tu_darmstadt.seemoo.nfcgate.xposed.HookStats;
 
 public class StatusFragment extends BaseFragment {
+    // hook calls slower than this are flagged on the status screen
+    private static final long HOOK_SLOW_NS = 10_000_000L;
+    // metrics panel refresh interval while visible
+    private static final long METRICS_REFRESH_MS = 1000;
+
     // ui references
     private ListView mStatus;
     private StatusListAdapter mStatusAdapter;
 
     private AlertDialog mSelfTestRunningDialog;
 
+    // live metrics panel, the last items of the list
+    private final List<StatusItem> mMetricItems = new ArrayList<>();
+    private final Handler mMetricsHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mMetricsRefresh = new Runnable() {
+        @Override
+        public void run() {
+            refreshMetrics();
+            mMetricsHandler.postDelayed(this, METRICS_REFRESH_MS);
+        }
+    };
+
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
@@ -102,7 +124,33 @@ public class StatusFragment extends BaseFragment {
         mStatusAdapter = new StatusListAdapter(getActivity(), R.layout.list_status);
         mStatus.setAdapter(mStatusAdapter);
 
-        detect();
+        // re-detect whenever a daemon response arrives, e.g. hook timings
+        getNfc().setStatusChangedHandler(() -> {
+            mStatusAdapter.clear();
+            detect();
+        });
+        getNfc().getDaemon().beginGetHookStats();
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+
+        mMetricsHandler.postDelayed(mMetricsRefresh, METRICS_REFRESH_MS);
+    }
+
+    @Override
+    public void onPause() {
+        mMetricsHandler.removeCallbacks(mMetricsRefresh);
+
+        super.onPause();
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+
+        getNfc().setStatusChangedHandler(null);
     }
 
     @Override
@@ -181,12 +229,70 @@ public class StatusFragment extends BaseFragment {
         mStatusAdapter.add(detectDroppedSends());
         mStatusAdapter.add(detectDroppedLogs());
         mStatusAdapter.add(detectWatchdogReconnects());
+        mStatusAdapter.addAll(detectHookStats());
+
+        mMetricItems.clear();
+        mMetricItems.addAll(detectMetrics());
+        mStatusAdapter.addAll(mMetricItems);
 
         mStatusAdapter.notifyDataSetChanged();
     }
 
+    List<StatusItem> detectMetrics() {
+        List<StatusItem> result = new ArrayList<>();
+
+        for (String[] metric : Metrics.describe())
+            result.add(new StatusItem(getContext(), getString(R.string.status_metric, metric[0]))
+                    .setValue(metric[1]));
+
+        return result;
+    }
+
+    /**
+     * Replaces the metric items with current values
+     */
+    void refreshMetrics() {
+        if (mStatusAdapter == null || !isAdded())
+            return;
+
+        // batch the changes into one notify
+        mStatusAdapter.setNotifyOnChange(false);
+        for (StatusItem item : mMetricItems)
+            mStatusAdapter.remove(item);
+
+        mMetricItems.clear();
+        mMetricItems.addAll(detectMetrics());
+        mStatusAdapter.addAll(mMetricItems);
+        mStatusAdapter.notifyDataSetChanged();
+    }
+
+    List<StatusItem> detectHookStats() {
+        List<StatusItem> result = new ArrayList<>();
+
+        for (HookStats.Snapshot stats : getNfc().getDaemon().getHookStats()) {
+            StringBuilder buckets = new StringBuilder();
+            for (long bucket : stats.buckets)
+                buckets.append(buckets.length() > 0 ? " | " : "").append(bucket);
+
+            StatusItem item = new StatusItem(getContext(), getString(R.string.status_hook_stats, stats.name))
+                    .setValue(getString(R.string.status_hook_stats_value, stats.count,
+                            LatencyHistogram.formatNanos(stats.getAverageNs()), LatencyHistogram.formatNanos(stats.maxNs), buckets));
+            if (stats.maxNs >= HOOK_SLOW_NS)
+                item.setWarn(getString(R.string.status_hook_stats_slow_warn, LatencyHistogram.formatNanos(HOOK_SLOW_NS)));
+
+            result.add(item);
+        }
+
+        // no response from the daemon (yet)
+        if (result.isEmpty())
+            result.add(new StatusItem(getContext(), getString(R.string.status_hook_stats_title))
+                    .setValue(getString(R.string.status_unknown)));
+
+        return result;
+    }
+
     StatusItem detectDroppedSends() {
-        int count = DiagnosticsStats.getDroppedSendMessages();
+        long count = Metrics.DROPPED_SEND_MESSAGES.get();
         StatusItem item = new StatusItem(getContext(), getString(R.string.status_diag_dropped_sends))
                 .setValue(String.valueOf(count));
         if (count > 0) {
@@ -196,7 +302,7 @@ public class StatusFragment extends BaseFragment {
     }
 
     StatusItem detectDroppedLogs() {
-        int count = DiagnosticsStats.getDroppedLogEntries();
+        long count = Metrics.DROPPED_LOG_ENTRIES.get();
         StatusItem item = new StatusItem(getContext(), getString(R.string.status_diag_dropped_logs))
                 .setValue(String.valueOf(count));
         if (count > 0) {
@@ -206,7 +312,7 @@ public class StatusFragment extends BaseFragment {
     }
 
     StatusItem detectWatchdogReconnects() {
-        int count = DiagnosticsStats.getWatchdogReconnects();
+        long count = Metrics.WATCHDOG_RECONNECTS.get();
         StatusItem item = new StatusItem(getContext(), getString(R.string.status_diag_watchdog_reconnects))
                 .setValue(String.valueOf(count));
         if (count > 0) {
@@ -440,14 +546,21 @@ public class StatusFragment extends BaseFragment {
     }
 
     StatusItem detectNfcModel() {
-        // null or chip model name
-        String chipName = NfcChip.detect();
-        // Chip model should be OK if it can be detected
         StatusItem result = new StatusItem(getContext(), getString(R.string.status_chip))
-                .setValue(chipName != null ? chipName : getString(R.string.status_unknown));
+                .setValue(getString(R.string.status_detecting));
+
+        // detection may still run in the background, fill in the item when it is done
+        NfcChip.detect(getContext(), chipName -> {
+            if (!isAdded())
+                return;
 
-        if (chipName == null)
-            result.setWarn(getString(R.string.warn_NFCMOD));
+            // Chip model should be OK if it can be detected
+            result.setValue(chipName != null ? chipName : getString(R.string.status_unknown));
+            if (chipName == null)
+                result.setWarn(getString(R.string.warn_NFCMOD));
+
+            mStatusAdapter.notifyDataSetChanged();
+        });
 
         return result;
     }
@@ -0,0 +1,85 @@
+package de.tu_darmstadt.seemoo.nfcgate.gui.log;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import de.tu_darmstadt.seemoo.nfcgate.db.NfcCommEntry;
+import de.tu_darmstadt.seemoo.nfcgate.nfc.config.ConfigBuilder;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+import static de.tu_darmstadt.seemoo.nfcgate.util.Utils.bytesToHexDump;
+
+/**
+ * Formatted entry payloads by entry id. Formatting runs on a single background thread,
+ * the UI only reads the cache and gets called back once a missing entry is ready.
+ */
+class HexDumpCache {
+    interface Callback {
+        void onFormatted(int entryId);
+    }
+
+    private final LruCache<Integer, String> mCache;
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    HexDumpCache(int capacity) {
+        mCache = new LruCache<>(capacity);
+    }
+
+    /**
+     * Returns the cached text or null if it is not formatted yet
+     */
+    String get(int entryId) {
+        return mCache.get(entryId);
+    }
+
+    /**
+     * Formats a single entry in the background, callback runs on the main thread
+     */
+    void request(NfcCommEntry entry, Callback callback) {
+        execute(() -> {
+            format(entry);
+            mMainHandler.post(() -> callback.onFormatted(entry.getEntryId()));
+        });
+    }
+
+    /**
+     * Formats the newest entries that fit the cache in the background, then runs done on the main thread.
+     * Older entries would be evicted before they are shown, binding requests them on demand
+     */
+    void prefetch(List<NfcCommEntry> entries, Runnable done) {
+        execute(() -> {
+            for (int i = Math.max(0, entries.size() - mCache.maxSize()); i < entries.size(); i++)
+                format(entries.get(i));
+            mMainHandler.post(done);
+        });
+    }
+
+    void shutdown() {
+        mExecutor.shutdownNow();
+        mMainHandler.removeCallbacksAndMessages(null);
+    }
+
+    private void execute(Runnable task) {
+        // the feed may still deliver entries after shutdown, drop them
+        try {
+            mExecutor.execute(task);
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
+
+    private void format(NfcCommEntry entry) {
+        if (mCache.get(entry.getEntryId()) != null)
+            return;
+
+        // either config stream or binary content
+        NfcComm comm = entry.getNfcComm();
+        mCache.put(entry.getEntryId(), comm.isInitial() ? new ConfigBuilder(comm.getData()).toString() : bytesToHexDump(comm.getData()));
+    }
+}
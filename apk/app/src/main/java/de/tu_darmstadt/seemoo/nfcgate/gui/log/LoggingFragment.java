@@ -1,16 +1,24 @@
 package de.tu_darmstadt.seemoo.nfcgate.gui.log;
 
 import androidx.lifecycle.ViewModelProviders;
+import android.app.AlertDialog;
 import android.content.Context;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.text.InputType;
+import android.text.format.Formatter;
 import androidx.annotation.DrawableRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.paging.PagedListAdapter;
 import androidx.preference.PreferenceManager;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import androidx.appcompat.widget.Toolbar;
+import android.util.SparseArray;
 import android.view.ActionMode;
 import android.view.LayoutInflater;
 import android.view.Menu;
@@ -18,28 +26,38 @@ import android.view.MenuInflater;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.EditText;
 import android.widget.ImageView;
-import android.widget.ListView;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import de.tu_darmstadt.seemoo.nfcgate.R;
+import de.tu_darmstadt.seemoo.nfcgate.db.AppDatabase;
+import de.tu_darmstadt.seemoo.nfcgate.db.NgramIndex;
 import de.tu_darmstadt.seemoo.nfcgate.db.SessionLog;
+import de.tu_darmstadt.seemoo.nfcgate.db.SessionLogSummary;
+import de.tu_darmstadt.seemoo.nfcgate.db.SessionSummary;
 import de.tu_darmstadt.seemoo.nfcgate.db.model.SessionLogViewModel;
-import de.tu_darmstadt.seemoo.nfcgate.gui.component.CustomArrayAdapter;
+import de.tu_darmstadt.seemoo.nfcgate.util.BytePattern;
+import de.tu_darmstadt.seemoo.nfcgate.util.Utils;
 
 public class LoggingFragment extends Fragment {
+    // maximum number of search hits shown
+    private static final int SEARCH_LIMIT = 200;
+
     private final Handler mPrivacyHandler = new Handler(Looper.getMainLooper());
     private final Runnable mPrivacyAutoTimeoutRunnable = () -> setPrivacyOverlayVisible(true);
 
     // UI references
-    ListView mLog;
+    RecyclerView mLog;
     TextView mEmptyText;
     ActionMode mActionMode;
-    final List<Integer> mActionSelections = new ArrayList<>();
+    // selected sessions by id, positions shift when new sessions arrive
+    final SparseArray<SessionLog> mActionSelections = new SparseArray<>();
 
     View mPrivacyOverlay;
     View mPrivacyToggle;
@@ -79,34 +97,13 @@ public class LoggingFragment extends Fragment {
         // setup db model
         SessionLogViewModel mLogModel = ViewModelProviders.of(this).get(SessionLogViewModel.class);
         mLogModel.getSessionLogs().observe(getViewLifecycleOwner(), sessionLogs -> {
-            mLogAdapter.clear();
-            mLogAdapter.addAll(sessionLogs);
-            mLogAdapter.notifyDataSetChanged();
+            // only changed rows are rebound
+            mLogAdapter.submitList(sessionLogs);
 
             // toggle empty message
             setEmptyTextVisible(sessionLogs.isEmpty());
         });
 
-        // handlers
-        mLog.setOnItemClickListener((parent, view, position, id) -> {
-            if (position < 0)
-                return;
-
-            if (mActionMode != null)
-                toggleSelection(position);
-            else
-                mCallback.onLogItemSelected(mLogAdapter.getItem(position).getId());
-        });
-        mLog.setOnItemLongClickListener((parent, view, position, id) -> {
-            if (position < 0 || mActionMode != null)
-                return false;
-
-            mActionMode = getActivity().<Toolbar>findViewById(R.id.toolbar).startActionMode(new ActionModeCallback());
-            mActionMode.setTitle(getString(R.string.log_action));
-            toggleSelection(position);
-            return true;
-        });
-
         return v;
     }
 
@@ -127,9 +124,67 @@ public class LoggingFragment extends Fragment {
             mLogAction.shareLastSeconds(seconds);
             return true;
         }
+        else if (item.getItemId() == R.id.action_search) {
+            beginSearch();
+            return true;
+        }
         return super.onOptionsItemSelected(item);
     }
 
+    private void beginSearch() {
+        final EditText input = new EditText(getContext());
+        input.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_NO_SUGGESTIONS);
+        input.setHint(R.string.log_search_hint);
+
+        new AlertDialog.Builder(getContext())
+                .setTitle(getString(R.string.log_search))
+                .setView(input)
+                .setPositiveButton(getString(R.string.button_ok), (dialog, which) -> {
+                    try {
+                        search(BytePattern.parse(input.getText().toString()));
+                    } catch (IllegalArgumentException e) {
+                        Toast.makeText(getActivity(), getString(R.string.log_search_invalid), Toast.LENGTH_LONG).show();
+                    }
+                })
+                .setNegativeButton(getString(R.string.button_cancel), null)
+                .show();
+    }
+
+    private void search(final BytePattern pattern) {
+        final Context ctx = getActivity();
+        if (ctx == null)
+            return;
+
+        new Thread(() -> {
+            List<NgramIndex.Hit> hits = NgramIndex.search(AppDatabase.getDatabase(ctx), pattern, SEARCH_LIMIT);
+
+            if (getActivity() != null)
+                getActivity().runOnUiThread(() -> showSearchResults(pattern, hits));
+        }, "LogSearch").start();
+    }
+
+    private void showSearchResults(BytePattern pattern, final List<NgramIndex.Hit> hits) {
+        if (getContext() == null)
+            return;
+
+        if (hits.isEmpty()) {
+            Toast.makeText(getActivity(), getString(R.string.log_search_empty), Toast.LENGTH_LONG).show();
+            return;
+        }
+
+        String[] items = new String[hits.size()];
+        for (int i = 0; i < items.length; i++) {
+            NgramIndex.Hit hit = hits.get(i);
+            items[i] = getString(R.string.log_search_hit, hit.sessionId, hit.offset, hit.comm.toString());
+        }
+
+        new AlertDialog.Builder(getContext())
+                .setTitle(getString(R.string.log_search_results, hits.size(), pattern.toString()))
+                .setItems(items, (dialog, which) -> mCallback.onLogItemSelected((int) hits.get(which).sessionId))
+                .setNegativeButton(getString(R.string.button_cancel), null)
+                .show();
+    }
+
     private int getExportLastSeconds() {
         if (getActivity() == null) {
             return 0;
@@ -211,16 +266,41 @@ public class LoggingFragment extends Fragment {
     public void onActivityCreated(@Nullable Bundle savedInstanceState) {
         super.onActivityCreated(savedInstanceState);
 
-        mLogAdapter = new SessionLogListAdapter(getActivity(), R.layout.list_log);
+        mLogAdapter = new SessionLogListAdapter();
+        mLog.setLayoutManager(new LinearLayoutManager(getActivity()));
         mLog.setAdapter(mLogAdapter);
     }
 
-    private void toggleSelection(int position) {
+    private void onItemClick(int position) {
+        SessionLogSummary item = mLogAdapter.getItemAt(position);
+        if (item == null)
+            return;
+
+        if (mActionMode != null)
+            toggleSelection(item.getSessionLog(), position);
+        else
+            mCallback.onLogItemSelected(item.getSessionLog().getId());
+    }
+
+    private boolean onItemLongClick(int position) {
+        SessionLogSummary item = mLogAdapter.getItemAt(position);
+        if (item == null || mActionMode != null)
+            return false;
+
+        mActionMode = getActivity().<Toolbar>findViewById(R.id.toolbar).startActionMode(new ActionModeCallback());
+        mActionMode.setTitle(getString(R.string.log_action));
+        toggleSelection(item.getSessionLog(), position);
+        return true;
+    }
+
+    private void toggleSelection(SessionLog sessionLog, int position) {
         // remove if exists, add if it doesn't
-        if (!mActionSelections.remove(Integer.valueOf(position)))
-            mActionSelections.add(position);
+        if (mActionSelections.get(sessionLog.getId()) != null)
+            mActionSelections.remove(sessionLog.getId());
+        else
+            mActionSelections.put(sessionLog.getId(), sessionLog);
 
-        mLogAdapter.notifyDataSetChanged();
+        mLogAdapter.notifyItemChanged(position);
     }
 
     private void setEmptyTextVisible(boolean visible) {
@@ -249,6 +329,7 @@ public class LoggingFragment extends Fragment {
         @Override
         public boolean onCreateActionMode(ActionMode mode, Menu menu) {
             mode.getMenuInflater().inflate(R.menu.toolbar_log_view, menu);
+            mode.getMenuInflater().inflate(R.menu.toolbar_log_compare, menu);
             return true;
         }
 
@@ -260,8 +341,8 @@ public class LoggingFragment extends Fragment {
         @Override
         public boolean onActionItemClicked(ActionMode mode, MenuItem item) {
             List<SessionLog> sessionLogs = new ArrayList<>();
-            for (Integer selection : mActionSelections)
-                sessionLogs.add(mLogAdapter.getItem(selection));
+            for (int i = 0; i < mActionSelections.size(); i++)
+                sessionLogs.add(mActionSelections.valueAt(i));
 
             switch (item.getItemId()) {
                 case R.id.action_delete:
@@ -271,13 +352,26 @@ public class LoggingFragment extends Fragment {
                     mode.finish();
                     return true;
                 case R.id.action_share:
-                    if (mActionSelections.size() == 1) {
-                        mLogAction.share(mLogAdapter.getItem(mActionSelections.get(0)));
+                    if (sessionLogs.size() == 1) {
+                        mLogAction.share(sessionLogs.get(0));
                         mode.finish();
                         return true;
                     }
                     else
                         Toast.makeText(getActivity(), getActivity().getString(R.string.log_error_multiple), Toast.LENGTH_LONG).show();
+                    break;
+                case R.id.action_compare:
+                    if (sessionLogs.size() == 2) {
+                        mode.finish();
+                        getFragmentManager().beginTransaction()
+                                .replace(R.id.main_content, SessionDiffFragment.newInstance(
+                                        sessionLogs.get(0).getId(), sessionLogs.get(1).getId()), "log_diff")
+                                .addToBackStack(null)
+                                .commit();
+                        return true;
+                    }
+                    else
+                        Toast.makeText(getActivity(), getActivity().getString(R.string.log_compare_error), Toast.LENGTH_LONG).show();
             }
 
             return false;
@@ -291,9 +385,54 @@ public class LoggingFragment extends Fragment {
         }
     }
 
-    private class SessionLogListAdapter extends CustomArrayAdapter<SessionLog> {
-        SessionLogListAdapter(@NonNull Context context, int resource) {
-            super(context, resource);
+    private static final DiffUtil.ItemCallback<SessionLogSummary> SESSION_DIFF = new DiffUtil.ItemCallback<SessionLogSummary>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull SessionLogSummary oldItem, @NonNull SessionLogSummary newItem) {
+            return oldItem.getSessionLog().getId() == newItem.getSessionLog().getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull SessionLogSummary oldItem, @NonNull SessionLogSummary newItem) {
+            // sessions never change, only their summary grows
+            SessionSummary a = oldItem.getSummary(), b = newItem.getSummary();
+            if (a == null || b == null)
+                return a == b;
+
+            return a.getEntryCount() == b.getEntryCount() && a.getLastTimestamp() == b.getLastTimestamp()
+                    && Arrays.equals(a.getTagUid(), b.getTagUid());
+        }
+    };
+
+    private class SessionLogViewHolder extends RecyclerView.ViewHolder {
+        final ImageView type;
+        final TextView title;
+        final TextView summary;
+
+        SessionLogViewHolder(View v) {
+            super(v);
+            type = v.findViewById(R.id.type);
+            title = v.findViewById(R.id.title);
+            summary = v.findViewById(R.id.summary);
+
+            v.setOnClickListener(view -> onItemClick(getBindingAdapterPosition()));
+            v.setOnLongClickListener(view -> onItemLongClick(getBindingAdapterPosition()));
+        }
+    }
+
+    private class SessionLogListAdapter extends PagedListAdapter<SessionLogSummary, SessionLogViewHolder> {
+        SessionLogListAdapter() {
+            super(SESSION_DIFF);
+            setHasStableIds(true);
+        }
+
+        SessionLogSummary getItemAt(int position) {
+            return position == RecyclerView.NO_POSITION ? null : getItem(position);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            SessionLogSummary item = getItem(position);
+            return item != null ? item.getSessionLog().getId() : RecyclerView.NO_ID;
         }
 
         @DrawableRes
@@ -309,6 +448,17 @@ public class LoggingFragment extends Fragment {
             }
         }
 
+        private String bySummary(SessionSummary summary) {
+            if (summary == null)
+                return "";
+
+            String result = getString(R.string.log_summary, summary.getEntryCount(),
+                    Formatter.formatShortFileSize(getContext(), summary.getByteCount()), summary.getDuration() / 1000.0);
+            if (summary.getTagUid() != null)
+                result += getString(R.string.log_summary_uid, Utils.bytesToHex(summary.getTagUid()));
+            return result;
+        }
+
         @DrawableRes
         private int bySelection(boolean selected) {
             return selected ? android.R.color.darker_gray : android.R.color.transparent;
@@ -316,18 +466,26 @@ public class LoggingFragment extends Fragment {
 
         @NonNull
         @Override
-        public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-            View v = super.getView(position, convertView, parent);
-            final SessionLog entry = getItem(position);
+        public SessionLogViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            return new SessionLogViewHolder(LayoutInflater.from(parent.getContext()).inflate(R.layout.list_log, parent, false));
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull SessionLogViewHolder holder, int position) {
+            final SessionLogSummary item = getItem(position);
+            if (item == null)
+                return;
+
+            final SessionLog entry = item.getSessionLog();
 
             // set image indicating relay, replay, capture
-            v.<ImageView>findViewById(R.id.type).setImageResource(byType(entry.getType()));
+            holder.type.setImageResource(byType(entry.getType()));
             // set title to date
-            v.<TextView>findViewById(R.id.title).setText(entry.getDate().toString());
+            holder.title.setText(entry.getDate().toString());
+            // set subtitle to entry count, size and duration
+            holder.summary.setText(bySummary(item.getSummary()));
             // color selected items
-            v.setBackgroundResource(bySelection(mActionSelections.contains(position)));
-
-            return v;
+            holder.itemView.setBackgroundResource(bySelection(mActionSelections.get(entry.getId()) != null));
         }
     }
 }
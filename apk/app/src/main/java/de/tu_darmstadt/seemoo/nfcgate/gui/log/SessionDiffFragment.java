@@ -0,0 +1,322 @@
+package de.tu_darmstadt.seemoo.nfcgate.gui.log;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.ColorRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.ActionBar;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentActivity;
+import androidx.preference.PreferenceManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuInflater;
+import android.view.MenuItem;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.tu_darmstadt.seemoo.nfcgate.R;
+import de.tu_darmstadt.seemoo.nfcgate.db.AppDatabase;
+import de.tu_darmstadt.seemoo.nfcgate.db.NfcCommEntry;
+import de.tu_darmstadt.seemoo.nfcgate.db.SessionDiff;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+import de.tu_darmstadt.seemoo.nfcgate.util.SequenceAligner;
+
+/**
+ * Shows the alignment of two sessions. Equal runs are collapsed into one row,
+ * differing entries are shown up to MAX_ROWS.
+ */
+public class SessionDiffFragment extends Fragment {
+    // maximum number of differing entries shown
+    private static final int MAX_ROWS = 1000;
+    // entries loaded per query
+    private static final int LOAD_CHUNK = 500;
+
+    private final Handler mPrivacyHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mPrivacyAutoTimeoutRunnable = () -> setPrivacyOverlayVisible(true);
+
+    // UI references
+    RecyclerView mRows;
+    View mPrivacyOverlay;
+    View mPrivacyToggle;
+
+    private DiffRowAdapter mRowAdapter;
+    private long mSessionA, mSessionB;
+    private SessionDiff.Mode mMode = SessionDiff.Mode.PAYLOAD;
+    // incremented per compute on the UI thread, results of older runs are dropped
+    private int mGeneration = 0;
+
+    static class Row {
+        final SequenceAligner.Type type;
+        final int count;
+        final NfcComm a, b;
+
+        Row(SequenceAligner.Type type, int count, NfcComm a, NfcComm b) {
+            this.type = type;
+            this.count = count;
+            this.a = a;
+            this.b = b;
+        }
+    }
+
+    public static SessionDiffFragment newInstance(long sessionA, long sessionB) {
+        SessionDiffFragment fragment = new SessionDiffFragment();
+        fragment.mSessionA = sessionA;
+        fragment.mSessionB = sessionB;
+        return fragment;
+    }
+
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        View v = inflater.inflate(R.layout.fragment_log_entry, container, false);
+
+        // setup
+        mRows = v.findViewById(R.id.log_entries);
+        mPrivacyOverlay = v.findViewById(R.id.lay_privacy_overlay);
+        mPrivacyToggle = v.findViewById(R.id.btn_privacy_toggle);
+
+        if (mPrivacyOverlay != null && mPrivacyToggle != null) {
+            setPrivacyOverlayVisible(true);
+            mPrivacyOverlay.setOnClickListener(view -> revealSensitiveContent());
+            mPrivacyToggle.setOnClickListener(view -> hideSensitiveContent());
+        }
+
+        // enable custom toolbar actions
+        setHasOptionsMenu(true);
+
+        return v;
+    }
+
+    @Override
+    public void onActivityCreated(@Nullable Bundle savedInstanceState) {
+        super.onActivityCreated(savedInstanceState);
+
+        // view requires a back button
+        final ActionBar actionBar = ((AppCompatActivity) getActivity()).getSupportActionBar();
+        actionBar.setDisplayHomeAsUpEnabled(true);
+        actionBar.setDisplayShowHomeEnabled(true);
+        actionBar.setSubtitle(getString(R.string.diff_subtitle, mSessionA, mSessionB));
+
+        mRowAdapter = new DiffRowAdapter();
+        mRows.setLayoutManager(new LinearLayoutManager(getActivity()));
+        mRows.setAdapter(mRowAdapter);
+
+        compute();
+    }
+
+    @Override
+    public void onCreateOptionsMenu(@NonNull Menu menu, @NonNull MenuInflater inflater) {
+        inflater.inflate(R.menu.toolbar_diff, menu);
+        menu.findItem(R.id.action_align_instruction).setChecked(mMode == SessionDiff.Mode.INSTRUCTION);
+        super.onCreateOptionsMenu(menu, inflater);
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        if (android.R.id.home == item.getItemId()) {
+            getActivity().onBackPressed();
+            return true;
+        } else if (R.id.action_align_instruction == item.getItemId()) {
+            item.setChecked(!item.isChecked());
+            mMode = item.isChecked() ? SessionDiff.Mode.INSTRUCTION : SessionDiff.Mode.PAYLOAD;
+            compute();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    @Override
+    public void onPause() {
+        cancelPrivacyAutoTimeout();
+        super.onPause();
+    }
+
+    private void compute() {
+        final Context ctx = getActivity();
+        final SessionDiff.Mode mode = mMode;
+        if (ctx == null)
+            return;
+
+        final int generation = ++mGeneration;
+        mRowAdapter.setRows(new ArrayList<>());
+        new Thread(() -> {
+            AppDatabase db = AppDatabase.getDatabase(ctx);
+            List<Row> rows = makeRows(db, SessionDiff.compute(db, mSessionA, mSessionB, mode));
+
+            FragmentActivity activity = getActivity();
+            if (activity != null) {
+                activity.runOnUiThread(() -> {
+                    // a later mode change may have finished first
+                    if (generation == mGeneration)
+                        mRowAdapter.setRows(rows);
+                });
+            }
+        }, "SessionDiff").start();
+    }
+
+    /**
+     * Collapses equal runs and loads the payloads of the shown differing entries
+     */
+    private static List<Row> makeRows(AppDatabase db, SessionDiff diff) {
+        // collect the entries to show
+        List<Integer> ids = new ArrayList<>();
+        int shown = 0;
+        for (SequenceAligner.Run run : diff.runs) {
+            if (run.type == SequenceAligner.Type.EQUAL)
+                continue;
+
+            int count = Math.min(Math.max(run.aLength, run.bLength), MAX_ROWS - shown);
+            for (int i = 0; i < count; i++) {
+                if (i < run.aLength) ids.add(diff.entryIdsA[run.aStart + i]);
+                if (i < run.bLength) ids.add(diff.entryIdsB[run.bStart + i]);
+            }
+            shown += count;
+        }
+
+        SparseArray<NfcComm> comms = new SparseArray<>();
+        for (int i = 0; i < ids.size(); i += LOAD_CHUNK)
+            for (NfcCommEntry entry : db.nfcCommEntryDao().getByIds(ids.subList(i, Math.min(ids.size(), i + LOAD_CHUNK))))
+                comms.put(entry.getEntryId(), entry.getNfcComm());
+
+        List<Row> result = new ArrayList<>();
+        shown = 0;
+        for (SequenceAligner.Run run : diff.runs) {
+            if (run.type == SequenceAligner.Type.EQUAL) {
+                result.add(new Row(run.type, run.aLength, null, null));
+                continue;
+            }
+
+            int count = Math.max(run.aLength, run.bLength);
+            for (int i = 0; i < count && shown < MAX_ROWS; i++, shown++) {
+                NfcComm a = i < run.aLength ? comms.get(diff.entryIdsA[run.aStart + i]) : null;
+                NfcComm b = i < run.bLength ? comms.get(diff.entryIdsB[run.bStart + i]) : null;
+                result.add(new Row(run.type, 1, a, b));
+            }
+        }
+
+        return result;
+    }
+
+    private int getPrivacyAutoTimeoutSec() {
+        if (getActivity() == null) {
+            return 0;
+        }
+        String raw = PreferenceManager.getDefaultSharedPreferences(getActivity())
+                .getString("privacy_auto_timeout_sec", "30");
+        int value;
+        try {
+            value = Integer.parseInt(raw);
+        } catch (Exception ignored) {
+            value = 30;
+        }
+        return Math.max(0, Math.min(3600, value));
+    }
+
+    private void schedulePrivacyAutoTimeout() {
+        cancelPrivacyAutoTimeout();
+        int sec = getPrivacyAutoTimeoutSec();
+        if (sec <= 0) {
+            return;
+        }
+        mPrivacyHandler.postDelayed(mPrivacyAutoTimeoutRunnable, sec * 1000L);
+    }
+
+    private void cancelPrivacyAutoTimeout() {
+        mPrivacyHandler.removeCallbacks(mPrivacyAutoTimeoutRunnable);
+    }
+
+    private void revealSensitiveContent() {
+        setPrivacyOverlayVisible(false);
+        schedulePrivacyAutoTimeout();
+    }
+
+    private void hideSensitiveContent() {
+        cancelPrivacyAutoTimeout();
+        setPrivacyOverlayVisible(true);
+    }
+
+    private void setPrivacyOverlayVisible(boolean visible) {
+        if (mPrivacyOverlay == null || mPrivacyToggle == null)
+            return;
+
+        mPrivacyOverlay.setVisibility(visible ? View.VISIBLE : View.GONE);
+        mPrivacyToggle.setVisibility(visible ? View.GONE : View.VISIBLE);
+    }
+
+    private static class DiffRowViewHolder extends RecyclerView.ViewHolder {
+        final TextView data;
+
+        DiffRowViewHolder(View v) {
+            super(v);
+            data = v.findViewById(R.id.data);
+        }
+    }
+
+    private static class DiffRowAdapter extends RecyclerView.Adapter<DiffRowViewHolder> {
+        private List<Row> mRows = new ArrayList<>();
+
+        void setRows(List<Row> rows) {
+            mRows = rows;
+            notifyDataSetChanged();
+        }
+
+        @ColorRes
+        private int byType(SequenceAligner.Type type) {
+            switch (type) {
+                case DELETE:
+                    return R.color.status_red;
+                case INSERT:
+                    return R.color.status_green;
+                case CHANGE:
+                    return R.color.status_yellow;
+                default:
+                    return R.color.status_idle;
+            }
+        }
+
+        private String byRow(Context context, Row row) {
+            switch (row.type) {
+                case EQUAL:
+                    return context.getString(R.string.diff_equal, row.count);
+                case DELETE:
+                    return "- " + row.a;
+                case INSERT:
+                    return "+ " + row.b;
+                default:
+                    return "~ " + row.a + "\n~ " + row.b;
+            }
+        }
+
+        @NonNull
+        @Override
+        public DiffRowViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            return new DiffRowViewHolder(LayoutInflater.from(parent.getContext()).inflate(R.layout.list_diff, parent, false));
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull DiffRowViewHolder holder, int position) {
+            final Row row = mRows.get(position);
+            final Context context = holder.itemView.getContext();
+
+            holder.data.setText(byRow(context, row));
+            holder.data.setTextColor(ContextCompat.getColor(context, byType(row.type)));
+        }
+
+        @Override
+        public int getItemCount() {
+            return mRows.size();
+        }
+    }
+}
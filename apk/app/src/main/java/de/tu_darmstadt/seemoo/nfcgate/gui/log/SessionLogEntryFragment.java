@@ -1,7 +1,6 @@
 package de.tu_darmstadt.seemoo.nfcgate.gui.log;
 
 import androidx.lifecycle.ViewModelProviders;
-import android.content.Context;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
@@ -12,6 +11,8 @@ import androidx.fragment.app.Fragment;
 import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.preference.PreferenceManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuInflater;
@@ -19,24 +20,22 @@ import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
-import android.widget.ListView;
 import android.widget.TextView;
 
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 import de.tu_darmstadt.seemoo.nfcgate.R;
+import de.tu_darmstadt.seemoo.nfcgate.db.AppDatabase;
 import de.tu_darmstadt.seemoo.nfcgate.db.NfcCommEntry;
 import de.tu_darmstadt.seemoo.nfcgate.db.SessionLog;
 import de.tu_darmstadt.seemoo.nfcgate.db.model.SessionLogEntryViewModel;
 import de.tu_darmstadt.seemoo.nfcgate.db.model.SessionLogEntryViewModelFactory;
-import de.tu_darmstadt.seemoo.nfcgate.gui.component.CustomArrayAdapter;
-import de.tu_darmstadt.seemoo.nfcgate.nfc.config.ConfigBuilder;
+import de.tu_darmstadt.seemoo.nfcgate.db.worker.LogFeed;
 import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
 
-import static de.tu_darmstadt.seemoo.nfcgate.util.Utils.bytesToHexDump;
-
 public class SessionLogEntryFragment extends Fragment {
     private final Handler mPrivacyHandler = new Handler(Looper.getMainLooper());
     private final Runnable mPrivacyAutoTimeoutRunnable = () -> setPrivacyOverlayVisible(true);
@@ -50,8 +49,11 @@ public class SessionLogEntryFragment extends Fragment {
         LIVE
     }
 
+    // formatted payloads kept for scrolling
+    private static final int HEX_CACHE_SIZE = 512;
+
     // UI references
-    ListView mLogEntries;
+    RecyclerView mLogEntries;
 
     View mPrivacyOverlay;
     View mPrivacyToggle;
@@ -62,8 +64,15 @@ public class SessionLogEntryFragment extends Fragment {
 
     // current data
     private LogAction mLogAction;
-    private final List<NfcComm> mLogData = new ArrayList<>();
+    private final List<NfcCommEntry> mEntries = new ArrayList<>();
     private SessionLog mSessionLog;
+    private HexDumpCache mHexCache;
+
+    // live data
+    private LogFeed.Listener mFeedListener;
+    private boolean mLiveLoaded = false;
+    private final List<NfcCommEntry> mLivePending = new ArrayList<>();
+    private int mLastEntryId = 0;
 
     // callback
     public interface LogSelectedCallback {
@@ -174,36 +183,104 @@ public class SessionLogEntryFragment extends Fragment {
             actionBar.setDisplayShowHomeEnabled(true);
         }
 
+        // setup view adapter, live view sticks to the newest entry
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getActivity());
+        layoutManager.setStackFromEnd(mType == Type.LIVE);
+        mHexCache = new HexDumpCache(HEX_CACHE_SIZE);
+        mLogEntriesAdapter = new SessionLogEntryListAdapter();
+        mLogEntries.setLayoutManager(layoutManager);
+        mLogEntries.setAdapter(mLogEntriesAdapter);
+
+        if (mType == Type.LIVE) {
+            startLive();
+            return;
+        }
+
         // setup db model
         // db data
         final SessionLogEntryViewModel mLogEntryModel = ViewModelProviders.of(this, new SessionLogEntryViewModelFactory(getActivity().getApplication(), mSessionId))
                 .get(SessionLogEntryViewModel.class);
 
         mLogEntryModel.getSession().observe(getViewLifecycleOwner(), sessionLogJoin -> {
-            mLogEntriesAdapter.clear();
-            mLogData.clear();
+            mEntries.clear();
 
             if (sessionLogJoin != null) {
                 // save current log data
                 mSessionLog = sessionLogJoin.getSessionLog();
-                for (NfcCommEntry nfcCommEntry : sessionLogJoin.getNfcCommEntries())
-                    mLogData.add(nfcCommEntry.getNfcComm());
-
-                // add log data to list adapter
-                mLogEntriesAdapter.addAll(mLogData);
-                mLogEntriesAdapter.notifyDataSetChanged();
-
-                // live requires autoscroll, view and select require subtitle
-                if (mType == Type.LIVE)
-                    mLogEntries.setSelection(mLogEntriesAdapter.getCount() - 1);
-                else
-                    actionBar.setSubtitle(mSessionLog.toString());
+                mEntries.addAll(sessionLogJoin.getNfcCommEntries());
+
+                // view and select require subtitle
+                actionBar.setSubtitle(mSessionLog.toString());
             }
+
+            mLogEntriesAdapter.notifyDataSetChanged();
         });
+    }
 
-        // setup db data and view adapter
-        mLogEntriesAdapter = new SessionLogEntryListAdapter(getActivity(), R.layout.list_log_entry);
-        mLogEntries.setAdapter(mLogEntriesAdapter);
+    @Override
+    public void onDestroyView() {
+        if (mFeedListener != null)
+            LogFeed.unregister(mFeedListener);
+        if (mHexCache != null)
+            mHexCache.shutdown();
+
+        super.onDestroyView();
+    }
+
+    /**
+     * Loads the entries written so far once, then appends the entries of the writer's change feed
+     */
+    private void startLive() {
+        final AppDatabase db = AppDatabase.getDatabase(getActivity());
+
+        // subscribe first so no batch is missed, batches arriving before the load are buffered
+        mFeedListener = (sessionId, entries) -> {
+            if (sessionId == mSessionId)
+                mHexCache.prefetch(entries, () -> appendEntries(entries));
+        };
+        LogFeed.register(mFeedListener);
+
+        new Thread(() -> {
+            List<NfcCommEntry> entries = db.nfcCommEntryDao().getBySession(mSessionId);
+
+            mHexCache.prefetch(entries, () -> {
+                mLiveLoaded = true;
+                appendEntries(entries);
+                appendEntries(mLivePending);
+                mLivePending.clear();
+            });
+        }, "LogEntryLoad").start();
+    }
+
+    private void appendEntries(List<NfcCommEntry> entries) {
+        if (getView() == null)
+            return;
+
+        if (!mLiveLoaded) {
+            mLivePending.addAll(entries);
+            return;
+        }
+
+        // skip entries that were part of both the initial load and the feed
+        int start = mEntries.size();
+        for (NfcCommEntry entry : entries) {
+            if (entry.getEntryId() > mLastEntryId) {
+                mEntries.add(entry);
+                mLastEntryId = entry.getEntryId();
+            }
+        }
+
+        if (mEntries.size() > start) {
+            mLogEntriesAdapter.notifyItemRangeInserted(start, mEntries.size() - start);
+            mLogEntries.scrollToPosition(mEntries.size() - 1);
+        }
+    }
+
+    private List<NfcComm> getLogData() {
+        List<NfcComm> result = new ArrayList<>(mEntries.size());
+        for (NfcCommEntry entry : mEntries)
+            result.add(entry.getNfcComm());
+        return result;
     }
 
     @Override
@@ -226,7 +303,7 @@ public class SessionLogEntryFragment extends Fragment {
             mCallback.onLogSelected(mSessionId);
             return true;
         } else if (R.id.action_share == item.getItemId()) {
-            mLogAction.share(mSessionLog, mLogData);
+            mLogAction.share(mSessionLog, getLogData());
             return true;
         } else if (R.id.action_delete == item.getItemId()) {
             mLogAction.delete(mSessionLog);
@@ -236,34 +313,70 @@ public class SessionLogEntryFragment extends Fragment {
         return super.onOptionsItemSelected(item);
     }
 
-    private static class SessionLogEntryListAdapter extends CustomArrayAdapter<NfcComm> {
-        SessionLogEntryListAdapter(@NonNull Context context, int resource) {
-            super(context, resource);
+    private static class SessionLogEntryViewHolder extends RecyclerView.ViewHolder {
+        final ImageView type;
+        final TextView data;
+        final TextView timestamp;
+
+        SessionLogEntryViewHolder(View v) {
+            super(v);
+            type = v.findViewById(R.id.type);
+            data = v.findViewById(R.id.data);
+            timestamp = v.findViewById(R.id.timestamp);
         }
+    }
+
+    private class SessionLogEntryListAdapter extends RecyclerView.Adapter<SessionLogEntryViewHolder> {
+        private final SimpleDateFormat mDateFormat = SessionLog.isoDateFormatter();
 
         @DrawableRes
         private int byCard(boolean card) {
             return card ? R.drawable.ic_tag_grey_60dp : R.drawable.ic_reader_grey_60dp;
         }
 
-        private String byInitial(boolean initial, byte[] data) {
-            return initial ? new ConfigBuilder(data).toString() : bytesToHexDump(data);
+        @NonNull
+        @Override
+        public SessionLogEntryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            return new SessionLogEntryViewHolder(LayoutInflater.from(parent.getContext()).inflate(R.layout.list_log_entry, parent, false));
         }
 
-        @NonNull
         @Override
-        public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-            View v = super.getView(position, convertView, parent);
-            final NfcComm comm = getItem(position);
+        public void onBindViewHolder(@NonNull SessionLogEntryViewHolder holder, int position) {
+            final NfcCommEntry entry = mEntries.get(position);
+            final NfcComm comm = entry.getNfcComm();
 
             // set image indicating card or reader
-            v.<ImageView>findViewById(R.id.type).setImageResource(byCard(comm.isCard()));
-            // set content to either config stream or binary content
-            v.<TextView>findViewById(R.id.data).setText(byInitial(comm.isInitial(), comm.getData()));
+            holder.type.setImageResource(byCard(comm.isCard()));
+            // set content to the preformatted config stream or binary content, format it if evicted
+            String data = mHexCache.get(entry.getEntryId());
+            holder.data.setText(data != null ? data : "");
+            if (data == null)
+                mHexCache.request(entry, this::onFormatted);
             // set timestamp
-            v.<TextView>findViewById(R.id.timestamp).setText(SessionLog.isoDateFormatter().format(new Date(comm.getTimestamp())));
+            holder.timestamp.setText(mDateFormat.format(new Date(comm.getTimestamp())));
+        }
 
-            return v;
+        @Override
+        public int getItemCount() {
+            return mEntries.size();
+        }
+
+        private void onFormatted(int entryId) {
+            // entries are ordered by id
+            int low = 0, high = mEntries.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int id = mEntries.get(mid).getEntryId();
+
+                if (id < entryId)
+                    low = mid + 1;
+                else if (id > entryId)
+                    high = mid - 1;
+                else {
+                    notifyItemChanged(mid);
+                    return;
+                }
+            }
         }
     }
 }
@@ -12,11 +12,12 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import de.tu_darmstadt.seemoo.nfcgate.gui.MainActivity;
 import de.tu_darmstadt.seemoo.nfcgate.network.c2s.C2S;
 import de.tu_darmstadt.seemoo.nfcgate.network.data.NetworkStatus;
-import de.tu_darmstadt.seemoo.nfcgate.util.DiagnosticsStats;
 import de.tu_darmstadt.seemoo.nfcgate.util.ConnectionPresets;
+import de.tu_darmstadt.seemoo.nfcgate.util.Metrics;
 import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
 import de.tu_darmstadt.seemoo.nfcgate.util.PrefUtils;
 import de.tu_darmstadt.seemoo.nfcgate.util.RecentEvents;
+import de.tu_darmstadt.seemoo.nfcgate.util.Trace;
 
 import static de.tu_darmstadt.seemoo.nfcgate.network.c2s.C2S.ServerData.Opcode;
 
@@ -160,7 +161,7 @@ public class NetworkManager implements ServerConnection.Callback {
 
     public void send(NfcComm data) {
         if (mPausedSending) {
-            DiagnosticsStats.incDroppedSendMessages();
+            Metrics.DROPPED_SEND_MESSAGES.inc();
             return;
         }
         // queue data message
@@ -180,7 +181,8 @@ public class NetworkManager implements ServerConnection.Callback {
             return;
         }
 
-        Log.v(TAG, "Got message "+serverData.getOpcode().toString());
+        // serialized opcode is the leading field of the payload prefix
+        Trace.record(Trace.Event.NET_MESSAGE, data);
         switch (serverData.getOpcode()) {
             case OP_SYN:
                 // empty syn message indicates our peer has just connected
@@ -350,7 +352,7 @@ public class NetworkManager implements ServerConnection.Callback {
 
         // Soft restart: close the current connection and let the existing backoff take over.
         RecentEvents.warn("Watchdog: no activity for " + (idleMs / 1000L) + "s; reconnecting");
-        DiagnosticsStats.incWatchdogReconnects();
+        Metrics.WATCHDOG_RECONNECTS.inc();
         // Keep the privacy overlay/status banner understandable.
         mLastStatus = NetworkStatus.CONNECTING;
         mCallback.onNetworkStatus(NetworkStatus.CONNECTING);
@@ -14,8 +14,9 @@ import de.tu_darmstadt.seemoo.nfcgate.network.threading.SendThread;
 import de.tu_darmstadt.seemoo.nfcgate.network.transport.PlainTransport;
 import de.tu_darmstadt.seemoo.nfcgate.network.transport.TLSTransport;
 import de.tu_darmstadt.seemoo.nfcgate.network.transport.Transport;
-import de.tu_darmstadt.seemoo.nfcgate.util.DiagnosticsStats;
+import de.tu_darmstadt.seemoo.nfcgate.util.Metrics;
 import de.tu_darmstadt.seemoo.nfcgate.util.RecentEvents;
+import de.tu_darmstadt.seemoo.nfcgate.util.Trace;
 
 public class ServerConnection {
     private static final String TAG = "ServerConnection";
@@ -113,11 +114,11 @@ public class ServerConnection {
      * Schedules the data to be sent
      */
     public void send(int session, byte[] data) {
-        Log.v(TAG, "Enqueuing message of " + data.length + " bytes");
+        Trace.record(Trace.Event.NET_ENQUEUE, data);
         boolean ok = mSendQueue.offer(new SendRecord(session, data));
         if (!ok) {
             mDroppedSends++;
-            DiagnosticsStats.incDroppedSendMessages();
+            Metrics.DROPPED_SEND_MESSAGES.inc();
             if (mDroppedSends == 1 || (mDroppedSends % 50) == 0) {
                 RecentEvents.warn("Send queue full; dropped " + mDroppedSends + " messages");
             }
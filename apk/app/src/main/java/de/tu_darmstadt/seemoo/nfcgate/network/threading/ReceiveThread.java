@@ -8,6 +8,7 @@ import java.net.SocketTimeoutException;
 
 import de.tu_darmstadt.seemoo.nfcgate.network.data.NetworkStatus;
 import de.tu_darmstadt.seemoo.nfcgate.network.ServerConnection;
+import de.tu_darmstadt.seemoo.nfcgate.util.Trace;
 
 public class ReceiveThread extends BaseThread {
     private static final String TAG = "ReceiveThread";
@@ -42,7 +43,6 @@ public class ReceiveThread extends BaseThread {
         } catch (SocketTimeoutException e) {
             return;
         }
-        Log.v(TAG, "Got message of " + length + " bytes");
 
         if (length > MAX_RECEIVE_BYTES)
             throw new IOException("Invalid protocol length prefix received");
@@ -50,6 +50,7 @@ public class ReceiveThread extends BaseThread {
         // block and wait for actual data
         byte[] data = new byte[length];
         mReadStream.readFully(data);
+        Trace.record(Trace.Event.NET_RECEIVE, data);
 
         // deliver data
         mConnection.onReceive(data);
@@ -8,6 +8,7 @@ import java.io.IOException;
 import de.tu_darmstadt.seemoo.nfcgate.network.data.NetworkStatus;
 import de.tu_darmstadt.seemoo.nfcgate.network.data.SendRecord;
 import de.tu_darmstadt.seemoo.nfcgate.network.ServerConnection;
+import de.tu_darmstadt.seemoo.nfcgate.util.Trace;
 
 public class SendThread extends BaseThread {
     private static final String TAG = "SendThread";
@@ -33,7 +34,7 @@ public class SendThread extends BaseThread {
     @Override
     void runInternal() throws IOException, InterruptedException {
         SendRecord record = mConnection.getSendQueue().take();
-        Log.v(TAG, "Sending message of " + record.getData().length + " bytes");
+        Trace.record(Trace.Event.NET_SEND, record.getData());
 
         // 4 byte data length
         mWriteStream.writeInt(record.getData().length);
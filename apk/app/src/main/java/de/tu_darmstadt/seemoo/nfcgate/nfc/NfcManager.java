@@ -12,6 +12,8 @@ import android.util.Log;
 
 import androidx.annotation.Nullable;
 
+import java.io.IOException;
+
 import de.tu_darmstadt.seemoo.nfcgate.gui.MainActivity;
 import de.tu_darmstadt.seemoo.nfcgate.network.NetworkManager;
 import de.tu_darmstadt.seemoo.nfcgate.network.data.NetworkStatus;
@@ -21,6 +23,8 @@ import de.tu_darmstadt.seemoo.nfcgate.nfc.modes.BaseMode;
 import de.tu_darmstadt.seemoo.nfcgate.nfc.reader.NFCTagReader;
 import de.tu_darmstadt.seemoo.nfcgate.nfc.reader.NfcAReader;
 import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+import de.tu_darmstadt.seemoo.nfcgate.util.RecentEvents;
+import de.tu_darmstadt.seemoo.nfcgate.util.Trace;
 
 public class NfcManager implements NfcAdapter.ReaderCallback, NetworkManager.Callback {
     private static final String TAG = "NfcManager";
@@ -220,7 +224,7 @@ public class NfcManager implements NfcAdapter.ReaderCallback, NetworkManager.Cal
      * Handles card data by mode
      */
     public void handleData(boolean isForeign, NfcComm data) {
-        Log.v(TAG, "handleData foreign: " + isForeign + ", " + data.getData().length + " bytes");
+        Trace.record(isForeign ? Trace.Event.NFC_HANDLE_FOREIGN : Trace.Event.NFC_HANDLE_LOCAL, data);
 
         if (mMode != null)
             mMode.onData(isForeign, data);
@@ -246,7 +250,7 @@ public class NfcManager implements NfcAdapter.ReaderCallback, NetworkManager.Cal
      * Applies own or foreign data
      */
     public void applyData(NfcComm data) {
-        Log.v(TAG, "applyData of " + data.getData().length + " bytes");
+        Trace.record(Trace.Event.NFC_APPLY, data);
 
         if (data.isInitial()) {
             // send configuration to service, also disables polling
@@ -254,7 +258,14 @@ public class NfcManager implements NfcAdapter.ReaderCallback, NetworkManager.Cal
         }
         else if (mReaderMode) {
             // send data to tag and get reply
-            byte[] reply = mReader.transceive(data.getData());
+            byte[] reply;
+            try {
+                reply = mReader.transceive(data.getData());
+            } catch (IOException e) {
+                Log.e(TAG, "Tag transceive failed", e);
+                RecentEvents.error("Tag transceive failed", e);
+                reply = null;
+            }
 
             // send reply
             if (reply == null)
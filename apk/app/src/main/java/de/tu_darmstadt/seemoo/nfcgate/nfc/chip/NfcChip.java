@@ -1,8 +1,21 @@
 package de.tu_darmstadt.seemoo.nfcgate.nfc.chip;
 
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.preference.PreferenceManager;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import de.tu_darmstadt.seemoo.nfcgate.nfc.chip.detectors.BRCMDetector;
 import de.tu_darmstadt.seemoo.nfcgate.nfc.chip.detectors.INfcChipDetector;
@@ -10,18 +23,112 @@ import de.tu_darmstadt.seemoo.nfcgate.nfc.chip.detectors.NXPDetector;
 import de.tu_darmstadt.seemoo.nfcgate.nfc.chip.detectors.NXPOppoDetector;
 import de.tu_darmstadt.seemoo.nfcgate.nfc.chip.detectors.STDetector;
 import de.tu_darmstadt.seemoo.nfcgate.nfc.chip.detectors.SamsungDetector;
+import de.tu_darmstadt.seemoo.nfcgate.nfc.chip.detectors.SystemProps;
 
 public class NfcChip {
+    private static final String TAG = "NfcChip";
+
+    // the result can only change with a system update, which changes the fingerprint
+    private static final String PREF_FINGERPRINT = "nfc_chip_fingerprint";
+    private static final String PREF_CHIP_NAME = "nfc_chip_name";
+    // stored as chip name if no detector found a chip
+    private static final String NO_CHIP = "<none>";
+
+    public interface Callback {
+        /**
+         * Called on the main thread with the name of the chip, null if none was found
+         */
+        void onDetected(String chipName);
+    }
+
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+
+    // detection of this process, started once
+    private static boolean sStarted = false;
+    private static boolean sDone = false;
+    private static String sChipName = null;
+    private static final List<Callback> sCallbacks = new ArrayList<>();
 
     // Prevent creating this class, it only has static methods.
     private NfcChip() {}
 
     /**
-     * Detects the NFC chip on this device
-     *
-     * @return The name of the chip or null
+     * Starts detection in the background, it returns early if it ran for this build before
+     */
+    public static void prefetch(Context context) {
+        start(context.getApplicationContext());
+    }
+
+    /**
+     * Detects the NFC chip on this device without blocking, the result is cached per build fingerprint.
+     * The callback runs on the main thread once detection finished.
      */
-    public static String detect() {
+    public static void detect(Context context, Callback callback) {
+        synchronized (NfcChip.class) {
+            if (!sDone) {
+                sCallbacks.add(callback);
+                start(context.getApplicationContext());
+                return;
+            }
+        }
+
+        final String chipName = sChipName;
+        sMainHandler.post(() -> callback.onDetected(chipName));
+    }
+
+    private static synchronized void start(Context context) {
+        if (sStarted)
+            return;
+
+        sStarted = true;
+        new Thread(() -> finish(detectCached(context)), "NfcChipDetect").start();
+    }
+
+    private static void finish(String chipName) {
+        List<Callback> callbacks;
+        synchronized (NfcChip.class) {
+            sChipName = chipName;
+            sDone = true;
+            callbacks = new ArrayList<>(sCallbacks);
+            sCallbacks.clear();
+        }
+
+        for (Callback callback : callbacks)
+            sMainHandler.post(() -> callback.onDetected(chipName));
+    }
+
+    private static String detectCached(Context context) {
+        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
+
+        if (Build.FINGERPRINT.equals(prefs.getString(PREF_FINGERPRINT, null))) {
+            String cached = prefs.getString(PREF_CHIP_NAME, "");
+            if (NO_CHIP.equals(cached))
+                return null;
+            if (!cached.isEmpty())
+                return cached;
+        }
+
+        String chipName;
+        try {
+            chipName = detectUncached();
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Chip detection failed", e);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        // a miss while getprop fails is not final, detection runs again on the next start
+        if (chipName != null || SystemProps.isAvailable())
+            prefs.edit()
+                    .putString(PREF_FINGERPRINT, Build.FINGERPRINT)
+                    .putString(PREF_CHIP_NAME, chipName != null ? chipName : NO_CHIP)
+                    .apply();
+        return chipName;
+    }
+
+    private static String detectUncached() throws InterruptedException, ExecutionException {
         NfcChipGuess best = new NfcChipGuess();
 
         // search guesses in order
@@ -36,7 +143,7 @@ public class NfcChip {
         return null;
     }
 
-    private static List<NfcChipGuess> collectGuesses() {
+    private static List<NfcChipGuess> collectGuesses() throws InterruptedException, ExecutionException {
         List<NfcChipGuess> result = new ArrayList<>();
         List<INfcChipDetector> detectors = Arrays.asList(
                 new BRCMDetector(),
@@ -46,8 +153,19 @@ public class NfcChip {
                 new STDetector()
         );
 
-        for (INfcChipDetector detector : detectors)
-            result.addAll(detector.tryDetect());
+        // detectors only do file and property reads, run them all at once
+        ExecutorService executor = Executors.newFixedThreadPool(detectors.size());
+        try {
+            List<Future<List<NfcChipGuess>>> futures = new ArrayList<>();
+            for (INfcChipDetector detector : detectors)
+                futures.add(executor.submit(detector::tryDetect));
+
+            // keep detector order so ties resolve as before
+            for (Future<List<NfcChipGuess>> future : futures)
+                result.addAll(future.get());
+        } finally {
+            executor.shutdown();
+        }
 
         return result;
     }
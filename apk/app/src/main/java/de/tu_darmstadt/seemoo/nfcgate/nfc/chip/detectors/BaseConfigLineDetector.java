@@ -9,7 +9,11 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import de.tu_darmstadt.seemoo.nfcgate.nfc.chip.NfcChipGuess;
 
@@ -26,6 +30,9 @@ public abstract class BaseConfigLineDetector implements INfcChipDetector {
             "/etc/",
     };
 
+    // file names in each directory, listed once per process, null if a dir cannot be listed
+    private static final Map<String, Set<String>> sDirListings = new HashMap<>();
+
     @Override
     public List<NfcChipGuess> tryDetect() {
         List<NfcChipGuess> result = new ArrayList<>();
@@ -54,10 +61,8 @@ public abstract class BaseConfigLineDetector implements INfcChipDetector {
 
         for (String dir : getConfigDirs()) {
             for (String fileName : fileNames) {
-                String path = dir + fileName;
-
-                if (fileExists(path))
-                    result.add(path);
+                if (configExists(dir, fileName))
+                    result.add(dir + fileName);
             }
         }
 
@@ -120,6 +125,27 @@ public abstract class BaseConfigLineDetector implements INfcChipDetector {
         return null;
     }
 
+    /**
+     * Checks if file exists in dir, using one directory listing for all checks in the same dir
+     */
+    private static boolean configExists(String dir, String fileName) {
+        // names from props may point into subdirectories
+        if (fileName.contains("/"))
+            return fileExists(dir + fileName);
+
+        Set<String> names;
+        synchronized (sDirListings) {
+            if (!sDirListings.containsKey(dir)) {
+                String[] listing = new File(dir).list();
+                sDirListings.put(dir, listing != null ? new HashSet<>(Arrays.asList(listing)) : null);
+            }
+            names = sDirListings.get(dir);
+        }
+
+        // fall back to probing if the directory is not readable
+        return names != null ? names.contains(fileName) : fileExists(dir + fileName);
+    }
+
     /**
      * Checks if file exists
      */
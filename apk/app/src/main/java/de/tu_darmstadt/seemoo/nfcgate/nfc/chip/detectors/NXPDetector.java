@@ -2,9 +2,6 @@ package de.tu_darmstadt.seemoo.nfcgate.nfc.chip.detectors;
 
 import android.util.Pair;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -102,21 +99,6 @@ public class NXPDetector extends BaseConfigLineDetector {
      * @return Value of property on success or empty String otherwise
      */
     protected static String getSystemProp(String prop) {
-        String value = "";
-        Process p = null;
-
-        try {
-            p = new ProcessBuilder("getprop", prop).redirectErrorStream(true).start();
-
-            BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream()));
-            for (String line; (line = br.readLine()) != null; )
-                value = line.trim();
-        }
-        catch (IOException ignored) { }
-
-        if (p != null)
-            p.destroy();
-
-        return !value.isEmpty() ? value : "";
+        return SystemProps.get(prop);
     }
 }
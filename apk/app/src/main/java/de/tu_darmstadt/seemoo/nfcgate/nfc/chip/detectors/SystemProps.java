@@ -0,0 +1,97 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc.chip.detectors;
+
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * All system properties, read with a single getprop call on first use.
+ * Detectors only need a handful of properties, one process for all of them is much cheaper
+ * than one process per property.
+ */
+public class SystemProps {
+    private static final String TAG = "SystemProps";
+
+    // getprop prints every property as "[name]: [value]"
+    private static final Pattern PROP_LINE = Pattern.compile("^\\[(.+?)]: \\[(.*)]$");
+
+    private static Map<String, String> sProps = null;
+
+    private SystemProps() {}
+
+    /**
+     * Gets a system prop
+     *
+     * @param prop Full name of property to get
+     * @return Value of property on success or empty String otherwise
+     */
+    static String get(String prop) {
+        String value = all().get(prop);
+        return value != null ? value : "";
+    }
+
+    /**
+     * True if the system properties could be read, a failed read is retried
+     */
+    public static boolean isAvailable() {
+        return !all().isEmpty();
+    }
+
+    static synchronized Map<String, String> all() {
+        if (sProps != null)
+            return sProps;
+
+        // a failed getprop is retried on the next call instead of hiding all properties for good
+        Map<String, String> props = readAll();
+        if (props.isEmpty())
+            return Collections.emptyMap();
+
+        sProps = props;
+        return sProps;
+    }
+
+    /**
+     * Runs getprop, returns an empty map if it failed
+     */
+    private static Map<String, String> readAll() {
+        Process p = null;
+
+        try {
+            p = new ProcessBuilder("getprop").redirectErrorStream(true).start();
+
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
+                return parse(br);
+            }
+        }
+        catch (IOException e) {
+            Log.w(TAG, "Cannot read system properties", e);
+            return Collections.emptyMap();
+        }
+        finally {
+            if (p != null)
+                p.destroy();
+        }
+    }
+
+    /**
+     * Parses getprop output, lines not in the "[name]: [value]" format are skipped
+     */
+    static Map<String, String> parse(BufferedReader reader) throws IOException {
+        Map<String, String> result = new HashMap<>();
+
+        for (String line; (line = reader.readLine()) != null; ) {
+            Matcher matcher = PROP_LINE.matcher(line.trim());
+            if (matcher.matches())
+                result.put(matcher.group(1), matcher.group(2).trim());
+        }
+
+        return result;
+    }
+}
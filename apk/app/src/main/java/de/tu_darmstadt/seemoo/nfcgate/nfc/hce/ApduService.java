@@ -5,8 +5,9 @@ import android.os.Bundle;
 import android.util.Log;
 
 import de.tu_darmstadt.seemoo.nfcgate.nfc.NfcManager;
+import de.tu_darmstadt.seemoo.nfcgate.util.Metrics;
 import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
-import de.tu_darmstadt.seemoo.nfcgate.util.Utils;
+import de.tu_darmstadt.seemoo.nfcgate.util.Trace;
 
 /**
  * The ApduService class contains the logic for interaction with the Android HCE interface.
@@ -22,6 +23,9 @@ public class ApduService extends HostApduService {
      */
     private final byte[] RESPOND_LATER = null;
 
+    // System.nanoTime() of the pending reader request, 0 once answered
+    private volatile long mRequestNs = 0;
+
     public ApduService() {
         mNfcManager.setApduService(this);
     }
@@ -34,7 +38,8 @@ public class ApduService extends HostApduService {
      */
     @Override
     public byte[] processCommandApdu(byte[] apdu, Bundle extras) {
-        Log.d(TAG, "APDU-IN: " + Utils.bytesToHex(apdu));
+        Trace.record(Trace.Event.APDU_IN, apdu);
+        mRequestNs = System.nanoTime();
 
         // Package the ADPU into a NfcComm object
         NfcComm nfcdata = new NfcComm(false, false, apdu);
@@ -53,7 +58,13 @@ public class ApduService extends HostApduService {
     }
 
     public void sendResponse(byte[] apdu) {
-        Log.d(TAG, "APDU-OUT: " + Utils.bytesToHex(apdu));
+        Trace.record(Trace.Event.APDU_OUT, apdu);
+        // only the first response to a request is a round trip
+        long requestNs = mRequestNs;
+        if (requestNs != 0) {
+            Metrics.HCE_RESPONSE.recordSince(requestNs);
+            mRequestNs = 0;
+        }
         sendResponseApdu(apdu);
     }
 }
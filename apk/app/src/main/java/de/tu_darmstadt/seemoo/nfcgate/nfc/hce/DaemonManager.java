@@ -3,9 +3,12 @@ package de.tu_darmstadt.seemoo.nfcgate.nfc.hce;
 import android.content.Intent;
 import android.os.Bundle;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import de.tu_darmstadt.seemoo.nfcgate.gui.MainActivity;
+import de.tu_darmstadt.seemoo.nfcgate.xposed.HookStats;
 
 /**
  * Interface to the nfc daemon patches
@@ -13,6 +16,7 @@ import de.tu_darmstadt.seemoo.nfcgate.gui.MainActivity;
 public class DaemonManager {
     private final MainActivity mActivity;
     private boolean mIsHookEnabled = false;
+    private List<HookStats.Snapshot> mHookStats = Collections.emptyList();
     private Date mLastResponse = null;
 
     public DaemonManager(MainActivity activity) {
@@ -32,12 +36,24 @@ public class DaemonManager {
             mActivity.getNfc().notifyStatusChanged();
             mLastResponse = new Date();
         }
+        else if ("HOOK_STATS".equals(responseType)) {
+            mHookStats = HookStats.fromBundle(intent.getBundleExtra("stats"));
+            mActivity.getNfc().notifyStatusChanged();
+            mLastResponse = new Date();
+        }
     }
 
     public boolean isHookEnabled() {
         return mIsHookEnabled;
     }
 
+    /**
+     * Returns the hook timings received by the last beginGetHookStats call
+     */
+    public List<HookStats.Snapshot> getHookStats() {
+        return mHookStats;
+    }
+
     /**
      * Sets the config in the NFC Service hook
      *
@@ -79,6 +95,13 @@ public class DaemonManager {
         send(getIntent("INSTALL_HOOKS"));
     }
 
+    /**
+     * Requests the timing counters of all hook sites and native calls
+     */
+    public void beginGetHookStats() {
+        send(getIntent("HOOK_STATS"));
+    }
+
     public void onResume() {
         // debounce getting hook status because receiving the response also triggers onResume
         if (mLastResponse == null || (new Date().getTime() - mLastResponse.getTime()) > 5000)
@@ -5,6 +5,8 @@ import android.nfc.tech.IsoDep;
 
 import androidx.annotation.NonNull;
 
+import java.io.IOException;
+
 import de.tu_darmstadt.seemoo.nfcgate.nfc.config.ConfigBuilder;
 import de.tu_darmstadt.seemoo.nfcgate.nfc.config.OptionType;
 import de.tu_darmstadt.seemoo.nfcgate.nfc.config.Technologies;
@@ -48,4 +50,9 @@ public class IsoDepReader extends NFCTagReader {
 
         return builder;
     }
+
+    @Override
+    byte[] transceiveTech(byte[] command) throws IOException {
+        return ((IsoDep) mReader).transceive(command);
+    }
 }
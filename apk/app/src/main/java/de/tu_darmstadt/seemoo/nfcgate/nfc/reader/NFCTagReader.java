@@ -7,19 +7,25 @@ import android.text.TextUtils;
 import android.util.Log;
 
 import java.io.IOException;
-import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
 
 import de.tu_darmstadt.seemoo.nfcgate.nfc.config.ConfigBuilder;
 import de.tu_darmstadt.seemoo.nfcgate.nfc.config.Technologies;
+import de.tu_darmstadt.seemoo.nfcgate.util.LatencyHistogram;
+import de.tu_darmstadt.seemoo.nfcgate.util.Metrics;
 
 /**
  * Interface to all NFCTagReader-Classes.
  */
 public abstract class NFCTagReader {
+    private static final String TAG = "NFCTagReader";
+
     final TagTechnology mReader;
 
+    // round-trip latency of all transceive calls to this tag
+    private final LatencyHistogram mTransceiveLatency = new LatencyHistogram();
+
     NFCTagReader(TagTechnology reader) {
         mReader = reader;
     }
@@ -46,6 +52,9 @@ public abstract class NFCTagReader {
      * Closes the connection, no further communication will be possible
      */
     public void close() {
+        if (mTransceiveLatency.getCount() > 0)
+            Log.i(TAG, "Transceive latency: " + mTransceiveLatency);
+
         try{
             mReader.close();
         } catch(IOException e) {
@@ -58,19 +67,31 @@ public abstract class NFCTagReader {
      *
      * @param command: byte[]-representation of the command to be sent
      * @return byte[]-representation of the answer of the NFC chip
+     * @throws IOException if the tag is lost or the command fails
      */
-    public byte[] transceive(byte[] command) {
+    public byte[] transceive(byte[] command) throws IOException {
+        final long start = System.nanoTime();
         try {
-            // there is no common interface for TagTechnology...
-            Method transceive = mReader.getClass().getMethod("transceive", byte[].class);
-            return (byte[])transceive.invoke(mReader, command);
-        }
-        catch (Exception e) {
-            e.printStackTrace();
-            return null;
+            return transceiveTech(command);
+        } finally {
+            final long elapsed = System.nanoTime() - start;
+            mTransceiveLatency.record(elapsed);
+            Metrics.TAG_TRANSCEIVE.record(elapsed);
         }
     }
 
+    /**
+     * Returns the round-trip latency histogram of all transceive calls to this tag
+     */
+    public LatencyHistogram getTransceiveLatency() {
+        return mTransceiveLatency;
+    }
+
+    /**
+     * Technology-specific transceive, there is no common interface for TagTechnology
+     */
+    abstract byte[] transceiveTech(byte[] command) throws IOException;
+
     /**
      * Returns a config object with options set to emulate this tag
      */
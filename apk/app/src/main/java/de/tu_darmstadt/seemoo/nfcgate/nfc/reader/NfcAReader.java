@@ -4,6 +4,8 @@ import android.nfc.Tag;
 import android.nfc.tech.NfcA;
 import androidx.annotation.NonNull;
 
+import java.io.IOException;
+
 import de.tu_darmstadt.seemoo.nfcgate.nfc.config.ConfigBuilder;
 import de.tu_darmstadt.seemoo.nfcgate.nfc.config.OptionType;
 
@@ -34,4 +36,8 @@ public class NfcAReader extends NFCTagReader {
         return builder;
     }
 
+    @Override
+    byte[] transceiveTech(byte[] command) throws IOException {
+        return ((NfcA) mReader).transceive(command);
+    }
 }
@@ -4,6 +4,8 @@ import android.nfc.Tag;
 import android.nfc.tech.NfcB;
 import androidx.annotation.NonNull;
 
+import java.io.IOException;
+
 import de.tu_darmstadt.seemoo.nfcgate.nfc.config.ConfigBuilder;
 import de.tu_darmstadt.seemoo.nfcgate.nfc.config.OptionType;
 
@@ -35,4 +37,8 @@ public class NfcBReader extends NFCTagReader {
         return builder;
     }
 
+    @Override
+    byte[] transceiveTech(byte[] command) throws IOException {
+        return ((NfcB) mReader).transceive(command);
+    }
 }
@@ -4,6 +4,8 @@ import android.nfc.Tag;
 import android.nfc.tech.NfcF;
 import androidx.annotation.NonNull;
 
+import java.io.IOException;
+
 import de.tu_darmstadt.seemoo.nfcgate.nfc.config.ConfigBuilder;
 import de.tu_darmstadt.seemoo.nfcgate.nfc.config.OptionType;
 
@@ -40,4 +42,9 @@ public class NfcFReader extends NFCTagReader {
 
         return builder;
     }
+
+    @Override
+    byte[] transceiveTech(byte[] command) throws IOException {
+        return ((NfcF) mReader).transceive(command);
+    }
 }
@@ -4,6 +4,8 @@ import android.nfc.Tag;
 import android.nfc.tech.NfcV;
 import androidx.annotation.NonNull;
 
+import java.io.IOException;
+
 import de.tu_darmstadt.seemoo.nfcgate.nfc.config.ConfigBuilder;
 
 /**
@@ -25,4 +27,9 @@ public class NfcVReader extends NFCTagReader {
         // TODO: V tags cannot be emulated (yet)
         return new ConfigBuilder();
     }
+
+    @Override
+    byte[] transceiveTech(byte[] command) throws IOException {
+        return ((NfcV) mReader).transceive(command);
+    }
 }
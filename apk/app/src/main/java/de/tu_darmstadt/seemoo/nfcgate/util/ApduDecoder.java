@@ -0,0 +1,113 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+/**
+ * Decodes ISO 7816-4 command headers and response status words.
+ * Reads the data in place and keeps the fields of the last call, so one instance can be reused
+ * by a writer thread without allocating per entry. Absent fields are NONE.
+ */
+public final class ApduDecoder {
+    public static final int NONE = -1;
+
+    private int mCla, mIns, mP1, mP2, mLc, mLe, mSw;
+
+    /**
+     * Decodes a reader command or card response, initial data is not decoded
+     *
+     * @return True if any field was decoded
+     */
+    public boolean decode(NfcComm comm) {
+        mCla = mIns = mP1 = mP2 = mLc = mLe = mSw = NONE;
+
+        if (comm.isInitial())
+            return false;
+
+        return comm.isCard() ? decodeResponse(comm) : decodeCommand(comm);
+    }
+
+    private boolean decodeResponse(NfcComm comm) {
+        int length = comm.getDataLength();
+        if (length < 2)
+            return false;
+
+        mSw = (comm.getDataByte(length - 2) << 8) | comm.getDataByte(length - 1);
+        return true;
+    }
+
+    private boolean decodeCommand(NfcComm comm) {
+        int length = comm.getDataLength();
+        if (length < 4)
+            return false;
+
+        // case 1: header only
+        mCla = comm.getDataByte(0);
+        mIns = comm.getDataByte(1);
+        mP1 = comm.getDataByte(2);
+        mP2 = comm.getDataByte(3);
+        if (length == 4)
+            return true;
+
+        int b4 = comm.getDataByte(4);
+        if (length == 5) {
+            // case 2S: Le only, 0 means 256
+            mLe = b4 == 0 ? 256 : b4;
+        }
+        else if (b4 != 0) {
+            // case 3S or 4S: short Lc, optional short Le
+            if (length == 5 + b4)
+                mLc = b4;
+            else if (length == 6 + b4) {
+                mLc = b4;
+                int le = comm.getDataByte(length - 1);
+                mLe = le == 0 ? 256 : le;
+            }
+        }
+        else if (length == 7) {
+            // case 2E: extended Le only, 0 means 65536
+            int le = (comm.getDataByte(5) << 8) | comm.getDataByte(6);
+            mLe = le == 0 ? 65536 : le;
+        }
+        else if (length > 7) {
+            // case 3E or 4E: extended Lc, optional extended Le
+            int lc = (comm.getDataByte(5) << 8) | comm.getDataByte(6);
+
+            if (lc != 0 && length == 7 + lc)
+                mLc = lc;
+            else if (lc != 0 && length == 9 + lc) {
+                mLc = lc;
+                int le = (comm.getDataByte(length - 2) << 8) | comm.getDataByte(length - 1);
+                mLe = le == 0 ? 65536 : le;
+            }
+        }
+
+        // malformed bodies keep the header only
+        return true;
+    }
+
+    public int getCla() {
+        return mCla;
+    }
+
+    public int getIns() {
+        return mIns;
+    }
+
+    public int getP1() {
+        return mP1;
+    }
+
+    public int getP2() {
+        return mP2;
+    }
+
+    public int getLc() {
+        return mLc;
+    }
+
+    public int getLe() {
+        return mLe;
+    }
+
+    public int getSw() {
+        return mSw;
+    }
+}
@@ -0,0 +1,100 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+/**
+ * Byte sequence with optional wildcard bytes, parsed from hex like "00 A4 ?? 00".
+ * Whitespace, ':' and '-' between bytes are ignored, "??" matches any byte.
+ */
+public final class BytePattern {
+    private final byte[] mBytes;
+    private final boolean[] mWildcard;
+
+    private BytePattern(byte[] bytes, boolean[] wildcard) {
+        mBytes = bytes;
+        mWildcard = wildcard;
+    }
+
+    /**
+     * Parses the pattern, throws IllegalArgumentException on malformed input
+     */
+    public static BytePattern parse(String text) {
+        StringBuilder digits = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c) && c != ':' && c != '-')
+                digits.append(c);
+        }
+
+        if (digits.length() == 0 || digits.length() % 2 != 0)
+            throw new IllegalArgumentException("Pattern needs an even number of hex digits");
+
+        int length = digits.length() / 2;
+        byte[] bytes = new byte[length];
+        boolean[] wildcard = new boolean[length];
+
+        for (int i = 0; i < length; i++) {
+            char hi = digits.charAt(2 * i), lo = digits.charAt(2 * i + 1);
+
+            if (hi == '?' && lo == '?')
+                wildcard[i] = true;
+            else {
+                int h = HexCodec.digit(hi), l = HexCodec.digit(lo);
+                if (h < 0 || l < 0)
+                    throw new IllegalArgumentException("Invalid byte " + hi + lo);
+
+                bytes[i] = (byte) ((h << 4) | l);
+            }
+        }
+
+        return new BytePattern(bytes, wildcard);
+    }
+
+    public int length() {
+        return mBytes.length;
+    }
+
+    public boolean isWildcard(int index) {
+        return mWildcard[index];
+    }
+
+    /**
+     * Unsigned value of the given byte, undefined for wildcards
+     */
+    public int byteAt(int index) {
+        return mBytes[index] & 0xFF;
+    }
+
+    /**
+     * Returns the first offset the pattern matches at in the data of comm, -1 if none
+     */
+    public int indexIn(NfcComm comm) {
+        int last = comm.getDataLength() - mBytes.length;
+
+        for (int offset = 0; offset <= last; offset++)
+            if (matchesAt(comm, offset))
+                return offset;
+
+        return -1;
+    }
+
+    private boolean matchesAt(NfcComm comm, int offset) {
+        for (int i = 0; i < mBytes.length; i++)
+            if (!mWildcard[i] && comm.getDataByte(offset + i) != (mBytes[i] & 0xFF))
+                return false;
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(3 * mBytes.length);
+        for (int i = 0; i < mBytes.length; i++) {
+            if (i > 0)
+                result.append(' ');
+            if (mWildcard[i])
+                result.append("??");
+            else
+                HexCodec.append(result, mBytes, i, 1, HexCodec.NO_SEPARATOR);
+        }
+        return result.toString();
+    }
+}
@@ -1,24 +1,28 @@
 package de.tu_darmstadt.seemoo.nfcgate.util;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
 import android.os.Build;
+import android.util.Log;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-import org.json.JSONTokener;
-
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-
-import de.tu_darmstadt.seemoo.nfcgate.R;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 public final class DeviceNames {
-    private final String mJsonByDevice;
+    private static final String TAG = "DeviceNames";
+    private static final String INDEX_ASSET = "device_index.bin";
+
+    // shared by all instances, null if the index is missing or invalid
+    private static DeviceIndex sIndex = null;
+    private static boolean sLoaded = false;
+
+    private final DeviceIndex mIndex;
 
     public DeviceNames(Context context) {
-        mJsonByDevice = loadJsonByDevice(context);
+        mIndex = loadIndex(context);
     }
 
     public String formatCurrentDeviceName() {
@@ -34,90 +38,33 @@ public final class DeviceNames {
     }
 
     public String getMarketName(String deviceName, String modelName) {
-        JSONArray devices = findDevices(deviceName);
-        if (devices != null)
-            return findMarketName(devices, modelName);
-
-        return null;
+        return mIndex != null ? mIndex.findMarketName(deviceName, modelName) : null;
     }
 
-    private String loadJsonByDevice(Context context) {
-        // read the full resource as a string
-        try (InputStream is = context.getResources().openRawResource(R.raw.by_device)) {
-            return new String(FileUtils.readAllBytes(is), StandardCharsets.UTF_8);
-        } catch (IOException ignored) { }
-
-        return "";
-    }
+    private static synchronized DeviceIndex loadIndex(Context context) {
+        if (!sLoaded) {
+            sLoaded = true;
 
-    /// look for device entries matching the device name in the map (multiple matches possible)
-    private JSONArray findDevices(String searchDeviceName) {
-        JSONTokener tokener = new JSONTokener(mJsonByDevice);
-
-        /*
-         * Traverse huge JSON object efficiently by only loading small
-         * chunks at a time into memory.
-         *
-         * Example snippet from the JSON object:
-         * "bullhead": [
-         *  {
-         *   "brand": "Blackshark",
-         *   "name": "Shark 1S",
-         *   "model": "AWM-A0"
-         *  },
-         *  {
-         *   "brand": "LGE",
-         *   "name": "Nexus 5X",
-         *   "model": "Nexus 5X"
-         *  }
-         * ],
-         */
-
-        try {
-            // enter the root JSON object
-            tokener.skipPast("{");
-            // while there are devices in the map
-            while (tokener.more()) {
-                // parse the object key, a quoted string (e.g. "bullhead")
-                String deviceName = (String) tokener.nextValue();
-                // skip to object value
-                tokener.skipPast(":");
-                // parse the object value, a JSON array
-                JSONArray devices = (JSONArray) tokener.nextValue();
-                // skip to next object key (or exhaust the input)
-                tokener.skipPast(",");
-
-                // if the object key matches the device name, return the object value
-                if (searchDeviceName.equalsIgnoreCase(deviceName))
-                    return devices;
+            try {
+                sIndex = new DeviceIndex(mapIndex(context));
+            } catch (IOException e) {
+                Log.w(TAG, "Device index unavailable", e);
             }
         }
-        catch (JSONException ignored) { }
 
-        // null on error or not found
-        return null;
+        return sIndex;
     }
 
-    /// find one device market name matching the model in device entries returned by findDevices
-    private String findMarketName(JSONArray devices, String searchModel) {
-        try {
-            for (int i = 0; i < devices.length(); i++) {
-                JSONObject device = devices.getJSONObject(i);
-
-                // skip malformed device entries
-                if (device.has("name") && device.has("model")) {
-                    String name = device.getString("name");
-                    String model = device.getString("model");
-
-                    // if the model matches and the market name is valid, return this market name
-                    if (searchModel.equalsIgnoreCase(model) && !name.isBlank())
-                        return name;
-                }
+    private static ByteBuffer mapIndex(Context context) throws IOException {
+        // the asset is stored uncompressed, so map it straight from the apk
+        try (AssetFileDescriptor fd = context.getAssets().openFd(INDEX_ASSET);
+             FileInputStream in = fd.createInputStream()) {
+            return in.getChannel().map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getLength());
+        } catch (IOException e) {
+            // compressed asset cannot be mapped, stream it instead
+            try (InputStream in = context.getAssets().open(INDEX_ASSET)) {
+                return ByteBuffer.wrap(FileUtils.readAllBytes(in));
             }
         }
-        catch (JSONException ignored) { }
-
-        // null on error or not found
-        return null;
     }
 }
@@ -0,0 +1,178 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aligns two sequences of integer keys with Myers' O((N+M)D) difference algorithm
+ * in its linear-space variant (recursion on the middle snake).
+ * Gaps between equal runs are reported as changed pairs, remaining elements as inserted or removed.
+ */
+public final class SequenceAligner {
+    public enum Type {
+        EQUAL,
+        // only in the first sequence
+        DELETE,
+        // only in the second sequence
+        INSERT,
+        // replaced pairwise
+        CHANGE
+    }
+
+    public static class Run {
+        public final Type type;
+        public final int aStart, aLength;
+        public final int bStart, bLength;
+
+        Run(Type type, int aStart, int aLength, int bStart, int bLength) {
+            this.type = type;
+            this.aStart = aStart;
+            this.aLength = aLength;
+            this.bStart = bStart;
+            this.bLength = bLength;
+        }
+    }
+
+    private final int[] mA, mB;
+    // furthest reaching x per diagonal, forward and reverse, shared by all recursion levels
+    private final int[] mForward, mReverse;
+    private final int mOffset;
+    // equal runs in order, as {aStart, bStart, length}
+    private final List<int[]> mEqual = new ArrayList<>();
+
+    private SequenceAligner(int[] a, int[] b) {
+        mA = a;
+        mB = b;
+        mOffset = (a.length + b.length + 1) / 2 + 1;
+        mForward = new int[2 * mOffset + 1];
+        mReverse = new int[2 * mOffset + 1];
+    }
+
+    /**
+     * Aligns both sequences, the runs cover both of them completely and in order
+     */
+    public static List<Run> align(int[] a, int[] b) {
+        SequenceAligner aligner = new SequenceAligner(a, b);
+        aligner.diff(0, a.length, 0, b.length);
+        return aligner.toRuns();
+    }
+
+    private void diff(int aLo, int aHi, int bLo, int bHi) {
+        // common prefix and suffix
+        int prefix = 0;
+        while (aLo + prefix < aHi && bLo + prefix < bHi && mA[aLo + prefix] == mB[bLo + prefix])
+            prefix++;
+        addEqual(aLo, bLo, prefix);
+        aLo += prefix;
+        bLo += prefix;
+
+        int suffix = 0;
+        while (aLo < aHi - suffix && bLo < bHi - suffix && mA[aHi - suffix - 1] == mB[bHi - suffix - 1])
+            suffix++;
+        aHi -= suffix;
+        bHi -= suffix;
+
+        // at least two differences remain if both sides are non-empty, so both halves shrink
+        if (aLo < aHi && bLo < bHi) {
+            int[] snake = middleSnake(aLo, aHi, bLo, bHi);
+            diff(aLo, snake[0], bLo, snake[1]);
+            addEqual(snake[0], snake[1], snake[2] - snake[0]);
+            diff(snake[2], aHi, snake[3], bHi);
+        }
+
+        addEqual(aHi, bHi, suffix);
+    }
+
+    /**
+     * Returns {x1, y1, x2, y2} of the middle snake in absolute coordinates
+     */
+    private int[] middleSnake(int aLo, int aHi, int bLo, int bHi) {
+        final int n = aHi - aLo, m = bHi - bLo;
+        final int delta = n - m;
+        final boolean odd = (delta & 1) != 0;
+        final int maxD = (n + m + 1) / 2;
+
+        mForward[mOffset + 1] = 0;
+        mReverse[mOffset + 1] = 0;
+
+        for (int d = 0; d <= maxD; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && mForward[mOffset + k - 1] < mForward[mOffset + k + 1]))
+                        ? mForward[mOffset + k + 1] : mForward[mOffset + k - 1] + 1;
+                int y = x - k;
+                int startX = x, startY = y;
+
+                while (x < n && y < m && mA[aLo + x] == mB[bLo + y]) {
+                    x++;
+                    y++;
+                }
+                mForward[mOffset + k] = x;
+
+                int c = delta - k;
+                if (odd && c >= -(d - 1) && c <= d - 1 && x + mReverse[mOffset + c] >= n)
+                    return new int[] { aLo + startX, bLo + startY, aLo + x, bLo + y };
+            }
+
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && mReverse[mOffset + k - 1] < mReverse[mOffset + k + 1]))
+                        ? mReverse[mOffset + k + 1] : mReverse[mOffset + k - 1] + 1;
+                int y = x - k;
+                int startX = x, startY = y;
+
+                while (x < n && y < m && mA[aHi - x - 1] == mB[bHi - y - 1]) {
+                    x++;
+                    y++;
+                }
+                mReverse[mOffset + k] = x;
+
+                int c = delta - k;
+                if (!odd && c >= -d && c <= d && x + mForward[mOffset + c] >= n)
+                    return new int[] { aHi - x, bHi - y, aHi - startX, bHi - startY };
+            }
+        }
+
+        throw new IllegalStateException("No middle snake found");
+    }
+
+    private void addEqual(int aStart, int bStart, int length) {
+        if (length <= 0)
+            return;
+
+        // merge with a directly preceding equal run
+        if (!mEqual.isEmpty()) {
+            int[] last = mEqual.get(mEqual.size() - 1);
+            if (last[0] + last[2] == aStart && last[1] + last[2] == bStart) {
+                last[2] += length;
+                return;
+            }
+        }
+
+        mEqual.add(new int[] { aStart, bStart, length });
+    }
+
+    private List<Run> toRuns() {
+        List<Run> result = new ArrayList<>();
+        int a = 0, b = 0;
+
+        for (int[] equal : mEqual) {
+            addGap(result, a, equal[0], b, equal[1]);
+            result.add(new Run(Type.EQUAL, equal[0], equal[2], equal[1], equal[2]));
+            a = equal[0] + equal[2];
+            b = equal[1] + equal[2];
+        }
+
+        addGap(result, a, mA.length, b, mB.length);
+        return result;
+    }
+
+    private static void addGap(List<Run> out, int aStart, int aEnd, int bStart, int bEnd) {
+        int changed = Math.min(aEnd - aStart, bEnd - bStart);
+
+        if (changed > 0)
+            out.add(new Run(Type.CHANGE, aStart, changed, bStart, changed));
+        if (aEnd - aStart > changed)
+            out.add(new Run(Type.DELETE, aStart + changed, aEnd - aStart - changed, bStart + changed, 0));
+        if (bEnd - bStart > changed)
+            out.add(new Run(Type.INSERT, aStart + changed, 0, bStart + changed, bEnd - bStart - changed));
+    }
+}
@@ -0,0 +1,158 @@
+package de.tu_darmstadt.seemoo.nfcgate.db;
+
+import static org.junit.Assert.*;
+
+import androidx.room.Room;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import de.tu_darmstadt.seemoo.nfcgate.util.BytePattern;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * Checks the n-gram postings and the search on an in-memory database: candidate filtering
+ * by grams, verification of order and wildcards, and the scan fallback for short patterns.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class NgramIndexTest {
+    private AppDatabase mDatabase;
+    private long mSessionId;
+
+    @Before
+    public void setUp() {
+        mDatabase = Room.inMemoryDatabaseBuilder(RuntimeEnvironment.getApplication(), AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        mSessionId = mDatabase.sessionLogDao().insert(new SessionLog(new Date(), SessionLog.SessionType.CAPTURE));
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    private static NfcComm comm(int... bytes) {
+        byte[] data = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++)
+            data[i] = (byte) bytes[i];
+        return new NfcComm(false, false, data);
+    }
+
+    /**
+     * Inserts the entries with their postings like the log writer, returns their ids
+     */
+    private List<Integer> insert(NfcComm... comms) {
+        List<NfcCommEntry> entries = new ArrayList<>();
+        for (NfcComm comm : comms)
+            entries.add(new NfcCommEntry(comm, mSessionId));
+
+        List<Integer> result = new ArrayList<>();
+        List<NfcCommGram> grams = new ArrayList<>();
+        List<Long> ids = mDatabase.nfcCommEntryDao().insertAll(entries);
+        for (int i = 0; i < ids.size(); i++) {
+            result.add(ids.get(i).intValue());
+            NgramIndex.addPostings(comms[i], ids.get(i).intValue(), grams);
+        }
+        mDatabase.nfcCommGramDao().insertAll(grams);
+        return result;
+    }
+
+    private List<Integer> search(String pattern, int limit) {
+        List<Integer> result = new ArrayList<>();
+        for (NgramIndex.Hit hit : NgramIndex.search(mDatabase, BytePattern.parse(pattern), limit))
+            result.add(hit.entryId);
+        return result;
+    }
+
+    @Test
+    public void distinctPostings() {
+        List<NfcCommGram> grams = new ArrayList<>();
+        NgramIndex.addPostings(comm(0x01, 0x02, 0x03, 0x01, 0x02, 0x03), 7, grams);
+
+        // 010203 occurs twice but is posted once
+        assertEquals(3, grams.size());
+        for (NfcCommGram gram : grams)
+            assertEquals(7, gram.getEntryId());
+        assertEquals(0x010203, grams.get(0).getGram());
+        assertEquals(0x020301, grams.get(1).getGram());
+        assertEquals(0x030102, grams.get(2).getGram());
+
+        // payloads shorter than a gram have no postings
+        grams.clear();
+        NgramIndex.addPostings(comm(0x90, 0x00), 8, grams);
+        assertTrue(grams.isEmpty());
+    }
+
+    @Test
+    public void verifiesCandidates() {
+        List<Integer> ids = insert(
+                comm(0x00, 0xA4, 0x04, 0x00, 0x07),
+                // contains both grams of the pattern but not in order
+                comm(0xA4, 0x04, 0x00, 0x07, 0x00, 0xA4, 0x04),
+                comm(0x00, 0xB2, 0x01, 0x0C));
+
+        // newest first
+        assertEquals(List.of(ids.get(1), ids.get(0)), search("00 A4 04", 10));
+        assertEquals(List.of(ids.get(0)), search("00 A4 04 00", 10));
+        assertEquals(List.of(), search("A4 04 00 08", 10));
+        // unknown gram
+        assertEquals(List.of(), search("11 22 33", 10));
+    }
+
+    @Test
+    public void wildcards() {
+        List<Integer> ids = insert(
+                comm(0x00, 0xB2, 0x01, 0x0C, 0x00),
+                comm(0x00, 0xB2, 0x02, 0x14, 0x00),
+                comm(0x00, 0xB0, 0x01, 0x0C, 0x00),
+                comm(0x00, 0xB2, 0x01, 0x0C, 0x01));
+
+        // gram 00 B2 01 selects candidates, the wildcard and the last byte are verified per candidate
+        assertEquals(List.of(ids.get(0)), search("00 B2 01 ?? 00", 10));
+        // no three concrete bytes in a row, falls back to scanning
+        assertEquals(List.of(ids.get(1), ids.get(0)), search("00 B2 ?? ?? 00", 10));
+        assertEquals(List.of(ids.get(2), ids.get(0)), search("00 ?? 01 ?? 00", 10));
+    }
+
+    @Test
+    public void shortPatterns() {
+        List<Integer> ids = insert(
+                comm(0x90, 0x00),
+                comm(0x6A, 0x82),
+                comm(0x01, 0x90, 0x00));
+
+        // shorter than a gram, found by scanning
+        assertEquals(List.of(ids.get(2), ids.get(0)), search("90 00", 10));
+        assertEquals(List.of(ids.get(1)), search("6A", 10));
+        assertEquals(List.of(ids.get(2)), search("01 ??", 10));
+    }
+
+    @Test
+    public void limitAndPaging() {
+        // more matches than one candidate page
+        NfcComm[] comms = new NfcComm[600];
+        for (int i = 0; i < comms.length; i++)
+            comms[i] = i % 2 == 0 ? comm(0x00, 0xA4, 0x04, 0x00, i & 0xFF) : comm(0x00, 0xA4, 0x05, 0x00);
+        List<Integer> ids = insert(comms);
+
+        List<Integer> hits = search("A4 04 00", 1000);
+        assertEquals(300, hits.size());
+        assertEquals(ids.get(598), hits.get(0));
+        assertEquals(ids.get(0), hits.get(299));
+
+        assertEquals(5, search("A4 04 00", 5).size());
+        assertEquals(5, search("A4", 5).size());
+        assertEquals(600, search("A4", 1000).size());
+    }
+}
@@ -0,0 +1,113 @@
+package de.tu_darmstadt.seemoo.nfcgate.db;
+
+import static org.junit.Assert.*;
+import static de.tu_darmstadt.seemoo.nfcgate.db.TagInfoTest.cardA;
+
+import androidx.paging.DataSource;
+import androidx.room.Room;
+import androidx.room.paging.LimitOffsetDataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the rescan dedup and the UID prefix search of the clone library against Room.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class TagInfoDaoTest {
+    private static final byte[] HIST = { (byte) 0x80, 0x31 };
+
+    private AppDatabase mDatabase;
+    private TagInfoDao mDao;
+
+    @Before
+    public void setUp() {
+        mDatabase = Room.inMemoryDatabaseBuilder(RuntimeEnvironment.getApplication(), AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        mDao = mDatabase.tagInfoDao();
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    private static TagInfo card(String name, byte[] uid) {
+        return new TagInfo(name, cardA(uid, 0x20, HIST));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> names(DataSource.Factory<Integer, TagInfo> factory) {
+        List<String> result = new ArrayList<>();
+        for (TagInfo tagInfo : ((LimitOffsetDataSource<TagInfo>) factory.create()).loadRange(0, 100))
+            result.add(tagInfo.getName());
+        return result;
+    }
+
+    @Test
+    public void rescanUpdatesSavedTag() {
+        byte[] uid = { 0x04, 0x11, 0x22, 0x33 };
+        long id = mDao.insertOrUpdate(card("first", uid));
+
+        TagInfo rescan = card("second", uid);
+        assertEquals(id, mDao.insertOrUpdate(rescan));
+        assertEquals(id, rescan.getId());
+
+        assertEquals(List.of("second"), names(mDao.getAllPaged()));
+    }
+
+    @Test
+    public void differentCardIsInserted() {
+        byte[] uid = { 0x04, 0x11, 0x22, 0x33 };
+        long id = mDao.insertOrUpdate(card("saved", uid));
+
+        // same UID with another SAK, other historical bytes or none, and another UID
+        assertNotEquals(id, mDao.insertOrUpdate(new TagInfo("sak", cardA(uid, 0x08, HIST))));
+        assertNotEquals(id, mDao.insertOrUpdate(new TagInfo("hist", cardA(uid, 0x20, new byte[] { (byte) 0x80, 0x32 }))));
+        assertNotEquals(id, mDao.insertOrUpdate(new TagInfo("nohist", cardA(uid, 0x20, null))));
+        assertNotEquals(id, mDao.insertOrUpdate(card("uid", new byte[] { 0x04, 0x11, 0x22, 0x34 })));
+
+        assertEquals(5, names(mDao.getAllPaged()).size());
+        assertEquals("saved", mDao.findSameTag(card("rescan", uid)).getName());
+    }
+
+    @Test
+    public void tagsWithoutUidAreKept() {
+        // no parsable config, nothing identifies the card
+        long id = mDao.insertOrUpdate(new TagInfo("first", null));
+        assertNull(mDao.findSameTag(new TagInfo("second", null)));
+        assertNotEquals(id, mDao.insertOrUpdate(new TagInfo("second", null)));
+
+        assertEquals(List.of("first", "second"), names(mDao.getAllPaged()));
+    }
+
+    @Test
+    public void searchesUidPrefix() {
+        mDao.insert(card("d", new byte[] { 0x04, 0x11, 0x22 }));
+        mDao.insert(card("c", new byte[] { 0x04, 0x12 }));
+        mDao.insert(card("b", new byte[] { 0x04, (byte) 0xFF, 0x01 }));
+        mDao.insert(card("a", new byte[] { 0x05, 0x00 }));
+        mDao.insert(card("e", new byte[] { (byte) 0xFF, (byte) 0xFF, 0x01 }));
+        mDao.insert(new TagInfo("none", null));
+
+        // BLOBs compare unsigned, the results are ordered by name
+        assertEquals(List.of("b", "c", "d"), names(mDao.searchByUidPrefix(new byte[] { 0x04 })));
+        assertEquals(List.of("d"), names(mDao.searchByUidPrefix(new byte[] { 0x04, 0x11 })));
+        assertEquals(List.of("b"), names(mDao.searchByUidPrefix(new byte[] { 0x04, (byte) 0xFF })));
+        assertEquals(List.of(), names(mDao.searchByUidPrefix(new byte[] { 0x04, 0x11, 0x22, 0x33 })));
+
+        // no successor, the range is open ended
+        assertEquals(List.of("e"), names(mDao.searchByUidPrefix(new byte[] { (byte) 0xFF, (byte) 0xFF })));
+        assertEquals(List.of("a", "b", "c", "d", "e"), names(mDao.searchByUidPrefix(new byte[0])));
+    }
+}
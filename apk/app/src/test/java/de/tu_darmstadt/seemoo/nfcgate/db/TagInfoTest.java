@@ -0,0 +1,70 @@
+package de.tu_darmstadt.seemoo.nfcgate.db;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import de.tu_darmstadt.seemoo.nfcgate.nfc.config.ConfigBuilder;
+import de.tu_darmstadt.seemoo.nfcgate.nfc.config.OptionType;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * Checks the indexed tag columns and the UID prefix ranges used by the clone library.
+ */
+public class TagInfoTest {
+    static byte[] cardA(byte[] uid, int sak, byte[] hist) {
+        ConfigBuilder builder = new ConfigBuilder();
+        builder.add(OptionType.LA_NFCID1, uid);
+        builder.add(OptionType.LA_SEL_INFO, (byte) sak);
+        builder.add(OptionType.LA_BIT_FRAME_SDD, (byte) 0x44);
+        builder.add(OptionType.LA_PLATFORM_CONFIG, (byte) 0x00);
+        if (hist != null)
+            builder.add(OptionType.LA_HIST_BY, hist);
+        return new NfcComm(true, true, builder.build()).toByteArray();
+    }
+
+    @Test
+    public void indexesTypeA() {
+        byte[] uid = { 0x04, 0x11, 0x22, 0x33, 0x44, 0x55, 0x66 };
+        TagInfo tagInfo = new TagInfo("card", cardA(uid, 0x20, new byte[] { (byte) 0x80, 0x31 }));
+
+        assertArrayEquals(uid, tagInfo.getUid());
+        assertEquals(TagInfo.TECH_A, tagInfo.getTechnology());
+        assertEquals(0x20, tagInfo.getSak());
+        assertEquals(0x4400, tagInfo.getAtqa());
+        assertTrue(tagInfo.getHistHash() != 0);
+    }
+
+    @Test
+    public void indexesTypeF() {
+        ConfigBuilder builder = new ConfigBuilder();
+        builder.add(OptionType.LF_T3T_IDENTIFIERS_1, new byte[] { (byte) 0x88, (byte) 0xB4, 1, 2, 3, 4, 5, 6, 7, 8 });
+        builder.add(OptionType.LF_T3T_PMM, new byte[8]);
+        TagInfo tagInfo = new TagInfo("felica", new NfcComm(true, true, builder.build()).toByteArray());
+
+        assertArrayEquals(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }, tagInfo.getUid());
+        assertEquals(TagInfo.TECH_F, tagInfo.getTechnology());
+        assertEquals(-1, tagInfo.getSak());
+        assertEquals(-1, tagInfo.getAtqa());
+        assertEquals(0, tagInfo.getHistHash());
+    }
+
+    @Test
+    public void toleratesInvalidData() {
+        TagInfo tagInfo = new TagInfo("empty", null);
+        assertNull(tagInfo.getUid());
+        assertEquals(0, tagInfo.getTechnology());
+
+        // truncated UID option
+        tagInfo = new TagInfo("truncated", new NfcComm(true, true, new byte[] { 0x33, 0x07, 0x04, 0x11 }).toByteArray());
+        assertNull(tagInfo.getUid());
+    }
+
+    @Test
+    public void uidPrefixRange() {
+        assertArrayEquals(new byte[] { 0x04, 0x12 }, TagInfoDao.successor(new byte[] { 0x04, 0x11 }));
+        assertArrayEquals(new byte[] { 0x05 }, TagInfoDao.successor(new byte[] { 0x04, (byte) 0xFF }));
+        assertArrayEquals(new byte[] { 0x04, (byte) 0x80 }, TagInfoDao.successor(new byte[] { 0x04, 0x7F }));
+        assertNull(TagInfoDao.successor(new byte[] { (byte) 0xFF, (byte) 0xFF }));
+    }
+}
@@ -0,0 +1,207 @@
+package de.tu_darmstadt.seemoo.nfcgate.db.worker;
+
+import static org.junit.Assert.*;
+
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import de.tu_darmstadt.seemoo.nfcgate.db.AppDatabase;
+import de.tu_darmstadt.seemoo.nfcgate.db.SessionLog;
+import de.tu_darmstadt.seemoo.nfcgate.util.ApduWorkload;
+import de.tu_darmstadt.seemoo.nfcgate.util.LatencyHistogram;
+import de.tu_darmstadt.seemoo.nfcgate.util.Metrics;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * Drives the logging pipeline (LogInserter, LogWriter, Room) with ApduWorkload traffic
+ * and reports sustained inserts/s, dropped entries, p99 enqueue-to-commit latency and
+ * database size per 10k entries.
+ * Skipped unless enabled, shapes, rates and limits are read from system properties, e.g.
+ * {@code ./gradlew :app:testDebugUnitTest --tests '*LogInserterThroughputBenchmark' -Plogbench.enabled=true -Plogbench.rate=5000}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class LogInserterThroughputBenchmark {
+    // entries per shape
+    private static final int ENTRIES = Integer.getInteger("logbench.entries", 10_000);
+    // average offered rate of the paced shapes, entries/s
+    private static final int RATE = Integer.getInteger("logbench.rate", 5_000);
+    // entries sent back to back per burst
+    private static final int BURST = Integer.getInteger("logbench.burst", 256);
+    private static final int QUEUE_CAPACITY = Integer.getInteger("logbench.queue", 512);
+    // 0 disables the inserter rate limit
+    private static final int RATE_LIMIT = Integer.getInteger("logbench.limit", 0);
+    // time compression of the recorded gaps in the trace shape
+    private static final int SPEEDUP = Integer.getInteger("logbench.speedup", 100);
+    private static final String SHAPES = System.getProperty("logbench.shapes", "steady,burst,flood,trace");
+    private static final long DRAIN_TIMEOUT_MS = 60_000;
+
+    private File mFile;
+    private AppDatabase mDatabase;
+
+    /**
+     * How entries are offered to the inserter
+     */
+    private enum Shape {
+        // evenly spaced at RATE
+        STEADY,
+        // BURST entries at once, averaging RATE
+        BURST,
+        // as fast as the caller can go
+        FLOOD,
+        // at the workload timestamps, divided by SPEEDUP
+        TRACE
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        // takes minutes and only prints numbers, keep it out of the regular unit test run
+        Assume.assumeTrue(Boolean.getBoolean("logbench.enabled"));
+
+        mFile = File.createTempFile("logbench", ".db");
+        assertTrue(mFile.delete());
+    }
+
+    @After
+    public void tearDown() {
+        if (mDatabase != null)
+            mDatabase.close();
+
+        if (mFile == null)
+            return;
+        for (String suffix : new String[] { "", "-journal", "-wal", "-shm" })
+            new File(mFile.getPath() + suffix).delete();
+    }
+
+    private AppDatabase openDatabase() {
+        // file backed so the on-disk size can be measured, the test thread reads counts directly
+        return Room.databaseBuilder(RuntimeEnvironment.getApplication(), AppDatabase.class, mFile.getPath())
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    private static long queryLong(SupportSQLiteDatabase db, String query) {
+        try (Cursor cursor = db.query(query)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    private long databaseSize() {
+        // fold the WAL into the main file first, if the database uses one
+        SupportSQLiteDatabase db = mDatabase.getOpenHelper().getWritableDatabase();
+        queryLong(db, "PRAGMA wal_checkpoint(TRUNCATE)");
+        return mFile.length() + new File(mFile.getPath() + "-wal").length();
+    }
+
+    private void offer(LogInserter inserter, List<NfcComm> stream, Shape shape) {
+        final long intervalNs = TimeUnit.SECONDS.toNanos(1) / Math.max(1, RATE);
+        final long firstTimestamp = stream.get(0).getTimestamp();
+        final long start = System.nanoTime();
+
+        for (int i = 0; i < stream.size(); i++) {
+            // scheduled time of this entry, relative to start
+            long due = -1;
+            if (shape == Shape.STEADY || (shape == Shape.BURST && i % BURST == 0))
+                due = i * intervalNs;
+            else if (shape == Shape.TRACE)
+                due = TimeUnit.MILLISECONDS.toNanos(stream.get(i).getTimestamp() - firstTimestamp) / Math.max(1, SPEEDUP);
+
+            long delay = start + due - System.nanoTime();
+            if (due >= 0 && delay > 0)
+                LockSupport.parkNanos(delay);
+            inserter.log(stream.get(i));
+        }
+    }
+
+    private void run(Shape shape) throws Exception {
+        mDatabase = openDatabase();
+        List<NfcComm> stream = new ApduWorkload(shape.ordinal()).generate(ENTRIES);
+
+        long droppedBefore = Metrics.DROPPED_LOG_ENTRIES.get();
+        long writtenBefore = Metrics.LOG_ENTRIES.get();
+        Metrics.LOG_COMMIT.reset();
+
+        LogInserter inserter = new LogInserter(mDatabase, SessionLog.SessionType.RELAY, null, QUEUE_CAPACITY, RATE_LIMIT);
+        long start = System.nanoTime();
+        offer(inserter, stream, shape);
+
+        // every offered entry is either dropped or eventually committed
+        long dropped;
+        long written;
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+        do {
+            Thread.sleep(1);
+            dropped = Metrics.DROPPED_LOG_ENTRIES.get() - droppedBefore;
+            written = Metrics.LOG_ENTRIES.get() - writtenBefore;
+        } while (dropped + written < ENTRIES && System.currentTimeMillis() < deadline);
+        long elapsedNs = System.nanoTime() - start;
+
+        // the throttled session summary catches up once the inserter is idle
+        SupportSQLiteDatabase db = mDatabase.getOpenHelper().getReadableDatabase();
+        while (queryLong(db, "SELECT entryCount FROM SessionSummary") < written && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        inserter.close();
+
+        assertEquals("entries lost in the pipeline", ENTRIES, dropped + written);
+        assertEquals(written, queryLong(db, "SELECT COUNT(*) FROM NfcCommEntry"));
+        assertEquals(written, queryLong(db, "SELECT entryCount FROM SessionSummary"));
+
+        long size = databaseSize();
+        System.out.println(String.format(Locale.ROOT,
+                "LogInserter %-6s offered=%d written=%d dropped=%d inserts/s=%.0f p50=%s p99=%s max=%s db/10k=%.1f KiB",
+                shape.name().toLowerCase(Locale.ROOT), ENTRIES, written, dropped,
+                written * 1e9 / elapsedNs,
+                LatencyHistogram.formatNanos(Metrics.LOG_COMMIT.getPercentileNs(50)),
+                LatencyHistogram.formatNanos(Metrics.LOG_COMMIT.getPercentileNs(99)),
+                LatencyHistogram.formatNanos(Metrics.LOG_COMMIT.getMaxNs()),
+                written == 0 ? 0 : size * 10_000.0 / written / 1024));
+    }
+
+    private static boolean enabled(Shape shape) {
+        for (String name : SHAPES.split(","))
+            if (name.trim().equalsIgnoreCase(shape.name()))
+                return true;
+        return false;
+    }
+
+    @Test
+    public void steady() throws Exception {
+        if (enabled(Shape.STEADY))
+            run(Shape.STEADY);
+    }
+
+    @Test
+    public void burst() throws Exception {
+        if (enabled(Shape.BURST))
+            run(Shape.BURST);
+    }
+
+    @Test
+    public void flood() throws Exception {
+        if (enabled(Shape.FLOOD))
+            run(Shape.FLOOD);
+    }
+
+    @Test
+    public void trace() throws Exception {
+        if (enabled(Shape.TRACE))
+            run(Shape.TRACE);
+    }
+}
@@ -0,0 +1,93 @@
+package de.tu_darmstadt.seemoo.nfcgate.db.worker;
+
+import static org.junit.Assert.*;
+
+import android.database.Cursor;
+
+import androidx.room.Room;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import de.tu_darmstadt.seemoo.nfcgate.db.AppDatabase;
+import de.tu_darmstadt.seemoo.nfcgate.db.SessionLog;
+import de.tu_darmstadt.seemoo.nfcgate.util.ApduWorkload;
+
+/**
+ * Checks that an aborted session leaves no session, entries or summary behind
+ * and that a failing feed listener does not break the writer.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class LogWriterTest {
+    private AppDatabase mDatabase;
+
+    @Before
+    public void setUp() {
+        mDatabase = Room.inMemoryDatabaseBuilder(RuntimeEnvironment.getApplication(), AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    private long count(String table) {
+        try (Cursor cursor = mDatabase.getOpenHelper().getReadableDatabase().query("SELECT COUNT(*) FROM " + table)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    private static void write(LogWriter writer, int entries) {
+        new ApduWorkload(1).generate(entries).forEach(writer::add);
+        writer.flush();
+    }
+
+    @Test
+    public void abortDeletesPartialSession() {
+        LogWriter kept = new LogWriter(mDatabase, SessionLog.SessionType.RELAY);
+        kept.beginSession();
+        write(kept, 100);
+        kept.endSession();
+
+        // one committed batch and one still queued when the import fails
+        LogWriter aborted = new LogWriter(mDatabase, SessionLog.SessionType.RELAY);
+        aborted.beginSession();
+        write(aborted, 200);
+        new ApduWorkload(2).generate(10).forEach(aborted::add);
+        aborted.abortSession();
+
+        assertFalse(aborted.hasSession());
+        assertEquals(0, aborted.pending());
+        assertFalse(aborted.hasPendingSummary());
+        assertEquals(1, count("SessionLog"));
+        assertEquals(1, count("SessionSummary"));
+        assertEquals(100, count("NfcCommEntry"));
+    }
+
+    @Test
+    public void failingListenerKeepsBatch() {
+        LogFeed.Listener listener = (sessionId, entries) -> {
+            throw new IllegalStateException("listener torn down");
+        };
+        LogFeed.register(listener);
+        try {
+            LogWriter writer = new LogWriter(mDatabase, SessionLog.SessionType.RELAY);
+            writer.beginSession();
+            write(writer, 100);
+            writer.endSession();
+        } finally {
+            LogFeed.unregister(listener);
+        }
+
+        assertEquals(1, count("SessionLog"));
+        assertEquals(100, count("NfcCommEntry"));
+    }
+}
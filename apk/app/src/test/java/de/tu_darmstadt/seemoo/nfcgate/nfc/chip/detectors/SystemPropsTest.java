@@ -0,0 +1,60 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc.chip.detectors;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+/**
+ * Checks parsing of getprop output.
+ */
+public class SystemPropsTest {
+    private static Map<String, String> parse(String output) throws IOException {
+        return SystemProps.parse(new BufferedReader(new StringReader(output)));
+    }
+
+    @Test
+    public void namesAndValues() throws IOException {
+        Map<String, String> props = parse(
+                "[ro.build.product]: [OP5913L1]\n" +
+                "[ro.boot.product.hardware.sku]: []\n" +
+                "[persist.vendor.nfc.config_file_name]: [libnfc-nxp-pn557.conf]\n");
+
+        assertEquals(3, props.size());
+        assertEquals("OP5913L1", props.get("ro.build.product"));
+        assertEquals("", props.get("ro.boot.product.hardware.sku"));
+        assertEquals("libnfc-nxp-pn557.conf", props.get("persist.vendor.nfc.config_file_name"));
+    }
+
+    @Test
+    public void bracketsAndWhitespace() throws IOException {
+        Map<String, String> props = parse(
+                "  [ro.separate.soft]: [ 21881 ]  \r\n" +
+                "[ro.vendor.list]: [[a], [b]]\n" +
+                "[ro.weird]: [x]: [y]\n");
+
+        assertEquals("21881", props.get("ro.separate.soft"));
+        assertEquals("[a], [b]", props.get("ro.vendor.list"));
+        // the name ends at the first "]: ["
+        assertEquals("x]: [y", props.get("ro.weird"));
+    }
+
+    @Test
+    public void skipsOtherLines() throws IOException {
+        Map<String, String> props = parse(
+                "\n" +
+                "getprop: permission denied\n" +
+                "[]: [empty name]\n" +
+                "[ro.multi]: [first\n" +
+                "second]\n" +
+                "[ro.ok]: [1]\n");
+
+        assertEquals(1, props.size());
+        assertEquals("1", props.get("ro.ok"));
+        assertTrue(parse("").isEmpty());
+    }
+}
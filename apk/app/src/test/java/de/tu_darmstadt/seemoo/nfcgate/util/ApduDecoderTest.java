@@ -0,0 +1,129 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Checks command decoding for all ISO 7816-4 cases, short and extended, and malformed bodies.
+ */
+public class ApduDecoderTest {
+    private final ApduDecoder mDecoder = new ApduDecoder();
+
+    private void command(int... bytes) {
+        byte[] data = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++)
+            data[i] = (byte) bytes[i];
+
+        assertTrue(mDecoder.decode(new NfcComm(false, false, data)));
+    }
+
+    private static int[] withBody(int[] header, int bodyLength, int... trailer) {
+        int[] result = new int[header.length + bodyLength + trailer.length];
+        System.arraycopy(header, 0, result, 0, header.length);
+        System.arraycopy(trailer, 0, result, header.length + bodyLength, trailer.length);
+        return result;
+    }
+
+    private void assertFields(int lc, int le) {
+        assertEquals(0x00, mDecoder.getCla());
+        assertEquals(0xA4, mDecoder.getIns());
+        assertEquals(0x04, mDecoder.getP1());
+        assertEquals(0x0C, mDecoder.getP2());
+        assertEquals("Lc", lc, mDecoder.getLc());
+        assertEquals("Le", le, mDecoder.getLe());
+        assertEquals(ApduDecoder.NONE, mDecoder.getSw());
+    }
+
+    @Test
+    public void shortCases() {
+        // case 1
+        command(0x00, 0xA4, 0x04, 0x0C);
+        assertFields(ApduDecoder.NONE, ApduDecoder.NONE);
+
+        // case 2S, Le 00 means 256
+        command(0x00, 0xA4, 0x04, 0x0C, 0x10);
+        assertFields(ApduDecoder.NONE, 0x10);
+        command(0x00, 0xA4, 0x04, 0x0C, 0x00);
+        assertFields(ApduDecoder.NONE, 256);
+
+        // case 3S
+        command(withBody(new int[] { 0x00, 0xA4, 0x04, 0x0C, 0x07 }, 7));
+        assertFields(7, ApduDecoder.NONE);
+
+        // case 4S
+        command(withBody(new int[] { 0x00, 0xA4, 0x04, 0x0C, 0x07 }, 7, 0x00));
+        assertFields(7, 256);
+        command(withBody(new int[] { 0x00, 0xA4, 0x04, 0x0C, 0xFF }, 255, 0x20));
+        assertFields(255, 0x20);
+    }
+
+    @Test
+    public void extendedCases() {
+        // case 2E, Le 0000 means 65536
+        command(0x00, 0xA4, 0x04, 0x0C, 0x00, 0x01, 0x00);
+        assertFields(ApduDecoder.NONE, 256);
+        command(0x00, 0xA4, 0x04, 0x0C, 0x00, 0x00, 0x00);
+        assertFields(ApduDecoder.NONE, 65536);
+
+        // case 3E
+        command(withBody(new int[] { 0x00, 0xA4, 0x04, 0x0C, 0x00, 0x01, 0x2C }, 300));
+        assertFields(300, ApduDecoder.NONE);
+
+        // case 4E
+        command(withBody(new int[] { 0x00, 0xA4, 0x04, 0x0C, 0x00, 0x01, 0x2C }, 300, 0x04, 0x00));
+        assertFields(300, 1024);
+        command(withBody(new int[] { 0x00, 0xA4, 0x04, 0x0C, 0x00, 0x00, 0x01 }, 1, 0x00, 0x00));
+        assertFields(1, 65536);
+    }
+
+    @Test
+    public void malformedBodies() {
+        // short Lc longer and shorter than the body
+        command(withBody(new int[] { 0x00, 0xA4, 0x04, 0x0C, 0x07 }, 6));
+        assertFields(ApduDecoder.NONE, ApduDecoder.NONE);
+        command(withBody(new int[] { 0x00, 0xA4, 0x04, 0x0C, 0x07 }, 9));
+        assertFields(ApduDecoder.NONE, ApduDecoder.NONE);
+
+        // extended marker with a truncated length
+        command(0x00, 0xA4, 0x04, 0x0C, 0x00, 0x01);
+        assertFields(ApduDecoder.NONE, ApduDecoder.NONE);
+
+        // extended Lc of zero and mismatching extended Lc
+        command(withBody(new int[] { 0x00, 0xA4, 0x04, 0x0C, 0x00, 0x00, 0x00 }, 3));
+        assertFields(ApduDecoder.NONE, ApduDecoder.NONE);
+        command(withBody(new int[] { 0x00, 0xA4, 0x04, 0x0C, 0x00, 0x01, 0x2C }, 299));
+        assertFields(ApduDecoder.NONE, ApduDecoder.NONE);
+    }
+
+    @Test
+    public void tooShort() {
+        assertFalse(mDecoder.decode(new NfcComm(false, false, new byte[] { 0x00, (byte) 0xA4, 0x04 })));
+        assertEquals(ApduDecoder.NONE, mDecoder.getCla());
+        assertEquals(ApduDecoder.NONE, mDecoder.getIns());
+
+        assertFalse(mDecoder.decode(new NfcComm(true, false, new byte[] { (byte) 0x90 })));
+        assertEquals(ApduDecoder.NONE, mDecoder.getSw());
+    }
+
+    @Test
+    public void responses() {
+        assertTrue(mDecoder.decode(new NfcComm(true, false, new byte[] { 0x01, 0x02, (byte) 0x90, 0x00 })));
+        assertEquals(0x9000, mDecoder.getSw());
+        assertEquals(ApduDecoder.NONE, mDecoder.getIns());
+
+        assertTrue(mDecoder.decode(new NfcComm(true, false, new byte[] { 0x6A, (byte) 0x82 })));
+        assertEquals(0x6A82, mDecoder.getSw());
+
+        // fields of the previous call are cleared
+        command(0x00, 0xA4, 0x04, 0x0C);
+        assertEquals(ApduDecoder.NONE, mDecoder.getSw());
+    }
+
+    @Test
+    public void initialDataIsNotDecoded() {
+        assertFalse(mDecoder.decode(new NfcComm(true, true, new byte[] { 0x00, (byte) 0xA4, 0x04, 0x0C, (byte) 0x90, 0x00 })));
+        assertEquals(ApduDecoder.NONE, mDecoder.getSw());
+        assertEquals(ApduDecoder.NONE, mDecoder.getIns());
+    }
+}
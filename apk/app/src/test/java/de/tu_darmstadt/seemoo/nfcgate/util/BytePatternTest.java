@@ -0,0 +1,61 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Checks pattern parsing, wildcard matching and formatting.
+ */
+public class BytePatternTest {
+    private static NfcComm comm(int... bytes) {
+        byte[] data = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++)
+            data[i] = (byte) bytes[i];
+        return new NfcComm(false, false, data);
+    }
+
+    @Test
+    public void parseSeparators() {
+        BytePattern pattern = BytePattern.parse(" 00:a4-04 0C\t??");
+        assertEquals(5, pattern.length());
+        assertEquals(0x00, pattern.byteAt(0));
+        assertEquals(0xA4, pattern.byteAt(1));
+        assertEquals(0x0C, pattern.byteAt(3));
+        assertFalse(pattern.isWildcard(3));
+        assertTrue(pattern.isWildcard(4));
+        assertEquals("00 A4 04 0C ??", pattern.toString());
+    }
+
+    @Test
+    public void parseErrors() {
+        for (String text : new String[] { "", "  ", "0", "00 A", "0G", "?0", "0?", "00 ?" }) {
+            try {
+                BytePattern.parse(text);
+                fail("accepted \"" + text + "\"");
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void indexIn() {
+        BytePattern pattern = BytePattern.parse("A4 ?? 00");
+
+        assertEquals(1, pattern.indexIn(comm(0x00, 0xA4, 0x04, 0x00)));
+        assertEquals(0, pattern.indexIn(comm(0xA4, 0xFF, 0x00)));
+        // first match wins
+        assertEquals(0, pattern.indexIn(comm(0xA4, 0x01, 0x00, 0xA4, 0x02, 0x00)));
+        // concrete bytes must match, data shorter than the pattern never matches
+        assertEquals(-1, pattern.indexIn(comm(0xA4, 0x04, 0x01)));
+        assertEquals(-1, pattern.indexIn(comm(0xA4, 0x04)));
+        assertEquals(-1, pattern.indexIn(comm()));
+    }
+
+    @Test
+    public void onlyWildcards() {
+        BytePattern pattern = BytePattern.parse("?? ??");
+        assertEquals(0, pattern.indexIn(comm(0x01, 0x02, 0x03)));
+        assertEquals(-1, pattern.indexIn(comm(0x01)));
+    }
+}
@@ -0,0 +1,147 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the linear-space alignment against a quadratic LCS table on random inputs
+ * and checks that the runs cover both sequences in order.
+ */
+public class SequenceAlignerTest {
+    /**
+     * Length of the longest common subsequence, O(nm) reference
+     */
+    private static int lcs(int[] a, int[] b) {
+        int[][] table = new int[a.length + 1][b.length + 1];
+        for (int i = 1; i <= a.length; i++)
+            for (int j = 1; j <= b.length; j++)
+                table[i][j] = a[i - 1] == b[j - 1] ? table[i - 1][j - 1] + 1 : Math.max(table[i - 1][j], table[i][j - 1]);
+
+        return table[a.length][b.length];
+    }
+
+    /**
+     * Validates the runs and returns the number of equal elements
+     */
+    private static int checkRuns(int[] a, int[] b, List<SequenceAligner.Run> runs) {
+        int aPos = 0, bPos = 0, equal = 0;
+
+        for (SequenceAligner.Run run : runs) {
+            // contiguous and in order on both sides
+            assertEquals(aPos, run.aStart);
+            assertEquals(bPos, run.bStart);
+
+            switch (run.type) {
+                case EQUAL:
+                    assertTrue(run.aLength > 0);
+                    assertEquals(run.aLength, run.bLength);
+                    for (int i = 0; i < run.aLength; i++)
+                        assertEquals(a[run.aStart + i], b[run.bStart + i]);
+                    equal += run.aLength;
+                    break;
+                case CHANGE:
+                    assertTrue(run.aLength > 0);
+                    assertEquals(run.aLength, run.bLength);
+                    break;
+                case DELETE:
+                    assertTrue(run.aLength > 0);
+                    assertEquals(0, run.bLength);
+                    break;
+                case INSERT:
+                    assertEquals(0, run.aLength);
+                    assertTrue(run.bLength > 0);
+                    break;
+            }
+
+            aPos += run.aLength;
+            bPos += run.bLength;
+        }
+
+        assertEquals(a.length, aPos);
+        assertEquals(b.length, bPos);
+        return equal;
+    }
+
+    private static void check(int[] a, int[] b) {
+        // minimal insert/delete edit distance a + b - 2 * LCS, so the equal runs must form an LCS
+        assertEquals(lcs(a, b), checkRuns(a, b, SequenceAligner.align(a, b)));
+    }
+
+    private static int[] random(Random random, int maxLength, int alphabet) {
+        int[] result = new int[random.nextInt(maxLength + 1)];
+        for (int i = 0; i < result.length; i++)
+            result[i] = random.nextInt(alphabet);
+        return result;
+    }
+
+    @Test
+    public void emptyAndIdentical() {
+        int[] empty = {}, some = { 1, 2, 3, 2, 1 };
+
+        assertTrue(SequenceAligner.align(empty, empty).isEmpty());
+        check(empty, some);
+        check(some, empty);
+
+        List<SequenceAligner.Run> runs = SequenceAligner.align(some, some.clone());
+        assertEquals(1, runs.size());
+        assertEquals(SequenceAligner.Type.EQUAL, runs.get(0).type);
+        assertEquals(some.length, runs.get(0).aLength);
+    }
+
+    @Test
+    public void disjoint() {
+        List<SequenceAligner.Run> runs = SequenceAligner.align(new int[] { 1, 2, 3 }, new int[] { 4, 5 });
+        assertEquals(2, runs.size());
+        assertEquals(SequenceAligner.Type.CHANGE, runs.get(0).type);
+        assertEquals(2, runs.get(0).aLength);
+        assertEquals(SequenceAligner.Type.DELETE, runs.get(1).type);
+        assertEquals(1, runs.get(1).aLength);
+    }
+
+    @Test
+    public void randomized() {
+        Random random = new Random(33);
+
+        for (int round = 0; round < 3_000; round++) {
+            // small alphabets produce many equal elements and long snakes
+            int alphabet = 1 + random.nextInt(round % 3 == 0 ? 3 : 20);
+            check(random(random, 40, alphabet), random(random, 40, alphabet));
+        }
+    }
+
+    @Test
+    public void randomizedEdits() {
+        Random random = new Random(34);
+
+        for (int round = 0; round < 1_000; round++) {
+            // second sequence derived from the first by a few edits, like two runs of one session
+            int[] a = random(random, 200, 50);
+            int[] b = a.clone();
+            for (int edits = random.nextInt(6); edits > 0 && b.length > 0; edits--) {
+                int pos = random.nextInt(b.length);
+                switch (random.nextInt(3)) {
+                    case 0: b[pos] = random.nextInt(50); break;
+                    case 1: {
+                        int[] shorter = new int[b.length - 1];
+                        System.arraycopy(b, 0, shorter, 0, pos);
+                        System.arraycopy(b, pos + 1, shorter, pos, b.length - pos - 1);
+                        b = shorter;
+                        break;
+                    }
+                    default: {
+                        int[] longer = new int[b.length + 1];
+                        System.arraycopy(b, 0, longer, 0, pos);
+                        longer[pos] = random.nextInt(50);
+                        System.arraycopy(b, pos, longer, pos + 1, b.length - pos);
+                        b = longer;
+                    }
+                }
+            }
+            check(a, b);
+        }
+    }
+}
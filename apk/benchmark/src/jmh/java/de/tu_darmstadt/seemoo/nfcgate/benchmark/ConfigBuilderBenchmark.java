@@ -0,0 +1,89 @@
+package de.tu_darmstadt.seemoo.nfcgate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.tu_darmstadt.seemoo.nfcgate.nfc.config.ConfigBuilder;
+import de.tu_darmstadt.seemoo.nfcgate.nfc.config.ConfigView;
+import de.tu_darmstadt.seemoo.nfcgate.nfc.config.OptionType;
+import de.tu_darmstadt.seemoo.nfcgate.util.ApduWorkload;
+
+/**
+ * Parsing and building the initial card data of a typical type A card
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConfigBuilderBenchmark {
+    private byte[] mConfig;
+    private ConfigBuilder mBuilder;
+    private byte[] mBuffer;
+    private final List<Object[]> mLegacyOptions = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        mConfig = ApduWorkload.config(new Random(1));
+        mBuilder = new ConfigBuilder(mConfig);
+        mBuffer = new byte[mConfig.length];
+    }
+
+    /**
+     * Previous ConfigBuilder.parse: copies every option and looks its type up with a linear search
+     */
+    @Benchmark
+    public int legacyParse() {
+        mLegacyOptions.clear();
+        int index = 0;
+
+        while (index + 2 < mConfig.length) {
+            byte type = mConfig[index];
+            byte length = mConfig[index + 1];
+
+            byte[] data = new byte[length];
+            System.arraycopy(mConfig, index + 2, data, 0, length);
+
+            OptionType optionType = null;
+            for (OptionType candidate : OptionType.values())
+                if (candidate.getID() == type)
+                    optionType = candidate;
+
+            mLegacyOptions.add(new Object[] { optionType, data });
+            index += length + 2;
+        }
+
+        return mLegacyOptions.size();
+    }
+
+    @Benchmark
+    public ConfigBuilder parse() {
+        return new ConfigBuilder(mConfig);
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        ConfigView view = new ConfigView(mConfig);
+        while (view.next())
+            blackhole.consume(view.type() + view.length());
+    }
+
+    @Benchmark
+    public byte[] build() {
+        return mBuilder.build();
+    }
+
+    @Benchmark
+    public int buildInto() {
+        return mBuilder.build(mBuffer, 0);
+    }
+}
@@ -0,0 +1,66 @@
+package de.tu_darmstadt.seemoo.nfcgate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.tu_darmstadt.seemoo.nfcgate.util.DeviceIndex;
+import de.tu_darmstadt.seemoo.nfcgate.util.DeviceIndexWriter;
+
+/**
+ * Opening the device index and looking up a market name, on an index about the size
+ * of the certified device list
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DeviceIndexBenchmark {
+    private static final int DEVICES = 30_000;
+
+    private ByteBuffer mBuffer;
+    private DeviceIndex mIndex;
+    private String[] mNames;
+    private int mNext = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(1);
+        DeviceIndexWriter writer = new DeviceIndexWriter();
+        mNames = new String[DEVICES];
+        for (int i = 0; i < DEVICES; i++) {
+            String name = Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+            writer.add(name, "M-" + name + "-0", "Market " + name);
+            writer.add(name, "M-" + name + "-1", "Other " + name);
+            mNames[i] = name;
+        }
+
+        mBuffer = ByteBuffer.wrap(writer.toByteArray());
+        mIndex = new DeviceIndex(mBuffer);
+    }
+
+    @Benchmark
+    public DeviceIndex open() throws IOException {
+        return new DeviceIndex(mBuffer);
+    }
+
+    @Benchmark
+    public String lookup() {
+        String name = mNames[mNext++ % mNames.length];
+        return mIndex.findMarketName(name, "M-" + name + "-1");
+    }
+
+    @Benchmark
+    public String lookupMissing() {
+        String name = mNames[mNext++ % mNames.length];
+        return mIndex.findMarketName(name + "x", "M-" + name + "-1");
+    }
+}
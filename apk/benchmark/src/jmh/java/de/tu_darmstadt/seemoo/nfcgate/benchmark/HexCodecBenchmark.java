@@ -0,0 +1,86 @@
+package de.tu_darmstadt.seemoo.nfcgate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.tu_darmstadt.seemoo.nfcgate.util.HexCodec;
+
+/**
+ * Hex codec entry points against the previous char[] based formatting.
+ * The append and encode variants reuse their output buffer like the log views do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HexCodecBenchmark {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    @Param({"16", "256", "4096"})
+    public int size;
+
+    private byte[] mData;
+    private String mHex;
+    private final StringBuilder mBuilder = new StringBuilder();
+    private char[] mBuffer;
+
+    @Setup
+    public void setup() {
+        mData = new byte[size];
+        new Random(1).nextBytes(mData);
+        mHex = HexCodec.toHex(mData, ':');
+        mBuffer = new char[HexCodec.encodedLength(size, ':')];
+    }
+
+    /**
+     * Previous Utils.bytesToHex
+     */
+    @Benchmark
+    public String legacyHex() {
+        char[] hexChars = new char[mData.length * 3];
+
+        for (int j = 0; j < mData.length; j++) {
+            int v = mData[j] & 0xFF;
+            hexChars[j * 3] = HEX[v >>> 4];
+            hexChars[j * 3 + 1] = HEX[v & 0x0F];
+            hexChars[j * 3 + 2] = ':';
+        }
+
+        return new String(hexChars, 0, hexChars.length - 1);
+    }
+
+    @Benchmark
+    public String toHex() {
+        return HexCodec.toHex(mData, ':');
+    }
+
+    @Benchmark
+    public int append() {
+        mBuilder.setLength(0);
+        return HexCodec.append(mBuilder, mData, ':').length();
+    }
+
+    @Benchmark
+    public int encode() {
+        return HexCodec.encode(mData, 0, mData.length, ':', mBuffer, 0);
+    }
+
+    @Benchmark
+    public int appendDump() {
+        mBuilder.setLength(0);
+        return HexCodec.appendDump(mBuilder, mData).length();
+    }
+
+    @Benchmark
+    public byte[] parse() {
+        return HexCodec.parse(mHex);
+    }
+}
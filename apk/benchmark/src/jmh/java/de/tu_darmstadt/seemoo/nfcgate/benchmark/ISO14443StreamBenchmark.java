@@ -0,0 +1,52 @@
+package de.tu_darmstadt.seemoo.nfcgate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import de.tu_darmstadt.seemoo.nfcgate.db.pcapng.ISO14443Stream;
+import de.tu_darmstadt.seemoo.nfcgate.util.ApduWorkload;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * pcapng export and import of whole sessions
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ISO14443StreamBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int entries;
+
+    private List<NfcComm> mSession;
+    private byte[] mPcap;
+
+    @Setup
+    public void setup() throws IOException {
+        mSession = new ApduWorkload(1).generate(entries);
+        mPcap = write();
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ISO14443Stream().append(mSession).write(out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public List<NfcComm> read() throws IOException {
+        return new ISO14443Stream().readAll(new ByteArrayInputStream(mPcap));
+    }
+}
@@ -0,0 +1,53 @@
+package de.tu_darmstadt.seemoo.nfcgate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * NfcComm construction and protobuf serialization, as done for every relayed and logged message
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NfcCommBenchmark {
+    @Param({"16", "256", "4096"})
+    public int size;
+
+    private byte[] mData;
+    private NfcComm mComm;
+    private byte[] mSerialized;
+
+    @Setup
+    public void setup() {
+        mData = new byte[size];
+        new Random(1).nextBytes(mData);
+        mComm = new NfcComm(true, false, mData, 1_600_000_000_000L);
+        mSerialized = mComm.toByteArray();
+    }
+
+    @Benchmark
+    public NfcComm construct() {
+        return new NfcComm(true, false, mData, 1_600_000_000_000L);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return mComm.toByteArray();
+    }
+
+    @Benchmark
+    public NfcComm parse() {
+        return new NfcComm(mSerialized);
+    }
+}
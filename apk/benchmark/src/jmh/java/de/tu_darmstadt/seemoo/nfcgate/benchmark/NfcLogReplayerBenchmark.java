@@ -0,0 +1,82 @@
+package de.tu_darmstadt.seemoo.nfcgate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import de.tu_darmstadt.seemoo.nfcgate.nfc.NfcLogReplayer;
+import de.tu_darmstadt.seemoo.nfcgate.util.ApduWorkload;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * Replays whole logs on the reader and on the tag side. Requests either follow the log exactly
+ * or come from another tap sequence of the same card, which makes the strategy search the log.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NfcLogReplayerBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int entries;
+
+    // side replayed by us
+    @Param({"true", "false"})
+    public boolean reader;
+
+    @Param({"index", "pattern"})
+    public String mode;
+
+    private List<NfcComm> mLog;
+    private List<NfcComm> mOtherLog;
+
+    @Setup
+    public void setup() {
+        mLog = new ApduWorkload(1, 1).generate(entries);
+        mOtherLog = new ApduWorkload(1, 2).generate(entries);
+    }
+
+    /**
+     * Plays the other side of requests against a replayer of the log, returns the number of responses
+     */
+    private int replay(List<NfcComm> requests) {
+        NfcLogReplayer replayer = new NfcLogReplayer(reader, mode, mLog);
+        int responses = 0;
+
+        for (NfcComm request : requests) {
+            // our own entries are sent in response to requests, or first if we start
+            NfcComm response;
+            if (request.isCard() != reader)
+                response = replayer.shouldWait() ? null : replayer.getResponse(null);
+            else
+                response = replayer.getResponse(request);
+
+            if (response != null)
+                responses++;
+        }
+
+        return responses;
+    }
+
+    @Benchmark
+    public NfcLogReplayer index() {
+        return new NfcLogReplayer(reader, mode, mLog);
+    }
+
+    @Benchmark
+    public int replayExact() {
+        return replay(mLog);
+    }
+
+    @Benchmark
+    public int replayDiverged() {
+        return replay(mOtherLog);
+    }
+}
@@ -0,0 +1,99 @@
+package de.tu_darmstadt.seemoo.nfcgate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.tu_darmstadt.seemoo.nfcgate.nfc.replay.PatternStrategy;
+import de.tu_darmstadt.seemoo.nfcgate.nfc.replay.ReplayLogIndex;
+import de.tu_darmstadt.seemoo.nfcgate.util.ApduWorkload;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * Pattern prediction of one reader request: the trie against a linear scoring of every
+ * reader entry, as before the index. Requests are the commands of another tap sequence
+ * of the same card, so most differ from the log in their challenge bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PatternStrategyBenchmark {
+    private static final int REQUESTS = 512;
+
+    @Param({"1000", "10000"})
+    public int entries;
+
+    private List<NfcComm> mLog;
+    private PatternStrategy mStrategy;
+    private byte[][] mRequests;
+    private int[] mReplayIndices;
+    private int mNext = 0;
+
+    @Setup
+    public void setup() {
+        mLog = new ApduWorkload(1, 1).generate(entries);
+        mStrategy = new PatternStrategy(new ReplayLogIndex(mLog, false));
+
+        List<byte[]> requests = new ArrayList<>();
+        for (NfcComm comm : new ApduWorkload(1, 2).generate(2 * REQUESTS + 1))
+            if (!comm.isCard() && !comm.isInitial())
+                requests.add(comm.getData());
+        mRequests = requests.toArray(new byte[0][]);
+
+        Random random = new Random(1);
+        mReplayIndices = new int[mRequests.length];
+        for (int i = 0; i < mReplayIndices.length; i++)
+            mReplayIndices[i] = random.nextInt(entries + 1);
+    }
+
+    /**
+     * Scores every reader entry of the log, best score with the lowest rank wins
+     */
+    private int predictLinear(byte[] request, int replayIndex) {
+        int cIndex = -1, cScore = -1;
+        long cRank = Long.MAX_VALUE;
+
+        for (int i = 0; i < mLog.size(); i++) {
+            NfcComm entry = mLog.get(i);
+            if (entry.isCard())
+                continue;
+
+            int score = PatternStrategy.calcScore(entry.getData(), request);
+            long rank = i > replayIndex ? i - replayIndex : Math.max(0, mLog.size() - replayIndex) + i;
+            if (score > cScore || (score == cScore && rank < cRank)) {
+                cIndex = i;
+                cScore = score;
+                cRank = rank;
+            }
+        }
+
+        return cIndex;
+    }
+
+    @Benchmark
+    public PatternStrategy build() {
+        return new PatternStrategy(new ReplayLogIndex(mLog, false));
+    }
+
+    @Benchmark
+    public int indexed() {
+        int i = mNext++ % mRequests.length;
+        return mStrategy.predict(mRequests[i], mReplayIndices[i]);
+    }
+
+    @Benchmark
+    public int linear() {
+        int i = mNext++ % mRequests.length;
+        return predictLinear(mRequests[i], mReplayIndices[i]);
+    }
+}
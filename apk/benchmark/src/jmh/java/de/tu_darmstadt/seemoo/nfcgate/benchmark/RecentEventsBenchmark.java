@@ -0,0 +1,57 @@
+package de.tu_darmstadt.seemoo.nfcgate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import de.tu_darmstadt.seemoo.nfcgate.util.RecentEvents;
+
+/**
+ * Adding a diagnostics event from many producer threads: the lock-free ring
+ * against the previous locked deque that formatted every event on add
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(16)
+public class RecentEventsBenchmark {
+    private final ArrayDeque<String> mLegacy = new ArrayDeque<>(200);
+
+    /**
+     * Previous RecentEvents.add
+     */
+    @Benchmark
+    public void legacyAdd() {
+        String ts = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US).format(new Date());
+        String line = ts + " [INFO] producer event";
+
+        synchronized (mLegacy) {
+            while (mLegacy.size() >= 200) {
+                mLegacy.removeFirst();
+            }
+            mLegacy.addLast(line);
+        }
+    }
+
+    @Benchmark
+    public void add() {
+        RecentEvents.info("producer event");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public List<String> snapshot() {
+        return RecentEvents.snapshot(256);
+    }
+}
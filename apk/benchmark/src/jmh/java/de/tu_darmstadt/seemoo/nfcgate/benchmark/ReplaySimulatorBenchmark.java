@@ -0,0 +1,88 @@
+package de.tu_darmstadt.seemoo.nfcgate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.tu_darmstadt.seemoo.nfcgate.nfc.replay.ReplaySimulator;
+import de.tu_darmstadt.seemoo.nfcgate.util.ApduWorkload;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * Offline replay of a whole session, both sides replayed against each other per strategy.
+ * In the reordered case reader and tag logs use the same commands in a different order
+ * with fresh challenges, so strategies that search the log answer while index mode mismatches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReplaySimulatorBenchmark {
+    @Param({"10000"})
+    public int entries;
+
+    @Param({"index", "pattern", "lcp", "masked:5-"})
+    public String mode;
+
+    private List<NfcComm> mLog;
+    private List<NfcComm> mReaderLog;
+    private List<NfcComm> mTagLog;
+
+    /**
+     * Session of 50 commands with a random challenge after the 5-byte header,
+     * every command always gets the same response
+     */
+    private static List<NfcComm> makeSession(long seed, int entries) {
+        Random random = new Random(seed);
+        List<NfcComm> log = new ArrayList<>();
+        log.add(new NfcComm(true, true, new byte[] { 0x04, 0x00, 0x20 }, 0));
+
+        while (log.size() + 2 <= entries) {
+            int command = random.nextInt(50);
+
+            byte[] request = new byte[13];
+            random.nextBytes(request);
+            request[0] = 0x00;
+            request[1] = (byte) 0x88;
+            request[2] = (byte) command;
+            request[3] = (byte) (command * 7);
+            request[4] = 0x08;
+
+            byte[] response = new byte[10];
+            new Random(command).nextBytes(response);
+            response[8] = (byte) 0x90;
+            response[9] = 0x00;
+
+            log.add(new NfcComm(false, false, request, 0));
+            log.add(new NfcComm(true, false, response, 0));
+        }
+
+        return log;
+    }
+
+    @Setup
+    public void setup() {
+        mLog = new ApduWorkload(1, 1).generate(entries);
+        mReaderLog = makeSession(2, entries);
+        mTagLog = makeSession(3, entries);
+    }
+
+    @Benchmark
+    public ReplaySimulator.Result replaySelf() {
+        return new ReplaySimulator(mode, mLog).run(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public ReplaySimulator.Result replayReordered() {
+        return new ReplaySimulator(mode, mReaderLog, mTagLog).run(Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,59 @@
+package de.tu_darmstadt.seemoo.nfcgate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+import de.tu_darmstadt.seemoo.nfcgate.util.Trace;
+
+/**
+ * Cost of one trace record on the APDU path, alone and with writers contending for the ring
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TraceBenchmark {
+    private byte[] mApdu;
+    private NfcComm mComm;
+
+    @Setup
+    public void setup() {
+        mApdu = new byte[64];
+        new Random(1).nextBytes(mApdu);
+        mComm = new NfcComm(false, false, mApdu);
+
+        // fill the ring so dump formats full records
+        for (int i = 0; i < 1024; i++)
+            Trace.record(Trace.Event.APDU_OUT, mApdu);
+    }
+
+    @Benchmark
+    public void recordBytes() {
+        Trace.record(Trace.Event.APDU_IN, mApdu);
+    }
+
+    @Benchmark
+    public void recordComm() {
+        Trace.record(Trace.Event.NET_SEND, mComm);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void recordContended() {
+        Trace.record(Trace.Event.APDU_IN, mApdu);
+    }
+
+    @Benchmark
+    public String dump() {
+        return Trace.dump(256);
+    }
+}
@@ -0,0 +1,44 @@
+package de.tu_darmstadt.seemoo.nfcgate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.tu_darmstadt.seemoo.nfcgate.util.Utils;
+
+/**
+ * Hex formatting used by the log views and exports
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UtilsBenchmark {
+    @Param({"16", "256", "4096"})
+    public int size;
+
+    private byte[] mData;
+
+    @Setup
+    public void setup() {
+        mData = new byte[size];
+        new Random(1).nextBytes(mData);
+    }
+
+    @Benchmark
+    public String bytesToHex() {
+        return Utils.bytesToHex(mData);
+    }
+
+    @Benchmark
+    public String bytesToHexDump() {
+        return Utils.bytesToHexDump(mData);
+    }
+}
@@ -8,9 +8,10 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
-import de.tu_darmstadt.seemoo.nfcgate.gui.component.ContentShare;
+import de.tu_darmstadt.seemoo.nfcgate.util.IFileShareable;
+import de.tu_darmstadt.seemoo.nfcgate.util.Metrics;
 
-public class PcapStream implements ContentShare.IFileShareable {
+public class PcapStream implements IFileShareable {
     private static final int BLOCK_TYPE_SECTION = 0x0A0D0D0A;
     private static final int BLOCK_LEN_SECTION = 4*7;
     private static final int BLOCK_TYPE_INTERFACE = 0x00000001;
@@ -33,6 +34,8 @@ public class PcapStream implements ContentShare.IFileShareable {
     }
 
     public void read(InputStream stream) throws IOException {
+        final long start = System.nanoTime();
+        final int packets = mPackets.size();
         DataInputStream in = new DataInputStream(stream);
 
         // Section Header Block
@@ -61,6 +64,8 @@ public class PcapStream implements ContentShare.IFileShareable {
             mPackets.add(readPacket(in));
 
         in.close();
+        Metrics.PCAPNG_READ.recordSince(start);
+        Metrics.PCAPNG_PACKETS_READ.add(mPackets.size() - packets);
     }
 
     protected PcapPacket readPacket(DataInputStream in) throws IOException {
@@ -74,6 +79,7 @@ public class PcapStream implements ContentShare.IFileShareable {
 
     @Override
     public void write(OutputStream stream) throws IOException {
+        final long start = System.nanoTime();
         DataOutputStream out = new DataOutputStream(stream);
 
         // Section Header Block
@@ -112,5 +118,7 @@ public class PcapStream implements ContentShare.IFileShareable {
             packet.write(out);
 
         out.close();
+        Metrics.PCAPNG_WRITE.recordSince(start);
+        Metrics.PCAPNG_PACKETS_WRITTEN.add(mPackets.size());
     }
 }
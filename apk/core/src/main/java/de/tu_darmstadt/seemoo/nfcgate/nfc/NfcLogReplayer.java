@@ -0,0 +1,87 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.tu_darmstadt.seemoo.nfcgate.nfc.replay.ReplayLogIndex;
+import de.tu_darmstadt.seemoo.nfcgate.nfc.replay.ReplayStrategy;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+public class NfcLogReplayer {
+    private final boolean mReader;
+    private final ReplayLogIndex mIndex;
+    private final ReplayStrategy mStrategy;
+    private int mReplayIndex = 0;
+
+    public NfcLogReplayer(boolean reader, String mode, List<NfcComm> replayLog) {
+        // index the log once, requests of the other side carry our reader flag
+        this(reader, mode, new ReplayLogIndex(replayLog, reader));
+    }
+
+    private NfcLogReplayer(boolean reader, String mode, ReplayLogIndex index) {
+        mReader = reader;
+        mIndex = index;
+        mStrategy = ReplayStrategy.create(mode, index);
+    }
+
+    private boolean hasNext() {
+        // next log entry does not exist -> do nothing
+        return mReplayIndex < mIndex.size();
+    }
+
+    /**
+     * Returns the next communication to be sent by "our" side or null if we need to wait
+     * or no matching communication was found.
+     * Requests exactly matching the expected log entry continue based on the index,
+     * otherwise the replay strategy may move the index first
+     */
+    public NfcComm getResponse(NfcComm request) {
+        // if we just need our next communication, use index-based resp
+        if (request == null)
+            return getIndexBasedResponse(null);
+
+        byte[] data = request.getData();
+
+        // if the other side sent a request exactly matching our expectations, use index-based resp
+        if (hasNext() && mIndex.isCard(mReplayIndex) == request.isCard()
+                && Arrays.equals(mIndex.getData(mReplayIndex), data)) {
+            return getIndexBasedResponse(request);
+        }
+        // if we have a request but it does not exactly match the expected data, ask the strategy
+        else {
+            int predictedIndex = mStrategy.predict(data, mReplayIndex);
+
+            // jump to best prediction and continue index-based resp from there
+            if (predictedIndex >= 0)
+                mReplayIndex = predictedIndex;
+
+            return getIndexBasedResponse(request);
+        }
+    }
+
+    public boolean shouldWait() {
+        // wait if no next entry exists or next entry is not our type
+        return !hasNext() || mIndex.isCard(mReplayIndex) == mReader;
+    }
+
+    /**
+     * Returns the next communication to be sent by "our" side based on the index
+     * or null if we need to wait or no matching communication was found
+     */
+    private NfcComm getIndexBasedResponse(NfcComm request) {
+        if (request != null && hasNext() && mIndex.isCard(mReplayIndex) == request.isCard()) {
+            // request matches the log entry we were expecting
+            mReplayIndex++;
+            return getIndexBasedResponse(null);
+        }
+        else if (request == null && hasNext() && mIndex.isCard(mReplayIndex) != mReader) {
+            // next entry matches our type
+            int next = mReplayIndex++;
+            // update date by creating new NfcComm from old one
+            return new NfcComm(mIndex.isCard(next), mIndex.isInitial(next), mIndex.getData(next));
+        }
+
+        // either wrong request or next log entry does not match our type: wait
+        return null;
+    }
+}
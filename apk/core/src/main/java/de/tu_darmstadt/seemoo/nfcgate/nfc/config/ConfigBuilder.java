@@ -12,6 +12,10 @@ public class ConfigBuilder {
 
     public ConfigBuilder() { }
 
+    /**
+     * Parses a config stream. Options refer to the given array instead of copying it,
+     * so it must not be modified afterwards. A truncated trailing option is dropped.
+     */
     public ConfigBuilder(byte[] config) {
         parse(config);
     }
@@ -34,35 +38,46 @@ public class ConfigBuilder {
 
     private void parse(byte[] config) {
         mOptions.clear();
-        int index = 0;
 
-        while(index + 2 < config.length) {
-            byte type = config[index];
-            byte length = config[index + 1];
-
-            byte[] data = new byte[length];
-            System.arraycopy(config, index + 2, data, 0, length);
-
-            add(OptionType.fromType(type), data);
-            index += length + 2;
-        }
+        ConfigView view = new ConfigView(config);
+        while (view.next())
+            add(new ConfigOption(view.type(), config, view.offset(), view.length()));
     }
 
-    public byte[] build() {
+    /**
+     * Length of the built config stream
+     */
+    public int length() {
         int length = 0;
 
         for (ConfigOption option : mOptions)
             length += option.len() + 2;
 
-        byte[] data = new byte[length];
-        int offset = 0;
+        return length;
+    }
 
+    public byte[] build() {
+        byte[] data = new byte[length()];
+        build(data, 0);
+        return data;
+    }
+
+    /**
+     * Writes the config stream into dst starting at offset, returns the number of bytes written.
+     * Throws IndexOutOfBoundsException if dst is too small.
+     */
+    public int build(byte[] dst, int offset) {
+        int length = length();
+        if (offset < 0 || offset + length > dst.length)
+            throw new IndexOutOfBoundsException("Config needs " + length + " bytes");
+
+        int position = offset;
         for (ConfigOption option : mOptions) {
-            option.push(data, offset);
-            offset += option.len() + 2;
+            option.push(dst, position);
+            position += option.len() + 2;
         }
 
-        return data;
+        return length;
     }
 
     @Override
@@ -0,0 +1,88 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc.config;
+
+import java.util.Locale;
+
+import de.tu_darmstadt.seemoo.nfcgate.util.HexCodec;
+
+/**
+ * Represents a single NCI configuration option with an option code, its length and data.
+ * Options of unknown types keep their raw type, parsed options refer to the parsed array.
+ */
+public class ConfigOption {
+    private final int mType;
+    private final byte[] mData;
+    private final int mOffset;
+    private final int mLength;
+
+    ConfigOption(OptionType ID, byte[] data) {
+        this(ID.value, data, 0, data.length);
+    }
+
+    ConfigOption(OptionType ID, byte data) {
+        this(ID, new byte[] { data });
+    }
+
+    ConfigOption(int type, byte[] data, int offset, int length) {
+        if (length > 0xFF)
+            throw new IllegalArgumentException("Option data exceeds 255 bytes");
+
+        mType = type & 0xFF;
+        mData = data;
+        mOffset = offset;
+        mLength = length;
+    }
+
+    /**
+     * Known option type or null
+     */
+    public OptionType getType() {
+        return OptionType.fromType(mType);
+    }
+
+    /**
+     * Unsigned raw option type
+     */
+    public int getRawType() {
+        return mType;
+    }
+
+    /**
+     * Copy of the option data
+     */
+    public byte[] getData() {
+        byte[] result = new byte[mLength];
+        System.arraycopy(mData, mOffset, result, 0, mLength);
+        return result;
+    }
+
+    public int len() {
+        return mLength;
+    }
+
+    public void push(byte[] data, int offset) {
+        data[offset] = (byte) mType;
+        data[offset + 1] = (byte) mLength;
+
+        System.arraycopy(mData, mOffset, data, offset + 2, mLength);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+
+        result.append("Type: ");
+        OptionType type = getType();
+        result.append(type != null ? type.toString() : String.format(Locale.ROOT, "Unknown (0x%02X)", mType));
+
+        if (mLength > 1) {
+            result.append(" (");
+            result.append(mLength);
+            result.append(")");
+        }
+
+        result.append(", Value: 0x");
+        HexCodec.append(result, mData, mOffset, mLength, ':');
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,109 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc.config;
+
+/**
+ * Iterates the options of a NCI config stream in place, without copying them.
+ * Every option is a type byte, an unsigned length byte and the data.
+ * A trailing option that does not fit into the stream ends the iteration and marks it truncated.
+ *
+ * <pre>
+ * ConfigView view = new ConfigView(config);
+ * while (view.next())
+ *     use(view.type(), config, view.offset(), view.length());
+ * </pre>
+ */
+public final class ConfigView {
+    private final byte[] mConfig;
+    private final int mStart;
+    private final int mEnd;
+
+    // current option, mNext is where the following option starts
+    private int mType = -1;
+    private int mOffset = 0;
+    private int mLength = 0;
+    private int mNext;
+    private boolean mTruncated = false;
+
+    public ConfigView(byte[] config) {
+        this(config, 0, config.length);
+    }
+
+    public ConfigView(byte[] config, int offset, int length) {
+        mConfig = config;
+        mStart = offset;
+        mEnd = offset + length;
+        mNext = offset;
+    }
+
+    /**
+     * Moves to the next option, returns false at the end of the stream
+     */
+    public boolean next() {
+        if (mNext + 2 > mEnd) {
+            // a single dangling byte is not an option either
+            mTruncated |= mNext != mEnd;
+            mNext = mEnd;
+            return false;
+        }
+
+        int length = mConfig[mNext + 1] & 0xFF;
+        if (mNext + 2 + length > mEnd) {
+            mTruncated = true;
+            mNext = mEnd;
+            return false;
+        }
+
+        mType = mConfig[mNext] & 0xFF;
+        mOffset = mNext + 2;
+        mLength = length;
+        mNext = mOffset + length;
+        return true;
+    }
+
+    /**
+     * Restarts the iteration at the first option
+     */
+    public void reset() {
+        mNext = mStart;
+        mType = -1;
+        mTruncated = false;
+    }
+
+    /**
+     * Unsigned option type of the current option
+     */
+    public int type() {
+        return mType;
+    }
+
+    /**
+     * Known option type of the current option or null
+     */
+    public OptionType optionType() {
+        return OptionType.fromType(mType);
+    }
+
+    /**
+     * Offset of the current option data in the config array
+     */
+    public int offset() {
+        return mOffset;
+    }
+
+    /**
+     * Length of the current option data
+     */
+    public int length() {
+        return mLength;
+    }
+
+    public byte[] array() {
+        return mConfig;
+    }
+
+    /**
+     * Whether the stream ended inside an option, valid once next() returned false
+     */
+    public boolean isTruncated() {
+        return mTruncated;
+    }
+}
@@ -48,6 +48,14 @@ public enum OptionType {
     // implementation details
     final int value;
 
+    // option type by unsigned ID, null for unknown IDs
+    private static final OptionType[] BY_ID = new OptionType[256];
+
+    static {
+        for (OptionType optionType : values())
+            BY_ID[optionType.value] = optionType;
+    }
+
     OptionType(int val) {
         value = val;
     }
@@ -56,11 +64,14 @@ public enum OptionType {
         return (byte)value;
     }
 
+    /**
+     * Returns the option type of the ID or null if it is unknown
+     */
     public static OptionType fromType(byte type) {
-        for (OptionType optionType : OptionType.values())
-            if (optionType.getID() == type)
-                return optionType;
+        return fromType(type & 0xFF);
+    }
 
-        return null;
+    public static OptionType fromType(int type) {
+        return BY_ID[type & 0xFF];
     }
 }
@@ -0,0 +1,26 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc.replay;
+
+import java.util.Arrays;
+
+/**
+ * Content-based hash key for byte arrays
+ */
+final class ByteArrayKey {
+    private final byte[] mData;
+    private final int mHash;
+
+    ByteArrayKey(byte[] data) {
+        mData = data;
+        mHash = Arrays.hashCode(data);
+    }
+
+    @Override
+    public int hashCode() {
+        return mHash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ByteArrayKey && Arrays.equals(mData, ((ByteArrayKey) o).mData);
+    }
+}
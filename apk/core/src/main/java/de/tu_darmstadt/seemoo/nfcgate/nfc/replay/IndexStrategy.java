@@ -0,0 +1,12 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc.replay;
+
+/**
+ * Strictly sequential replay, requests are only checked for their side.
+ * Complexity: O(1) per request, nothing is built.
+ */
+public class IndexStrategy implements ReplayStrategy {
+    @Override
+    public int predict(byte[] request, int replayIndex) {
+        return -1;
+    }
+}
@@ -0,0 +1,92 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc.replay;
+
+import java.util.Arrays;
+
+/**
+ * Jumps to the entry sharing the longest common prefix with the request, ignoring lengths.
+ * Uses the suffix array of the log sampled at entry starts, i.e. the distinct requesting-side
+ * payloads in lexicographic order. Entries sharing a prefix with the request form one block around
+ * the position the request would be inserted at. Requests without any common byte keep the index.
+ * Complexity: build O(n log n * m), query O(m log n + k * m) where k is the number of distinct
+ * payloads sharing the longest prefix.
+ */
+public class LcpStrategy implements ReplayStrategy {
+    private final ReplayLogIndex mIndex;
+    // payload ids in lexicographic order of their payloads
+    private final int[] mSorted;
+
+    // prediction scratch state
+    private int[] mBest = new int[8];
+
+    public LcpStrategy(ReplayLogIndex index) {
+        mIndex = index;
+
+        Integer[] sorted = new Integer[index.getPayloadCount()];
+        for (int i = 0; i < sorted.length; i++)
+            sorted[i] = i;
+        Arrays.sort(sorted, (a, b) -> compare(index.getPayload(a), index.getPayload(b)));
+
+        mSorted = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++)
+            mSorted[i] = sorted[i];
+    }
+
+    @Override
+    public int predict(byte[] request, int replayIndex) {
+        // insertion position of the request
+        int low = 0, high = mSorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mIndex.getPayload(mSorted[mid]), request) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        // the longest common prefix is found at one of the neighbours
+        int best = Math.max(low > 0 ? lcp(mSorted[low - 1], request) : 0,
+                low < mSorted.length ? lcp(mSorted[low], request) : 0);
+        if (best == 0)
+            return -1;
+
+        // collect the block of payloads sharing it
+        int count = 0;
+        for (int i = low - 1; i >= 0 && lcp(mSorted[i], request) == best; i--)
+            count = add(count, mSorted[i]);
+        for (int i = low; i < mSorted.length && lcp(mSorted[i], request) == best; i++)
+            count = add(count, mSorted[i]);
+
+        return mIndex.nearestOccurrence(mBest, count, replayIndex);
+    }
+
+    private int add(int count, int payload) {
+        if (count == mBest.length)
+            mBest = Arrays.copyOf(mBest, count * 2);
+
+        mBest[count] = payload;
+        return count + 1;
+    }
+
+    private int lcp(int payload, byte[] request) {
+        byte[] data = mIndex.getPayload(payload);
+        int max = Math.min(data.length, request.length);
+        int result = 0;
+
+        while (result < max && data[result] == request[result])
+            result++;
+
+        return result;
+    }
+
+    /**
+     * Unsigned lexicographic comparison
+     */
+    private static int compare(byte[] a, byte[] b) {
+        int max = Math.min(a.length, b.length);
+        for (int i = 0; i < max; i++)
+            if (a[i] != b[i])
+                return (a[i] & 0xFF) - (b[i] & 0xFF);
+
+        return a.length - b.length;
+    }
+}
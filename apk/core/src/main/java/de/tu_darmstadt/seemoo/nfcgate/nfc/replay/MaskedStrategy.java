@@ -0,0 +1,86 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc.replay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jumps to the nearest entry that equals the request outside of declared variable byte ranges,
+ * e.g. challenges or counters. Requests without such an entry keep the index.
+ * Payloads are hashed with the variable bytes cleared, so a query is a single lookup.
+ * Complexity: build O(total payload bytes), query O(m + k log o) for a request of length m with
+ * k matching distinct payloads occurring o times each.
+ */
+public class MaskedStrategy implements ReplayStrategy {
+    private final ReplayLogIndex mIndex;
+    // inclusive [from, to] byte offsets, to is Integer.MAX_VALUE for open ranges
+    private final int[][] mRanges;
+    // masked payload -> distinct payload ids
+    private final Map<ByteArrayKey, int[]> mBuckets = new HashMap<>();
+
+    public MaskedStrategy(ReplayLogIndex index, int[][] ranges) {
+        mIndex = index;
+        mRanges = ranges;
+
+        for (int id = 0; id < index.getPayloadCount(); id++) {
+            ByteArrayKey key = new ByteArrayKey(mask(index.getPayload(id)));
+            int[] bucket = mBuckets.get(key);
+
+            bucket = bucket == null ? new int[1] : Arrays.copyOf(bucket, bucket.length + 1);
+            bucket[bucket.length - 1] = id;
+            mBuckets.put(key, bucket);
+        }
+    }
+
+    /**
+     * Parses ranges like "5-12,20-" into inclusive offset pairs, malformed parts are skipped
+     */
+    public static int[][] parseRanges(String spec) {
+        List<int[]> result = new ArrayList<>();
+
+        for (String part : spec.split(",")) {
+            part = part.trim();
+            int dash = part.indexOf('-');
+
+            try {
+                if (dash < 0) {
+                    int offset = Integer.parseInt(part);
+                    if (offset >= 0)
+                        result.add(new int[] { offset, offset });
+                }
+                else {
+                    int from = Integer.parseInt(part.substring(0, dash).trim());
+                    String end = part.substring(dash + 1).trim();
+                    int to = end.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(end);
+
+                    if (from >= 0 && to >= from)
+                        result.add(new int[] { from, to });
+                }
+            } catch (NumberFormatException ignored) {
+            }
+        }
+
+        return result.toArray(new int[0][]);
+    }
+
+    @Override
+    public int predict(byte[] request, int replayIndex) {
+        int[] bucket = mBuckets.get(new ByteArrayKey(mask(request)));
+        if (bucket == null)
+            return -1;
+
+        return mIndex.nearestOccurrence(bucket, bucket.length, replayIndex);
+    }
+
+    private byte[] mask(byte[] data) {
+        byte[] result = data.clone();
+
+        for (int[] range : mRanges)
+            for (int i = range[0]; i <= range[1] && i < result.length; i++)
+                result[i] = 0;
+
+        return result;
+    }
+}
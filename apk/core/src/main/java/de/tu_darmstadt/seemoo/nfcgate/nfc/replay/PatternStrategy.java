@@ -0,0 +1,237 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc.replay;
+
+import java.util.Arrays;
+
+/**
+ * Scores every requesting-side entry by common prefix and length similarity, the best score wins
+ * and ties go to the lowest forward distance.
+ * Distinct payloads are kept in a path-compressed prefix trie with per-subtree length ranges,
+ * so a query follows the request path and skips subtrees that cannot reach the current best score.
+ * Edge labels point into the payloads, the trie has at most two nodes per distinct payload.
+ * Complexity: build O(total payload bytes), query O(m + visited nodes) for a request of length m.
+ * Subtrees sharing at least the best score minus 10 bytes are always visited, so the worst case
+ * is O(distinct payloads) for requests without any similar entry.
+ */
+public class PatternStrategy implements ReplayStrategy {
+    // maximum score contributed by the length similarity
+    private static final int MAX_LENGTH_SCORE = 10;
+
+    private static class TrieNode {
+        // the edge label is source[parent depth, depth)
+        byte[] source;
+        int depth;
+        // children by first label byte, kept in small parallel arrays since fanout is usually low
+        byte[] keys = new byte[0];
+        TrieNode[] children = new TrieNode[0];
+        // id of the distinct payload ending at this node or -1
+        int payload = -1;
+        // length range of all payloads in this subtree
+        int minLength = Integer.MAX_VALUE;
+        int maxLength = Integer.MIN_VALUE;
+
+        TrieNode(byte[] source, int depth) {
+            this.source = source;
+            this.depth = depth;
+        }
+
+        int indexOf(byte key) {
+            for (int i = 0; i < keys.length; i++)
+                if (keys[i] == key)
+                    return i;
+
+            return -1;
+        }
+
+        TrieNode child(byte key) {
+            int i = indexOf(key);
+            return i >= 0 ? children[i] : null;
+        }
+
+        void addChild(byte key, TrieNode child) {
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            keys[keys.length - 1] = key;
+            children[children.length - 1] = child;
+        }
+    }
+
+    private final ReplayLogIndex mIndex;
+    private final TrieNode mRoot = new TrieNode(new byte[0], 0);
+
+    // prediction scratch state
+    private int mBestScore;
+    private int[] mBestPayloads = new int[8];
+    private int mBestCount;
+    private TrieNode[] mPath = new TrieNode[8];
+    private TrieNode[] mStack = new TrieNode[8];
+
+    public PatternStrategy(ReplayLogIndex index) {
+        mIndex = index;
+
+        for (int id = 0; id < index.getPayloadCount(); id++)
+            insert(id, index.getPayload(id));
+    }
+
+    @Override
+    public int predict(byte[] request, int replayIndex) {
+        mBestScore = -1;
+        mBestCount = 0;
+
+        // follow the request down the trie through all fully matching nodes
+        int pathLength = 0;
+        TrieNode node = mRoot;
+        // node whose label matches only partially, shares `partial` bytes with the request
+        TrieNode partialNode = null;
+        int partial = 0;
+        while (true) {
+            mPath = push(mPath, pathLength++, node);
+            if (node.depth == request.length)
+                break;
+
+            TrieNode next = node.child(request[node.depth]);
+            if (next == null)
+                break;
+
+            int matched = node.depth + 1;
+            while (matched < next.depth && matched < request.length && next.source[matched] == request[matched])
+                matched++;
+
+            if (matched < next.depth) {
+                partialNode = next;
+                partial = matched;
+                break;
+            }
+            node = next;
+        }
+
+        // deepest matches first to raise the bar for shallower subtrees early,
+        // every payload below the partial node shares exactly the matched bytes
+        if (partialNode != null)
+            visit(partialNode, partial, request.length);
+
+        for (int i = pathLength - 1; i >= 0; i--) {
+            TrieNode onPath = mPath[i];
+            TrieNode skip = i + 1 < pathLength ? mPath[i + 1] : partialNode;
+
+            if (onPath.payload >= 0)
+                consider(onPath.payload, onPath.depth + lengthScore(onPath.depth, request.length));
+
+            // every payload branching off the request here shares exactly the node depth
+            for (TrieNode child : onPath.children)
+                if (child != skip)
+                    visit(child, onPath.depth, request.length);
+        }
+
+        return mIndex.nearestOccurrence(mBestPayloads, mBestCount, replayIndex);
+    }
+
+    /**
+     * Matches length and content of given data. Higher score is better
+     */
+    public static int calcScore(byte[] entry, byte[] request) {
+        // prefix based score
+        int pScore;
+        int max = Math.min(entry.length, request.length);
+        for (pScore = 0; pScore < max; pScore++)
+            if (entry[pScore] != request[pScore])
+                break;
+
+        return pScore + lengthScore(entry.length, request.length);
+    }
+
+    /**
+     * Length based score: 10 for perfect match, one less for each absolute difference
+     */
+    private static int lengthScore(int entryLength, int requestLength) {
+        return Math.max(0, MAX_LENGTH_SCORE - Math.abs(entryLength - requestLength));
+    }
+
+    /**
+     * Considers all payloads of the subtree sharing exactly prefix bytes with the request.
+     * Iterative, payloads may be longer than the thread stack allows recursing.
+     */
+    private void visit(TrieNode subtree, int prefix, int requestLength) {
+        int size = 0;
+        mStack = push(mStack, size++, subtree);
+
+        while (size > 0) {
+            TrieNode node = mStack[--size];
+
+            // best length score any payload in this subtree can reach
+            int distance = requestLength < node.minLength ? node.minLength - requestLength :
+                    requestLength > node.maxLength ? requestLength - node.maxLength : 0;
+            if (prefix + Math.max(0, MAX_LENGTH_SCORE - distance) < mBestScore)
+                continue;
+
+            if (node.payload >= 0)
+                consider(node.payload, prefix + lengthScore(node.depth, requestLength));
+
+            for (TrieNode child : node.children)
+                mStack = push(mStack, size++, child);
+        }
+    }
+
+    private static TrieNode[] push(TrieNode[] stack, int size, TrieNode node) {
+        if (size == stack.length)
+            stack = Arrays.copyOf(stack, size * 2);
+
+        stack[size] = node;
+        return stack;
+    }
+
+    private void consider(int payload, int score) {
+        if (score > mBestScore) {
+            mBestScore = score;
+            mBestCount = 0;
+        }
+
+        if (score == mBestScore) {
+            if (mBestCount == mBestPayloads.length)
+                mBestPayloads = Arrays.copyOf(mBestPayloads, mBestCount * 2);
+
+            mBestPayloads[mBestCount++] = payload;
+        }
+    }
+
+    private void insert(int id, byte[] payload) {
+        TrieNode node = mRoot;
+        updateRange(node, payload.length);
+
+        while (node.depth < payload.length) {
+            int slot = node.indexOf(payload[node.depth]);
+            if (slot < 0) {
+                // new leaf holding the remaining payload as its label
+                TrieNode leaf = new TrieNode(payload, payload.length);
+                node.addChild(payload[node.depth], leaf);
+                node = leaf;
+                updateRange(node, payload.length);
+                break;
+            }
+
+            TrieNode next = node.children[slot];
+            int matched = node.depth + 1;
+            while (matched < next.depth && matched < payload.length && next.source[matched] == payload[matched])
+                matched++;
+
+            if (matched < next.depth) {
+                // split the edge, the upper half keeps the subtree range of the lower half
+                TrieNode split = new TrieNode(next.source, matched);
+                split.addChild(next.source[matched], next);
+                split.minLength = next.minLength;
+                split.maxLength = next.maxLength;
+                node.children[slot] = split;
+                next = split;
+            }
+
+            node = next;
+            updateRange(node, payload.length);
+        }
+
+        node.payload = id;
+    }
+
+    private static void updateRange(TrieNode node, int length) {
+        node.minLength = Math.min(node.minLength, length);
+        node.maxLength = Math.max(node.maxLength, length);
+    }
+}
@@ -0,0 +1,149 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc.replay;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * One-time index over a replay log shared by all replay strategies.
+ * Payloads and flags of all entries are extracted once. Payloads of the requesting side are
+ * deduplicated, each distinct payload keeps the ascending log indices it occurs at.
+ */
+public class ReplayLogIndex {
+    // all log entries
+    private final byte[][] mData;
+    private final boolean[] mCard;
+    private final boolean[] mInitial;
+
+    // distinct requesting-side payloads and the ascending log indices they occur at
+    private final byte[][] mPayloads;
+    private final int[][] mOccurrences;
+
+    /**
+     * Builds the index
+     *
+     * @param log Replay log in order
+     * @param requestIsCard Source flag of the entries that requests are matched against
+     */
+    public ReplayLogIndex(List<NfcComm> log, boolean requestIsCard) {
+        final int size = log.size();
+        mData = new byte[size][];
+        mCard = new boolean[size];
+        mInitial = new boolean[size];
+
+        // count occurrences of identical payloads of the requesting side
+        Map<ByteArrayKey, Integer> counts = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            NfcComm comm = log.get(i);
+            mData[i] = comm.getData();
+            mCard[i] = comm.isCard();
+            mInitial[i] = comm.isInitial();
+
+            if (mCard[i] == requestIsCard) {
+                ByteArrayKey key = new ByteArrayKey(mData[i]);
+                Integer count = counts.get(key);
+                counts.put(key, count == null ? 1 : count + 1);
+            }
+        }
+
+        mPayloads = new byte[counts.size()][];
+        mOccurrences = new int[counts.size()][];
+        int[] fill = new int[counts.size()];
+
+        // assign ids in order of first occurrence
+        Map<ByteArrayKey, Integer> ids = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (mCard[i] != requestIsCard)
+                continue;
+
+            ByteArrayKey key = new ByteArrayKey(mData[i]);
+            Integer id = ids.get(key);
+
+            if (id == null) {
+                id = ids.size();
+                ids.put(key, id);
+
+                mPayloads[id] = mData[i];
+                mOccurrences[id] = new int[counts.get(key)];
+            }
+
+            mOccurrences[id][fill[id]++] = i;
+        }
+    }
+
+    public int size() {
+        return mData.length;
+    }
+
+    /**
+     * Returns the payload of the given entry. The array is shared and must not be modified
+     */
+    public byte[] getData(int index) {
+        return mData[index];
+    }
+
+    public boolean isCard(int index) {
+        return mCard[index];
+    }
+
+    public boolean isInitial(int index) {
+        return mInitial[index];
+    }
+
+    /**
+     * Number of distinct payloads of the requesting side
+     */
+    public int getPayloadCount() {
+        return mPayloads.length;
+    }
+
+    /**
+     * Returns the distinct payload with the given id. The array is shared and must not be modified
+     */
+    public byte[] getPayload(int id) {
+        return mPayloads[id];
+    }
+
+    /**
+     * Returns the occurrence with the lowest rank among all given payloads, -1 if count is 0
+     */
+    public int nearestOccurrence(int[] payloads, int count, int replayIndex) {
+        int result = -1;
+        long resultRank = Long.MAX_VALUE;
+
+        for (int i = 0; i < count; i++) {
+            int index = nearestOccurrence(payloads[i], replayIndex);
+            long rank = rankIndex(index, replayIndex);
+
+            if (rank < resultRank) {
+                result = index;
+                resultRank = rank;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the first occurrence of the payload after replayIndex or its first occurrence overall
+     */
+    public int nearestOccurrence(int payload, int replayIndex) {
+        int[] occurrences = mOccurrences[payload];
+        int pos = Arrays.binarySearch(occurrences, replayIndex + 1);
+        if (pos < 0)
+            pos = -pos - 1;
+
+        return pos < occurrences.length ? occurrences[pos] : occurrences[0];
+    }
+
+    /**
+     * Ranks given index against replayIndex using forward distance. Lower is better
+     */
+    public long rankIndex(int index, int replayIndex) {
+        if (index > replayIndex) return index - replayIndex;
+        else return Math.max(0, mData.length - replayIndex) + index;
+    }
+}
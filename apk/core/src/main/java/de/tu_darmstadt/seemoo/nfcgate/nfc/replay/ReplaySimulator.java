@@ -0,0 +1,174 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc.replay;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+import de.tu_darmstadt.seemoo.nfcgate.db.pcapng.ISO14443Stream;
+import de.tu_darmstadt.seemoo.nfcgate.nfc.NfcLogReplayer;
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * Headless offline replay: pairs a reader-side and a tag-side replayer and runs them against
+ * each other without NFC adapter, network or UI.
+ * Every message exchanged is checked against the reader log, so a replay of a log against itself
+ * must not diverge, while replaying against a different session shows where the tag deviates.
+ */
+public class ReplaySimulator {
+    // number of divergence points kept in the result
+    private static final int MAX_DIVERGENCES = 32;
+
+    /**
+     * A message that did not match the next expected entry of the reader log
+     */
+    public static class Divergence {
+        public final int step;
+        public final int expectedIndex;
+        public final NfcComm expected;
+        public final NfcComm actual;
+
+        Divergence(int step, int expectedIndex, NfcComm expected, NfcComm actual) {
+            this.step = step;
+            this.expectedIndex = expectedIndex;
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "step %d, log index %d: expected %s, got %s",
+                    step, expectedIndex, expected, actual);
+        }
+    }
+
+    public static class Result {
+        public final String mode;
+        public final int steps;
+        public final long elapsedNs;
+        public final int mismatches;
+        // true if the whole reader log was reproduced
+        public final boolean completed;
+        public final List<Divergence> divergences;
+
+        Result(String mode, int steps, long elapsedNs, int mismatches, boolean completed, List<Divergence> divergences) {
+            this.mode = mode;
+            this.steps = steps;
+            this.elapsedNs = elapsedNs;
+            this.mismatches = mismatches;
+            this.completed = completed;
+            this.divergences = Collections.unmodifiableList(divergences);
+        }
+
+        public double getStepsPerSecond() {
+            return elapsedNs > 0 ? steps * 1e9 / elapsedNs : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: %d steps, %.0f steps/s, %d mismatches, %s",
+                    mode, steps, getStepsPerSecond(), mismatches, completed ? "completed" : "incomplete");
+        }
+    }
+
+    private final String mMode;
+    private final List<NfcComm> mReaderLog;
+    private final List<NfcComm> mTagLog;
+
+    /**
+     * Replays a single log against itself
+     */
+    public ReplaySimulator(String mode, List<NfcComm> log) {
+        this(mode, log, log);
+    }
+
+    /**
+     * @param mode Replay mode of both sides
+     * @param readerLog Log replayed by the reader side, also the reference for mismatches
+     * @param tagLog Log replayed by the tag side
+     */
+    public ReplaySimulator(String mode, List<NfcComm> readerLog, List<NfcComm> tagLog) {
+        mMode = mode;
+        mReaderLog = readerLog;
+        mTagLog = tagLog;
+    }
+
+    /**
+     * Reads a log from a pcapng stream as written by the log export
+     */
+    public static List<NfcComm> readPcap(InputStream in) throws IOException {
+        return new ISO14443Stream().readAll(in);
+    }
+
+    /**
+     * Runs both sides until neither has anything left to send or maxSteps messages were exchanged
+     */
+    public Result run(int maxSteps) {
+        NfcLogReplayer reader = new NfcLogReplayer(true, mMode, mReaderLog);
+        NfcLogReplayer tag = new NfcLogReplayer(false, mMode, mTagLog);
+        Deque<NfcComm> toReader = new ArrayDeque<>();
+        Deque<NfcComm> toTag = new ArrayDeque<>();
+
+        List<Divergence> divergences = new ArrayList<>();
+        int steps = 0, mismatches = 0, cursor = 0;
+        long start = System.nanoTime();
+
+        boolean progressed = true;
+        while (progressed && steps < maxSteps) {
+            progressed = false;
+
+            for (int side = 0; side < 2 && steps < maxSteps; side++) {
+                // the tag side goes first, capture logs start with the initial tag data
+                NfcLogReplayer replayer = side == 0 ? tag : reader;
+                Deque<NfcComm> inbox = side == 0 ? toTag : toReader;
+                NfcComm request = inbox.poll();
+
+                // same condition as the UI replayer: deliver data or tickle a non-waiting side
+                if (request == null && replayer.shouldWait())
+                    continue;
+
+                NfcComm response = replayer.getResponse(request);
+                progressed |= request != null || response != null;
+                if (response == null)
+                    continue;
+
+                steps++;
+                (side == 0 ? toReader : toTag).add(response);
+
+                // check against reader log and resync on the next matching entry
+                int match = find(response, cursor);
+                if (match != cursor) {
+                    mismatches++;
+                    if (divergences.size() < MAX_DIVERGENCES)
+                        divergences.add(new Divergence(steps, cursor,
+                                cursor < mReaderLog.size() ? mReaderLog.get(cursor) : null, response));
+                }
+                if (match >= 0)
+                    cursor = match + 1;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        return new Result(mMode, steps, elapsed, mismatches, cursor >= mReaderLog.size(), divergences);
+    }
+
+    /**
+     * Returns the first reader log index from the given one that matches the message, -1 if none
+     */
+    private int find(NfcComm comm, int from) {
+        byte[] data = comm.getData();
+
+        for (int i = from; i < mReaderLog.size(); i++) {
+            NfcComm entry = mReaderLog.get(i);
+            if (entry.isCard() == comm.isCard() && Arrays.equals(entry.getData(), data))
+                return i;
+        }
+
+        return -1;
+    }
+}
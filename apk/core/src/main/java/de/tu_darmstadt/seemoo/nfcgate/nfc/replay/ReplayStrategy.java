@@ -0,0 +1,44 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc.replay;
+
+/**
+ * Decides where replay continues when a request does not exactly match the expected log entry.
+ * Implementations are built once per replayer from the log index and may keep per-query scratch
+ * state, they are not shared between threads.
+ */
+public interface ReplayStrategy {
+    /**
+     * Predicts the log index of the given request
+     *
+     * @param request Request payload
+     * @param replayIndex Current replay index
+     * @return Predicted index or -1 to continue at the current index
+     */
+    int predict(byte[] request, int replayIndex);
+
+    /**
+     * Creates the strategy for the given mode. Arguments follow the mode name after a colon,
+     * e.g. "masked:5-12,20-"
+     */
+    static ReplayStrategy create(String mode, ReplayLogIndex index) {
+        int colon = mode.indexOf(':');
+        String name = colon >= 0 ? mode.substring(0, colon) : mode;
+        String args = colon >= 0 ? mode.substring(colon + 1) : "";
+
+        switch (name) {
+            case "index":
+                return new IndexStrategy();
+
+            case "pattern":
+                return new PatternStrategy(index);
+
+            case "lcp":
+                return new LcpStrategy(index);
+
+            case "masked":
+                return new MaskedStrategy(index, MaskedStrategy.parseRanges(args));
+
+            default:
+                throw new IllegalArgumentException("Unknown replay mode " + mode);
+        }
+    }
+}
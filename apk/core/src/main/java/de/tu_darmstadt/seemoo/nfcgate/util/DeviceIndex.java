@@ -0,0 +1,111 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Read-only view of the binary device index written by DeviceIndexWriter.
+ * Device names are sorted by their lower case UTF-8 bytes and found by binary search,
+ * only the strings of the matching device are decoded.
+ */
+public final class DeviceIndex {
+    static final int MAGIC = 0x4E474449;
+    static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+    private static final int DEVICE_RECORD = 12;
+    private static final int MODEL_RECORD = 8;
+
+    private final ByteBuffer mBuffer;
+    private final int mDeviceCount;
+    private final int mModelTable;
+    private final int mPool;
+
+    public DeviceIndex(ByteBuffer buffer) throws IOException {
+        // absolute reads only, the buffer position is never used
+        mBuffer = buffer;
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            throw new IOException("Invalid device index header");
+
+        mDeviceCount = buffer.getInt(8);
+        int modelCount = buffer.getInt(12);
+        mModelTable = HEADER_SIZE + mDeviceCount * DEVICE_RECORD;
+        mPool = mModelTable + modelCount * MODEL_RECORD;
+
+        if (mDeviceCount < 0 || modelCount < 0 || mPool > buffer.capacity())
+            throw new IOException("Invalid device index size");
+    }
+
+    public int getDeviceCount() {
+        return mDeviceCount;
+    }
+
+    /**
+     * Returns the market name of the model on the device, both compared ignoring case,
+     * or null if there is none
+     */
+    public String findMarketName(String deviceName, String modelName) {
+        int device = findDevice(deviceName.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+        if (device < 0)
+            return null;
+
+        int record = HEADER_SIZE + device * DEVICE_RECORD;
+        int first = mBuffer.getInt(record + 4);
+        int count = mBuffer.getInt(record + 8);
+
+        for (int i = first; i < first + count; i++) {
+            int model = mModelTable + i * MODEL_RECORD;
+            if (modelName.equalsIgnoreCase(readString(mBuffer.getInt(model))))
+                return readString(mBuffer.getInt(model + 4));
+        }
+
+        return null;
+    }
+
+    private int findDevice(byte[] key) {
+        int low = 0, high = mDeviceCount - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareString(mBuffer.getInt(HEADER_SIZE + mid * DEVICE_RECORD), key);
+
+            if (cmp < 0)
+                low = mid + 1;
+            else if (cmp > 0)
+                high = mid - 1;
+            else
+                return mid;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Compares the pool string at offset with key by unsigned bytes, without decoding it
+     */
+    private int compareString(int offset, byte[] key) {
+        int pos = mPool + offset;
+        int length = mBuffer.getShort(pos) & 0xFFFF;
+
+        for (int i = 0; i < Math.min(length, key.length); i++) {
+            int d = (mBuffer.get(pos + 2 + i) & 0xFF) - (key[i] & 0xFF);
+            if (d != 0)
+                return d;
+        }
+
+        return length - key.length;
+    }
+
+    private String readString(int offset) {
+        int pos = mPool + offset;
+        byte[] bytes = new byte[mBuffer.getShort(pos) & 0xFFFF];
+
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = mBuffer.get(pos + 2 + i);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes the binary device index read by DeviceIndex. Used by the buildDeviceIndex Gradle task
+ * through buildSrc, which compiles this file as well, and by the tests.
+ * Layout: header (magic, version, device count, model count),
+ * devices (name, first model, model count), models (model, market name),
+ * string pool (u16 length + UTF-8 bytes), offsets are relative to the pool.
+ */
+public final class DeviceIndexWriter {
+    // lower case device name bytes to (model, market name) pairs, in the order DeviceIndex searches
+    private final TreeMap<byte[], List<String[]>> mDevices = new TreeMap<>(DeviceIndexWriter::compareBytes);
+
+    /**
+     * Adds a model of the device. Device names are merged ignoring case,
+     * models without a market name are skipped.
+     */
+    public DeviceIndexWriter add(String device, String model, String marketName) {
+        if (model == null || marketName == null || marketName.trim().isEmpty())
+            return this;
+
+        byte[] key = device.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        mDevices.computeIfAbsent(key, k -> new ArrayList<>()).add(new String[] { model, marketName });
+        return this;
+    }
+
+    public void write(OutputStream target) throws IOException {
+        ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        DataOutputStream poolOut = new DataOutputStream(pool);
+        Map<String, Integer> offsets = new HashMap<>();
+
+        ByteArrayOutputStream deviceTable = new ByteArrayOutputStream();
+        DataOutputStream deviceOut = new DataOutputStream(deviceTable);
+        ByteArrayOutputStream modelTable = new ByteArrayOutputStream();
+        DataOutputStream modelOut = new DataOutputStream(modelTable);
+
+        int modelCount = 0;
+        for (Map.Entry<byte[], List<String[]>> e : mDevices.entrySet()) {
+            deviceOut.writeInt(intern(new String(e.getKey(), StandardCharsets.UTF_8), poolOut, offsets));
+            deviceOut.writeInt(modelCount);
+            deviceOut.writeInt(e.getValue().size());
+            for (String[] model : e.getValue()) {
+                modelOut.writeInt(intern(model[0], poolOut, offsets));
+                modelOut.writeInt(intern(model[1], poolOut, offsets));
+                modelCount++;
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(target);
+        out.writeInt(DeviceIndex.MAGIC);
+        out.writeInt(DeviceIndex.VERSION);
+        out.writeInt(mDevices.size());
+        out.writeInt(modelCount);
+        deviceTable.writeTo(out);
+        modelTable.writeTo(out);
+        pool.writeTo(out);
+        out.flush();
+    }
+
+    public byte[] toByteArray() throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        write(result);
+        return result.toByteArray();
+    }
+
+    /**
+     * Returns the pool offset of the string, adding it on first use
+     */
+    private static int intern(String s, DataOutputStream pool, Map<String, Integer> offsets) throws IOException {
+        Integer offset = offsets.get(s);
+        if (offset == null) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF)
+                throw new IOException("String too long for the device index");
+
+            offset = pool.size();
+            offsets.put(s, offset);
+            pool.writeShort(bytes.length);
+            pool.write(bytes);
+        }
+        return offset;
+    }
+
+    private static int compareBytes(byte[] a, byte[] b) {
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            int d = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (d != 0)
+                return d;
+        }
+        return a.length - b.length;
+    }
+}
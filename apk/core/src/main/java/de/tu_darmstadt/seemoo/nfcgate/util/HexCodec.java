@@ -0,0 +1,233 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Table driven hex encoder and parser.
+ * Encoders write into caller supplied targets so hot paths can reuse their buffers.
+ */
+public final class HexCodec {
+    // pass as separator to encode without one
+    public static final char NO_SEPARATOR = 0;
+
+    // bytes per hexdump line
+    private static final int DUMP_LINE = 16;
+
+    // both digits of every byte value, upper case
+    private static final char[] PAIRS = new char[512];
+    // digit value of every ASCII character, -1 if none
+    private static final byte[] DIGITS = new byte[128];
+
+    // bytes encoded per bulk append, the scratch buffer fits them with separators
+    private static final int CHUNK = 256;
+    private static final ThreadLocal<char[]> SCRATCH = new ThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[3 * CHUNK];
+        }
+    };
+
+    static {
+        final char[] digits = "0123456789ABCDEF".toCharArray();
+        for (int i = 0; i < 256; i++) {
+            PAIRS[2 * i] = digits[i >>> 4];
+            PAIRS[2 * i + 1] = digits[i & 0x0F];
+        }
+
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            DIGITS["0123456789abcdef".charAt(i)] = (byte) i;
+            DIGITS["0123456789ABCDEF".charAt(i)] = (byte) i;
+        }
+    }
+
+    private HexCodec() { }
+
+    /**
+     * Number of chars encode writes for len bytes
+     */
+    public static int encodedLength(int len, char separator) {
+        if (len <= 0)
+            return 0;
+        return separator == NO_SEPARATOR ? 2 * len : 3 * len - 1;
+    }
+
+    /**
+     * Encodes len bytes into dst starting at dstOff, returns the number of chars written
+     */
+    public static int encode(byte[] src, int off, int len, char separator, char[] dst, int dstOff) {
+        return encode(src, off, len, separator, false, dst, dstOff);
+    }
+
+    private static int encode(byte[] src, int off, int len, char separator, boolean leading, char[] dst, int dstOff) {
+        int pos = dstOff;
+
+        // separate loops keep the per byte work branch free
+        if (separator == NO_SEPARATOR) {
+            for (int i = off; i < off + len; i++) {
+                int pair = (src[i] & 0xFF) << 1;
+                dst[pos] = PAIRS[pair];
+                dst[pos + 1] = PAIRS[pair + 1];
+                pos += 2;
+            }
+        }
+        else if (len > 0) {
+            if (leading)
+                dst[pos++] = separator;
+
+            int pair = (src[off] & 0xFF) << 1;
+            dst[pos] = PAIRS[pair];
+            dst[pos + 1] = PAIRS[pair + 1];
+            pos += 2;
+
+            for (int i = off + 1; i < off + len; i++) {
+                pair = (src[i] & 0xFF) << 1;
+                dst[pos] = separator;
+                dst[pos + 1] = PAIRS[pair];
+                dst[pos + 2] = PAIRS[pair + 1];
+                pos += 3;
+            }
+        }
+
+        return pos - dstOff;
+    }
+
+    public static StringBuilder append(StringBuilder out, byte[] src, char separator) {
+        return append(out, src, 0, src.length, separator);
+    }
+
+    public static StringBuilder append(StringBuilder out, byte[] src, int off, int len, char separator) {
+        out.ensureCapacity(out.length() + encodedLength(len, separator));
+        char[] scratch = SCRATCH.get();
+
+        // bulk appends of encoded chunks are much cheaper than appending single chars
+        for (int done = 0; done < len; done += CHUNK) {
+            int count = Math.min(CHUNK, len - done);
+            out.append(scratch, 0, encode(src, off + done, count, separator, done > 0, scratch, 0));
+        }
+
+        return out;
+    }
+
+    public static <T extends Appendable> T append(T out, byte[] src, int off, int len, char separator) throws IOException {
+        char[] scratch = SCRATCH.get();
+
+        for (int done = 0; done < len; done += CHUNK) {
+            int count = Math.min(CHUNK, len - done);
+            int chars = encode(src, off + done, count, separator, done > 0, scratch, 0);
+            for (int i = 0; i < chars; i++)
+                out.append(scratch[i]);
+        }
+
+        return out;
+    }
+
+    public static String toHex(byte[] src, char separator) {
+        char[] result = new char[encodedLength(src.length, separator)];
+        encode(src, 0, src.length, separator, result, 0);
+        return new String(result);
+    }
+
+    /**
+     * Appends a multiline hexdump, every line prefixed with the hex offset, e.g.:
+     * 000  01 02 03 ...
+     * 010  10 20 30 ...
+     * The offset has at least 3 digits and grows as needed so it never wraps.
+     */
+    public static StringBuilder appendDump(StringBuilder out, byte[] src) {
+        final int width = offsetWidth(src.length);
+        out.ensureCapacity(out.length() + src.length * 3 + (src.length / DUMP_LINE + 1) * (width + 2));
+        char[] scratch = SCRATCH.get();
+
+        for (int line = 0; line < src.length; line += DUMP_LINE) {
+            int pos = 0;
+
+            // begin of new line with hex offset
+            if (line != 0)
+                scratch[pos++] = '\n';
+            for (int shift = (width - 1) * 4; shift >= 0; shift -= 4)
+                scratch[pos++] = PAIRS[((line >>> shift) & 0x0F) * 2 + 1];
+            scratch[pos++] = ' ';
+
+            pos += encode(src, line, Math.min(DUMP_LINE, src.length - line), ' ', true, scratch, pos);
+            out.append(scratch, 0, pos);
+        }
+
+        return out;
+    }
+
+    public static String toHexDump(byte[] src) {
+        return appendDump(new StringBuilder(), src).toString();
+    }
+
+    /**
+     * Hex digits needed for the offset of the last dump line, at least 3
+     */
+    static int offsetWidth(int length) {
+        int last = Math.max(0, length - 1) & ~(DUMP_LINE - 1);
+        int width = 3;
+        while ((last >>> (4 * width)) != 0)
+            width++;
+        return width;
+    }
+
+    /**
+     * Value of a hex digit, -1 if c is none
+     */
+    public static int digit(char c) {
+        return c < 128 ? DIGITS[c] : -1;
+    }
+
+    /**
+     * Parses hex digits into bytes. Whitespace, ':' and '-' between bytes are ignored,
+     * throws IllegalArgumentException on other characters or an odd number of digits.
+     */
+    public static byte[] parse(CharSequence text) {
+        // count digits first to allocate once
+        int digits = 0;
+        for (int i = 0; i < text.length(); i++)
+            if (!isSeparator(text.charAt(i)))
+                digits++;
+
+        if (digits % 2 != 0)
+            throw new IllegalArgumentException("Odd number of hex digits");
+
+        byte[] result = new byte[digits / 2];
+        parse(text, result, 0);
+        return result;
+    }
+
+    /**
+     * Parses hex digits into dst starting at dstOff, returns the number of bytes written
+     */
+    public static int parse(CharSequence text, byte[] dst, int dstOff) {
+        int pos = dstOff, high = -1;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isSeparator(c))
+                continue;
+
+            int value = digit(c);
+            if (value < 0)
+                throw new IllegalArgumentException("Invalid hex digit '" + c + "' at " + i);
+
+            if (high < 0)
+                high = value;
+            else {
+                dst[pos++] = (byte) ((high << 4) | value);
+                high = -1;
+            }
+        }
+
+        if (high >= 0)
+            throw new IllegalArgumentException("Odd number of hex digits");
+
+        return pos - dstOff;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ':' || c == '-' || Character.isWhitespace(c);
+    }
+}
@@ -0,0 +1,11 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Content that can be written to a file, e.g. to share it
+ */
+public interface IFileShareable {
+    void write(OutputStream stream) throws IOException;
+}
@@ -0,0 +1,110 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket latency histogram with power-of-two microsecond buckets.
+ * Recording is lock-free and allocation-free, percentiles are resolved to the bucket upper bound.
+ */
+public final class LatencyHistogram {
+    // bucket 0 holds [0, 1) us, bucket i holds [2^(i-1), 2^i) us, the last bucket is open
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong mCount = new AtomicLong();
+    private final AtomicLong mTotalNs = new AtomicLong();
+    private final AtomicLong mMaxNs = new AtomicLong();
+
+    /**
+     * Records one sample that started at the given System.nanoTime() value
+     */
+    public void recordSince(long startNs) {
+        record(System.nanoTime() - startNs);
+    }
+
+    /**
+     * Records one sample of the given duration
+     */
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+
+        mBuckets.incrementAndGet(bucketOf(nanos));
+        mCount.incrementAndGet();
+        mTotalNs.addAndGet(nanos);
+
+        for (long max = mMaxNs.get(); nanos > max; max = mMaxNs.get())
+            if (mMaxNs.compareAndSet(max, nanos))
+                break;
+    }
+
+    public long getCount() {
+        return mCount.get();
+    }
+
+    public long getMaxNs() {
+        return mMaxNs.get();
+    }
+
+    public long getMeanNs() {
+        long count = mCount.get();
+        return count > 0 ? mTotalNs.get() / count : 0;
+    }
+
+    /**
+     * Returns an upper bound for the given percentile (0-100) in nanoseconds, 0 if empty
+     */
+    public long getPercentileNs(double percentile) {
+        long count = mCount.get();
+        if (count == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += mBuckets.get(i);
+            if (seen >= rank)
+                return Math.min(upperBoundNs(i), mMaxNs.get());
+        }
+
+        return mMaxNs.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+            mBuckets.set(i, 0);
+
+        mCount.set(0);
+        mTotalNs.set(0);
+        mMaxNs.set(0);
+    }
+
+    private static int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    private static long upperBoundNs(int bucket) {
+        return bucket >= BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) * 1000;
+    }
+
+    /**
+     * Formats a duration in nanoseconds as a short human readable string
+     */
+    public static String formatNanos(long nanos) {
+        if (nanos >= 1_000_000L)
+            return String.format(Locale.US, "%.2f ms", nanos / 1_000_000.0);
+
+        return String.format(Locale.US, "%.1f µs", nanos / 1_000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "n=%d, mean=%s, p50=%s, p99=%s, max=%s", getCount(),
+                formatNanos(getMeanNs()), formatNanos(getPercentileNs(50)),
+                formatNanos(getPercentileNs(99)), formatNanos(getMaxNs()));
+    }
+}
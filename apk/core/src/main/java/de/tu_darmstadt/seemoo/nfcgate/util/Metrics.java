@@ -0,0 +1,179 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-app registry of named counters, gauges and latency histograms (no PII, no payloads).
+ * Updating a metric is lock-free, readers only see point-in-time values.
+ * Names are dotted lower case identifiers, they are written to JSON unescaped.
+ */
+public final class Metrics {
+    /**
+     * Monotonic event counter
+     */
+    public static final class Counter {
+        // LongAdder needs API 24
+        private final AtomicLong mValue = new AtomicLong();
+
+        public void inc() {
+            mValue.incrementAndGet();
+        }
+
+        public void add(long delta) {
+            mValue.addAndGet(delta);
+        }
+
+        public long get() {
+            return mValue.get();
+        }
+    }
+
+    /**
+     * Last sampled value, also keeps the highest value seen
+     */
+    public static final class Gauge {
+        private final AtomicLong mValue = new AtomicLong();
+        private final AtomicLong mMax = new AtomicLong();
+
+        public void set(long value) {
+            mValue.set(value);
+
+            for (long max = mMax.get(); value > max; max = mMax.get())
+                if (mMax.compareAndSet(max, value))
+                    break;
+        }
+
+        public long get() {
+            return mValue.get();
+        }
+
+        public long getMax() {
+            return mMax.get();
+        }
+    }
+
+    private static final ConcurrentMap<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Gauge> GAUGES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    // health counters
+    public static final Counter DROPPED_SEND_MESSAGES = counter("network.dropped_sends");
+    public static final Counter WATCHDOG_RECONNECTS = counter("network.watchdog_reconnects");
+    public static final Counter DROPPED_LOG_ENTRIES = counter("log.dropped_entries");
+
+    // log writer
+    public static final Counter LOG_ENTRIES = counter("log.entries");
+    public static final Gauge LOG_QUEUE_DEPTH = gauge("log.queue_depth");
+    public static final Gauge LOG_BATCH_SIZE = gauge("log.batch_size");
+    public static final LatencyHistogram LOG_INSERT = histogram("log.insert");
+    // from LogInserter.log() until the batch containing the entry is committed
+    public static final LatencyHistogram LOG_COMMIT = histogram("log.commit");
+
+    // pcapng files
+    public static final Counter PCAPNG_PACKETS_READ = counter("pcapng.packets_read");
+    public static final Counter PCAPNG_PACKETS_WRITTEN = counter("pcapng.packets_written");
+    public static final LatencyHistogram PCAPNG_READ = histogram("pcapng.read");
+    public static final LatencyHistogram PCAPNG_WRITE = histogram("pcapng.write");
+
+    // nfc round trips
+    public static final LatencyHistogram TAG_TRANSCEIVE = histogram("nfc.transceive");
+    public static final LatencyHistogram HCE_RESPONSE = histogram("hce.response");
+
+    private Metrics() {}
+
+    public static Counter counter(String name) {
+        Counter counter = COUNTERS.get(name);
+        if (counter == null) {
+            COUNTERS.putIfAbsent(name, new Counter());
+            counter = COUNTERS.get(name);
+        }
+        return counter;
+    }
+
+    public static Gauge gauge(String name) {
+        Gauge gauge = GAUGES.get(name);
+        if (gauge == null) {
+            GAUGES.putIfAbsent(name, new Gauge());
+            gauge = GAUGES.get(name);
+        }
+        return gauge;
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = HISTOGRAMS.get(name);
+        if (histogram == null) {
+            HISTOGRAMS.putIfAbsent(name, new LatencyHistogram());
+            histogram = HISTOGRAMS.get(name);
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns name and human readable value of every metric, sorted by name
+     */
+    public static List<String[]> describe() {
+        List<String[]> result = new ArrayList<>();
+
+        for (String name : sorted(COUNTERS))
+            result.add(new String[] { name, String.valueOf(COUNTERS.get(name).get()) });
+        for (String name : sorted(GAUGES)) {
+            Gauge gauge = GAUGES.get(name);
+            result.add(new String[] { name, String.format(Locale.US, "%d (max %d)", gauge.get(), gauge.getMax()) });
+        }
+        for (String name : sorted(HISTOGRAMS))
+            result.add(new String[] { name, HISTOGRAMS.get(name).toString() });
+
+        Collections.sort(result, (a, b) -> a[0].compareTo(b[0]));
+        return result;
+    }
+
+    /**
+     * Snapshot of all metrics as a JSON object, durations in nanoseconds
+     */
+    public static String toJson() {
+        StringBuilder sb = new StringBuilder("{\n  \"counters\": {");
+        String separator = "";
+        for (String name : sorted(COUNTERS)) {
+            sb.append(separator).append("\n    \"").append(name).append("\": ").append(COUNTERS.get(name).get());
+            separator = ",";
+        }
+
+        sb.append("\n  },\n  \"gauges\": {");
+        separator = "";
+        for (String name : sorted(GAUGES)) {
+            Gauge gauge = GAUGES.get(name);
+            sb.append(separator).append("\n    \"").append(name).append("\": {\"value\": ").append(gauge.get())
+                    .append(", \"max\": ").append(gauge.getMax()).append('}');
+            separator = ",";
+        }
+
+        sb.append("\n  },\n  \"histograms\": {");
+        separator = "";
+        for (String name : sorted(HISTOGRAMS)) {
+            LatencyHistogram histogram = HISTOGRAMS.get(name);
+            sb.append(separator).append("\n    \"").append(name).append("\": {")
+                    .append("\"count\": ").append(histogram.getCount())
+                    .append(", \"mean_ns\": ").append(histogram.getMeanNs())
+                    .append(", \"p50_ns\": ").append(histogram.getPercentileNs(50))
+                    .append(", \"p90_ns\": ").append(histogram.getPercentileNs(90))
+                    .append(", \"p99_ns\": ").append(histogram.getPercentileNs(99))
+                    .append(", \"max_ns\": ").append(histogram.getMaxNs()).append('}');
+            separator = ",";
+        }
+
+        return sb.append("\n  }\n}\n").toString();
+    }
+
+    private static List<String> sorted(Map<String, ?> metrics) {
+        List<String> names = new ArrayList<>(metrics.keySet());
+        Collections.sort(names);
+        return names;
+    }
+}
@@ -70,6 +70,20 @@ public class NfcComm {
         return mData.getData().toByteArray();
     }
 
+    /**
+     * Length of the data without copying it
+     */
+    public int getDataLength() {
+        return mData.getData().size();
+    }
+
+    /**
+     * Single unsigned byte of the data without copying it
+     */
+    public int getDataByte(int index) {
+        return mData.getData().byteAt(index) & 0xFF;
+    }
+
     /**
      * Returns serialized NFCData
      */
@@ -79,9 +93,11 @@ public class NfcComm {
 
     @Override
     public String toString() {
-        String letter = isCard() ? "C" : "R";
-        String initial = isInitial() ? "(initial) " : "";
-        String data = Utils.bytesToHex(getData());
-        return String.format("%s: %s%s", letter, initial, data);
+        StringBuilder result = new StringBuilder(16 + 3 * getDataLength());
+        result.append(isCard() ? "C: " : "R: ");
+        if (isInitial())
+            result.append("(initial) ");
+
+        return HexCodec.append(result, getData(), ':').toString();
     }
 }
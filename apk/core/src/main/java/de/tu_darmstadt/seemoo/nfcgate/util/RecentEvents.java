@@ -0,0 +1,106 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Small in-memory ring buffer for diagnostics only.
+ * Keep messages short and avoid storing payloads.
+ * Adding an event is lock-free and only stores references, formatting happens in snapshot().
+ */
+public final class RecentEvents {
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final int MAX_MESSAGE = 400;
+
+    private static final String[] LEVELS = { "INFO", "WARN", "ERROR" };
+    private static final int INFO = 0, WARN = 1, ERROR = 2;
+
+    // per event: timestamp and level in the ring, the message in the same slot of MESSAGES
+    private static final SeqlockRing SLOTS = new SeqlockRing(DEFAULT_CAPACITY, 2);
+    private static final AtomicReferenceArray<String> MESSAGES = new AtomicReferenceArray<>(DEFAULT_CAPACITY);
+
+    private RecentEvents() {}
+
+    public static void info(String message) {
+        add(INFO, message);
+    }
+
+    public static void warn(String message) {
+        add(WARN, message);
+    }
+
+    public static void error(String message) {
+        add(ERROR, message);
+    }
+
+    public static void error(String message, Throwable t) {
+        if (t == null) {
+            error(message);
+            return;
+        }
+        String suffix = t.getClass().getSimpleName();
+        String details = t.getMessage();
+        if (details != null && !details.trim().isEmpty()) {
+            suffix += ": " + details.trim();
+        }
+        add(ERROR, message + " (" + suffix + ")");
+    }
+
+    public static List<String> snapshot(int maxLines) {
+        int limit = Math.min(Math.max(0, maxLines), DEFAULT_CAPACITY);
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+
+        long last = SLOTS.last();
+        long first = Math.max(1, last - limit + 1);
+        ArrayList<String> out = new ArrayList<>((int) (last - first + 1));
+
+        for (long seq = first; seq <= last; seq++) {
+            // copy the slot and drop it if a producer rewrote it meanwhile
+            if (!SLOTS.isPublished(seq)) {
+                continue;
+            }
+            long timestamp = SLOTS.get(seq, 0);
+            int level = (int) SLOTS.get(seq, 1);
+            String message = MESSAGES.get(SLOTS.slot(seq));
+            if (!SLOTS.isPublished(seq)) {
+                continue;
+            }
+
+            out.add(format.format(new Date(timestamp)) + " [" + LEVELS[level] + "] " + trim(message));
+        }
+        return out;
+    }
+
+    public static String dump(int maxLines) {
+        List<String> lines = snapshot(maxLines);
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) {
+            sb.append("- ").append(line).append("\n");
+        }
+        return sb.toString();
+    }
+
+    private static String trim(String message) {
+        String m = message == null ? "" : message.trim();
+        if (m.length() > MAX_MESSAGE) {
+            m = m.substring(0, MAX_MESSAGE) + "…";
+        }
+        return m;
+    }
+
+    private static void add(int level, String message) {
+        long seq = SLOTS.begin();
+        if (seq == 0) {
+            return;
+        }
+
+        SLOTS.put(seq, 0, System.currentTimeMillis());
+        SLOTS.put(seq, 1, level);
+        MESSAGES.lazySet(SLOTS.slot(seq), message);
+        SLOTS.publish(seq);
+    }
+}
@@ -0,0 +1,83 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free ring of fixed-size records of long fields, shared by the diagnostics rings.
+ * Every slot starts with a sequence word: the published sequence, or its negation while a writer owns the slot.
+ * Writers never wait. A writer drops its record if the slot is owned by another writer
+ * or already holds a newer sequence, which only happens when writers lap each other around the ring.
+ * Readers copy a record between two isPublished() checks and discard it if either fails.
+ */
+final class SeqlockRing {
+    private final AtomicLongArray mSlots;
+    private final AtomicLong mNext = new AtomicLong(0);
+    private final int mMask;
+    private final int mStride;
+
+    /**
+     * @param capacity number of records, a power of two
+     * @param fields longs per record, excluding the sequence word
+     */
+    SeqlockRing(int capacity, int fields) {
+        if (Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Capacity must be a power of two");
+
+        mSlots = new AtomicLongArray(capacity * (fields + 1));
+        mMask = capacity - 1;
+        mStride = fields + 1;
+    }
+
+    int capacity() {
+        return mMask + 1;
+    }
+
+    /**
+     * Sequence of the newest claimed record, 0 if none. Sequences start at 1.
+     */
+    long last() {
+        return mNext.get();
+    }
+
+    /**
+     * Index of the slot holding the sequence, for data kept outside the ring
+     */
+    int slot(long seq) {
+        return (int) (seq & mMask);
+    }
+
+    /**
+     * Claims the next sequence and takes ownership of its slot.
+     * Returns the sequence, or 0 if the record has to be dropped.
+     */
+    long begin() {
+        long seq = mNext.incrementAndGet();
+        int base = slot(seq) * mStride;
+
+        // another writer is mid-record, or a writer that lapped us already published
+        long current = mSlots.get(base);
+        if (current < 0 || current >= seq)
+            return 0;
+        return mSlots.compareAndSet(base, current, -seq) ? seq : 0;
+    }
+
+    void put(long seq, int field, long value) {
+        mSlots.lazySet(slot(seq) * mStride + 1 + field, value);
+    }
+
+    /**
+     * Releases the slot, readers see the record from now on
+     */
+    void publish(long seq) {
+        mSlots.lazySet(slot(seq) * mStride, seq);
+    }
+
+    boolean isPublished(long seq) {
+        return mSlots.get(slot(seq) * mStride) == seq;
+    }
+
+    long get(long seq, int field) {
+        return mSlots.get(slot(seq) * mStride + 1 + field);
+    }
+}
@@ -0,0 +1,130 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Lock-free ring of fixed-size binary trace records for the per-APDU hot paths.
+ * Recording only stores the event, a timestamp, the length and the first bytes of the payload,
+ * formatting happens when the ring is dumped into the diagnostics export.
+ */
+public final class Trace {
+    public enum Event {
+        APDU_IN,
+        APDU_OUT,
+        NFC_HANDLE_LOCAL,
+        NFC_HANDLE_FOREIGN,
+        NFC_APPLY,
+        NET_ENQUEUE,
+        NET_SEND,
+        NET_RECEIVE,
+        NET_MESSAGE,
+    }
+
+    // payload bytes kept per record
+    public static final int PREFIX_BYTES = 16;
+
+    // record fields: timestamp, event and length, two words of payload prefix
+    private static final SeqlockRing RECORDS = new SeqlockRing(1024, 4);
+
+    private Trace() {}
+
+    public static void record(Event event, int length) {
+        write(event, length, 0, 0);
+    }
+
+    public static void record(Event event, byte[] data) {
+        if (data == null) {
+            write(event, 0, 0, 0);
+            return;
+        }
+
+        long hi = 0, lo = 0;
+        for (int i = 0; i < Math.min(PREFIX_BYTES, data.length); i++) {
+            if (i < 8)
+                hi |= (data[i] & 0xFFL) << (56 - 8 * i);
+            else
+                lo |= (data[i] & 0xFFL) << (56 - 8 * (i - 8));
+        }
+        write(event, data.length, hi, lo);
+    }
+
+    public static void record(Event event, NfcComm comm) {
+        // reads single bytes to avoid copying the payload
+        int length = comm.getDataLength();
+        long hi = 0, lo = 0;
+        for (int i = 0; i < Math.min(PREFIX_BYTES, length); i++) {
+            if (i < 8)
+                hi |= (long) comm.getDataByte(i) << (56 - 8 * i);
+            else
+                lo |= (long) comm.getDataByte(i) << (56 - 8 * (i - 8));
+        }
+        write(event, length, hi, lo);
+    }
+
+    private static void write(Event event, int length, long hi, long lo) {
+        long seq = RECORDS.begin();
+        if (seq == 0)
+            return;
+
+        RECORDS.put(seq, 0, System.currentTimeMillis());
+        RECORDS.put(seq, 1, ((long) event.ordinal() << 32) | (length & 0xFFFFFFFFL));
+        RECORDS.put(seq, 2, hi);
+        RECORDS.put(seq, 3, lo);
+        RECORDS.publish(seq);
+    }
+
+    /**
+     * Total number of records written, including overwritten ones
+     */
+    public static long count() {
+        return RECORDS.last();
+    }
+
+    /**
+     * Formats up to maxRecords of the newest records, oldest first.
+     * Records overwritten while dumping, or dropped by a lapped writer, are skipped.
+     */
+    public static String dump(int maxRecords) {
+        final SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss.SSS", Locale.US);
+        final Event[] events = Event.values();
+        final byte[] prefix = new byte[PREFIX_BYTES];
+        final StringBuilder sb = new StringBuilder();
+
+        long last = RECORDS.last();
+        long first = Math.max(1, last - Math.min(maxRecords, RECORDS.capacity()) + 1);
+
+        for (long seq = first; seq <= last; seq++) {
+            // copy the record and check it was not rewritten meanwhile
+            if (!RECORDS.isPublished(seq))
+                continue;
+            long timestamp = RECORDS.get(seq, 0);
+            long info = RECORDS.get(seq, 1);
+            long hi = RECORDS.get(seq, 2);
+            long lo = RECORDS.get(seq, 3);
+            if (!RECORDS.isPublished(seq))
+                continue;
+
+            int event = (int) (info >>> 32);
+            int length = (int) info;
+            for (int i = 0; i < 8; i++) {
+                prefix[i] = (byte) (hi >>> (56 - 8 * i));
+                prefix[8 + i] = (byte) (lo >>> (56 - 8 * i));
+            }
+
+            sb.append("- ").append(format.format(new Date(timestamp)))
+                    .append(' ').append(event < events.length ? events[event].name() : String.valueOf(event))
+                    .append(" len=").append(length);
+            if (length > 0) {
+                sb.append(' ');
+                HexCodec.append(sb, prefix, 0, Math.min(PREFIX_BYTES, length), ':');
+                if (length > PREFIX_BYTES)
+                    sb.append("…");
+            }
+            sb.append('\n');
+        }
+
+        return sb.toString();
+    }
+}
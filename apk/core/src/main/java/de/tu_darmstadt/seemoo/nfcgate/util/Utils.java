@@ -0,0 +1,42 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+public class Utils {
+
+    /**
+     * Convert a byte-array to a hexadecimal String with bytes separated by ':'.
+     * @param bytes
+     * @return Colon-separated hex-string from byte-array.
+     */
+    public static String bytesToHex(byte[] bytes) {
+        return bytesToHex(bytes, ':');
+    }
+
+    /**
+     * Convert a byte-array to a hexadecimal String.
+     *
+     * @param bytes Byte[] to convert to String
+     * @param separator Separator between bytes
+     * @return Byte[] as hex-string
+     */
+    public static String bytesToHex(byte[] bytes, char separator) {
+        return HexCodec.toHex(bytes, separator);
+    }
+    public static String bytesToHex(byte b) {
+        return bytesToHex(new byte[]{ b });
+    }
+
+    /**
+     * Convert a byte-array to a multiline hexdump String.
+     *
+     * Every line is prefixed with the hex offset, e.g.:
+     * 000  01 02 03 ...
+     * 010  10 20 30 ...
+     * The offset grows beyond 3 digits for payloads above 4 KiB instead of wrapping.
+     *
+     * @param bytes Byte[] to convert to String
+     * @return Byte[] as hexdump string
+     */
+    public static String bytesToHexDump(byte[] bytes) {
+        return HexCodec.toHexDump(bytes);
+    }
+}
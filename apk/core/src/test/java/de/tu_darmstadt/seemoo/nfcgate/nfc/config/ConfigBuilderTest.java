@@ -0,0 +1,114 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc.config;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Round-trips random config streams through the view based parser, including truncated and garbage input.
+ */
+public class ConfigBuilderTest {
+    private static final int STREAMS = 2_000;
+
+    /**
+     * Random stream of complete options, known and unknown types, lengths up to 255
+     */
+    private static byte[] randomStream(Random random) {
+        ConfigBuilder builder = new ConfigBuilder();
+        OptionType[] known = OptionType.values();
+
+        for (int i = random.nextInt(8); i > 0; i--) {
+            int type = random.nextBoolean() ? known[random.nextInt(known.length)].value : random.nextInt(256);
+            byte[] data = new byte[random.nextInt(4) == 0 ? random.nextInt(256) : random.nextInt(12)];
+            random.nextBytes(data);
+            builder.add(new ConfigOption(type, data, 0, data.length));
+        }
+
+        return builder.build();
+    }
+
+    @Test
+    public void roundTrip() {
+        Random random = new Random(1);
+
+        for (int i = 0; i < STREAMS; i++) {
+            byte[] stream = randomStream(random);
+            ConfigBuilder parsed = new ConfigBuilder(stream);
+
+            assertArrayEquals(stream, parsed.build());
+
+            // unknown types are kept raw, nothing is null
+            for (ConfigOption option : parsed.getOptions())
+                assertEquals(OptionType.fromType(option.getRawType()), option.getType());
+
+            // build into the middle of a caller buffer
+            byte[] buffer = new byte[stream.length + 8];
+            assertEquals(stream.length, parsed.build(buffer, 4));
+            for (int j = 0; j < stream.length; j++)
+                assertEquals(stream[j], buffer[4 + j]);
+        }
+    }
+
+    @Test
+    public void parsesUnsignedLengthAndEmptyOptions() {
+        byte[] data = new byte[200];
+        ConfigBuilder builder = new ConfigBuilder();
+        builder.add(OptionType.LA_HIST_BY, data);
+        builder.add(new ConfigOption(0xEE, new byte[0], 0, 0));
+
+        ConfigBuilder parsed = new ConfigBuilder(builder.build());
+        assertEquals(2, parsed.getOptions().size());
+        assertEquals(200, parsed.getOptions().get(0).len());
+        assertEquals(OptionType.LA_HIST_BY, parsed.getOptions().get(0).getType());
+        assertNull(parsed.getOptions().get(1).getType());
+        assertEquals(0xEE, parsed.getOptions().get(1).getRawType());
+        assertTrue(parsed.toString().contains("Unknown (0xEE)"));
+    }
+
+    @Test
+    public void truncatedStreams() {
+        Random random = new Random(2);
+
+        for (int i = 0; i < STREAMS; i++) {
+            byte[] stream = randomStream(random);
+            if (stream.length == 0)
+                continue;
+
+            // cutting anywhere keeps the complete options before the cut
+            int cut = random.nextInt(stream.length);
+            byte[] truncated = new byte[cut];
+            System.arraycopy(stream, 0, truncated, 0, cut);
+
+            ConfigView view = new ConfigView(truncated);
+            int end = 0;
+            while (view.next())
+                end = view.offset() + view.length();
+
+            assertEquals(cut != end, view.isTruncated());
+            assertArrayEquals(java.util.Arrays.copyOf(truncated, end), new ConfigBuilder(truncated).build());
+        }
+    }
+
+    @Test
+    public void randomGarbageNeverThrows() {
+        Random random = new Random(3);
+
+        for (int i = 0; i < STREAMS; i++) {
+            byte[] garbage = new byte[random.nextInt(300)];
+            random.nextBytes(garbage);
+
+            ConfigBuilder parsed = new ConfigBuilder(garbage);
+            assertTrue(parsed.length() <= garbage.length);
+            assertNotNull(parsed.toString());
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void buildRejectsSmallBuffer() {
+        ConfigBuilder builder = new ConfigBuilder();
+        builder.add(OptionType.LA_NFCID1, new byte[7]);
+        builder.build(new byte[8], 0);
+    }
+}
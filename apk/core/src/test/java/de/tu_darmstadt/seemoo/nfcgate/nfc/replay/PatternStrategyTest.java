@@ -0,0 +1,145 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc.replay;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * Checks the compressed trie against a linear scan of the log, on short commands
+ * and on extended-length payloads sharing long prefixes.
+ */
+public class PatternStrategyTest {
+    /**
+     * Best score with the lowest rank over all requesting-side entries
+     */
+    private static int predictLinear(List<NfcComm> log, boolean requestIsCard, byte[] request, int replayIndex) {
+        int cIndex = -1, cScore = -1;
+        long cRank = Long.MAX_VALUE;
+
+        for (int i = 0; i < log.size(); i++) {
+            if (log.get(i).isCard() != requestIsCard)
+                continue;
+
+            int score = PatternStrategy.calcScore(log.get(i).getData(), request);
+            long rank = i > replayIndex ? i - replayIndex : Math.max(0, log.size() - replayIndex) + i;
+            if (score > cScore || (score == cScore && rank < cRank)) {
+                cIndex = i;
+                cScore = score;
+                cRank = rank;
+            }
+        }
+
+        return cIndex;
+    }
+
+    @Test
+    public void commands() {
+        // alternating reader/card log made of a small command vocabulary with varying parameters
+        Random random = new Random(42);
+        List<NfcComm> log = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            boolean card = (i & 1) == 1;
+            byte[] data;
+
+            if (card) {
+                data = new byte[2 + random.nextInt(32)];
+                random.nextBytes(data);
+                data[data.length - 2] = (byte) 0x90;
+                data[data.length - 1] = 0x00;
+            } else {
+                data = new byte[5 + random.nextInt(12)];
+                random.nextBytes(data);
+                data[0] = 0x00;
+                data[1] = (byte) (0xA4 + 2 * random.nextInt(4));
+                data[2] = (byte) random.nextInt(4);
+            }
+
+            log.add(new NfcComm(card, false, data, 0));
+        }
+        PatternStrategy strategy = new PatternStrategy(new ReplayLogIndex(log, false));
+
+        // requests: log entries with a mutated byte plus unrelated data
+        for (int i = 0; i < 500; i++) {
+            byte[] request = log.get(2 * random.nextInt(log.size() / 2)).getData();
+            request[random.nextInt(request.length)] ^= (byte) (1 + random.nextInt(255));
+            if (random.nextInt(10) == 0)
+                random.nextBytes(request);
+
+            int replayIndex = random.nextInt(log.size() + 1);
+            assertEquals(predictLinear(log, false, request, replayIndex), strategy.predict(request, replayIndex));
+        }
+    }
+
+    @Test
+    public void emptySide() {
+        List<NfcComm> log = new ArrayList<>();
+        log.add(new NfcComm(true, false, new byte[] { (byte) 0x90, 0x00 }, 0));
+
+        assertEquals(-1, new PatternStrategy(new ReplayLogIndex(log, false)).predict(new byte[] { 0x00 }, 0));
+    }
+
+    @Test
+    public void extendedLengthPayloads() {
+        Random random = new Random(3);
+        byte[] common = new byte[65_000];
+        random.nextBytes(common);
+
+        // long payloads branching off the same prefix at various depths, a few short ones
+        List<NfcComm> log = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            byte[] data;
+            if (i % 8 == 7) {
+                data = new byte[2 + random.nextInt(20)];
+                random.nextBytes(data);
+            } else {
+                data = common.clone();
+                int branch = random.nextInt(common.length);
+                data[branch] ^= (byte) (1 + random.nextInt(255));
+                if (random.nextBoolean())
+                    data = Arrays.copyOf(data, branch + 1 + random.nextInt(common.length - branch));
+            }
+
+            log.add(new NfcComm(false, false, new byte[] { 0x00, (byte) 0xC0, 0x00, 0x00, 0x00 }, 0));
+            log.add(new NfcComm(true, false, data, 0));
+        }
+        PatternStrategy strategy = new PatternStrategy(new ReplayLogIndex(log, true));
+
+        for (int i = 0; i < 200; i++) {
+            byte[] request = log.get(1 + 2 * random.nextInt(log.size() / 2)).getData();
+            switch (random.nextInt(3)) {
+                case 0: request[random.nextInt(request.length)] ^= 0x5A; break;
+                case 1: request = Arrays.copyOf(request, 1 + random.nextInt(request.length)); break;
+                default: break;
+            }
+
+            int replayIndex = random.nextInt(log.size() + 1);
+            assertEquals(predictLinear(log, true, request, replayIndex), strategy.predict(request, replayIndex));
+        }
+    }
+
+    @Test
+    public void prefixPayloads() {
+        // payloads that are prefixes of each other end inside former edge labels
+        List<NfcComm> log = new ArrayList<>();
+        byte[][] payloads = {
+                { 1, 2, 3, 4, 5, 6 }, { 1, 2, 3 }, { 1, 2, 3, 4, 9 }, { 1 }, { }, { 7, 7 }
+        };
+        for (byte[] payload : payloads)
+            log.add(new NfcComm(true, false, payload, 0));
+        PatternStrategy strategy = new PatternStrategy(new ReplayLogIndex(log, true));
+
+        byte[][] requests = {
+                { 1, 2, 3, 4, 5, 6 }, { 1, 2, 3, 4 }, { 1, 2, 3, 4, 9, 9 }, { 1, 2 }, { }, { 7 }, { 8, 8, 8 }
+        };
+        for (byte[] request : requests)
+            for (int replayIndex = 0; replayIndex <= log.size(); replayIndex++)
+                assertEquals(predictLinear(log, true, request, replayIndex), strategy.predict(request, replayIndex));
+    }
+}
@@ -0,0 +1,81 @@
+package de.tu_darmstadt.seemoo.nfcgate.nfc.replay;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.tu_darmstadt.seemoo.nfcgate.util.NfcComm;
+
+/**
+ * Replays synthetic sessions through both sides without any device
+ */
+public class ReplaySimulatorTest {
+    private static final String[] MODES = { "index", "pattern", "lcp", "masked:5-" };
+
+    /**
+     * Initial tag data followed by alternating reader commands and card responses
+     */
+    private static List<NfcComm> makeSession(long seed, int exchanges) {
+        Random random = new Random(seed);
+        List<NfcComm> log = new ArrayList<>();
+        log.add(new NfcComm(true, true, new byte[] { 0x04, 0x00, 0x20 }, 0));
+
+        for (int i = 0; i < exchanges; i++) {
+            byte[] command = new byte[5 + random.nextInt(8)];
+            random.nextBytes(command);
+            command[0] = 0x00;
+            command[1] = (byte) 0xB0;
+
+            byte[] response = new byte[2 + random.nextInt(16)];
+            random.nextBytes(response);
+            response[response.length - 2] = (byte) 0x90;
+            response[response.length - 1] = 0x00;
+
+            log.add(new NfcComm(false, false, command, 0));
+            log.add(new NfcComm(true, false, response, 0));
+        }
+
+        return log;
+    }
+
+    @Test
+    public void replayAgainstItself() {
+        List<NfcComm> log = makeSession(1, 5_000);
+
+        for (String mode : MODES) {
+            ReplaySimulator.Result result = new ReplaySimulator(mode, log).run(Integer.MAX_VALUE);
+
+            assertEquals(log.size(), result.steps);
+            assertEquals(0, result.mismatches);
+            assertTrue(result.completed);
+        }
+    }
+
+    @Test
+    public void divergingTag() {
+        List<NfcComm> readerLog = makeSession(2, 100);
+        List<NfcComm> tagLog = new ArrayList<>(readerLog);
+
+        // the tag answers differently to the tenth command
+        tagLog.set(20, new NfcComm(true, false, new byte[] { 0x6A, (byte) 0x82 }, 0));
+
+        for (String mode : MODES) {
+            ReplaySimulator.Result result = new ReplaySimulator(mode, readerLog, tagLog).run(Integer.MAX_VALUE);
+
+            assertTrue(result.mismatches > 0);
+            assertEquals(20, result.divergences.get(0).expectedIndex);
+        }
+    }
+
+    @Test
+    public void stepLimit() {
+        ReplaySimulator.Result result = new ReplaySimulator("index", makeSession(3, 100)).run(10);
+
+        assertEquals(10, result.steps);
+        assertFalse(result.completed);
+    }
+}
@@ -0,0 +1,93 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.tu_darmstadt.seemoo.nfcgate.db.pcapng.ISO14443Stream;
+
+/**
+ * Checks that generated workloads are reproducible and shaped like a card/reader exchange.
+ */
+public class ApduWorkloadTest {
+    private static final int ENTRIES = 5_000;
+
+    private static void assertSameLog(List<NfcComm> expected, List<NfcComm> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).isCard(), actual.get(i).isCard());
+            assertEquals(expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+            assertArrayEquals(expected.get(i).getData(), actual.get(i).getData());
+        }
+    }
+
+    @Test
+    public void reproducible() {
+        assertSameLog(new ApduWorkload(7).generate(ENTRIES), new ApduWorkload(7).generate(ENTRIES));
+    }
+
+    @Test
+    public void exchanges() {
+        List<NfcComm> log = new ApduWorkload(3).generate(ENTRIES);
+        assertTrue(log.get(0).isInitial());
+
+        for (int i = 1; i < log.size(); i++) {
+            NfcComm entry = log.get(i);
+            assertFalse(entry.isInitial());
+            // commands and responses alternate, time never goes backwards
+            assertEquals((i & 1) == 0, entry.isCard());
+            assertTrue(entry.getTimestamp() >= log.get(i - 1).getTimestamp());
+
+            byte[] data = entry.getData();
+            if (entry.isCard())
+                assertTrue(data.length == 2 || (data[data.length - 2] == (byte) 0x90 && data[data.length - 1] == 0x00));
+            else
+                assertTrue(data.length >= 5);
+        }
+    }
+
+    /**
+     * Adds command header to response mappings of the log, fails on a conflicting response
+     */
+    private static void collectResponses(List<NfcComm> log, Map<String, String> responses) {
+        for (int i = 1; i + 1 < log.size(); i += 2) {
+            byte[] command = log.get(i).getData();
+            String header = HexCodec.toHex(Arrays.copyOf(command, 4), HexCodec.NO_SEPARATOR);
+            String response = HexCodec.toHex(log.get(i + 1).getData(), HexCodec.NO_SEPARATOR);
+
+            String previous = responses.putIfAbsent(header, response);
+            assertTrue(previous == null || previous.equals(response));
+        }
+    }
+
+    @Test
+    public void sameCardSameResponses() {
+        // different taps of one card answer every command header identically
+        List<NfcComm> log = new ApduWorkload(5, 1).generate(ENTRIES);
+        List<NfcComm> other = new ApduWorkload(5, 2).generate(ENTRIES);
+        assertArrayEquals(log.get(0).getData(), other.get(0).getData());
+
+        Map<String, String> responses = new HashMap<>();
+        collectResponses(log, responses);
+        collectResponses(other, responses);
+    }
+
+    @Test
+    public void pcapngRoundTrip() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ApduWorkload(9).writePcapng(out, 500);
+
+        List<NfcComm> read = new ISO14443Stream().readAll(new ByteArrayInputStream(out.toByteArray()));
+        List<NfcComm> expected = new ApduWorkload(9).generate(500);
+        assertEquals(expected.size(), read.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertArrayEquals(expected.get(i).getData(), read.get(i).getData());
+    }
+}
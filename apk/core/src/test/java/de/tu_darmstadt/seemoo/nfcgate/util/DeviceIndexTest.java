@@ -0,0 +1,80 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks lookups in the binary device index, also on an index of realistic size.
+ */
+public class DeviceIndexTest {
+    private static ByteBuffer buildIndex(Map<String, List<String[]>> json) throws IOException {
+        DeviceIndexWriter writer = new DeviceIndexWriter();
+        for (Map.Entry<String, List<String[]>> e : json.entrySet())
+            for (String[] model : e.getValue())
+                writer.add(e.getKey(), model[0], model[1]);
+        return ByteBuffer.wrap(writer.toByteArray());
+    }
+
+    private static List<String[]> models(String... modelAndName) {
+        List<String[]> result = new ArrayList<>();
+        for (int i = 0; i < modelAndName.length; i += 2)
+            result.add(new String[] { modelAndName[i], modelAndName[i + 1] });
+        return result;
+    }
+
+    @Test
+    public void findsMarketNames() throws IOException {
+        Map<String, List<String[]>> json = new HashMap<>();
+        json.put("bullhead", models("AWM-A0", "Shark 1S", "Nexus 5X", "Nexus 5X"));
+        json.put("BullHead", models("OTHER-1", "Other"));
+        json.put("ünïcode", models("ü1", "Ü Phone"));
+        json.put("blank", models("B1", " "));
+        DeviceIndex index = new DeviceIndex(buildIndex(json));
+
+        // case variants are merged, a device without market names is dropped
+        assertEquals(2, index.getDeviceCount());
+        assertEquals("Shark 1S", index.findMarketName("bullhead", "awm-a0"));
+        assertEquals("Nexus 5X", index.findMarketName("BULLHEAD", "Nexus 5X"));
+        // case variants of a device name are merged
+        assertEquals("Other", index.findMarketName("bullhead", "OTHER-1"));
+        assertEquals("Ü Phone", index.findMarketName("ÜNÏCODE", "Ü1"));
+
+        assertNull(index.findMarketName("blank", "B1"));
+        assertNull(index.findMarketName("bullhead", "unknown"));
+        assertNull(index.findMarketName("bull", "AWM-A0"));
+        assertNull(index.findMarketName("zzz", "AWM-A0"));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsInvalidHeader() throws IOException {
+        new DeviceIndex(ByteBuffer.wrap(new byte[16]));
+    }
+
+    @Test
+    public void largeIndex() throws IOException {
+        // about the size of the certified device list
+        Random random = new Random(1);
+        Map<String, List<String[]>> json = new HashMap<>();
+        while (json.size() < 30_000) {
+            String name = Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+            json.put(name, models("M-" + name + "-0", "Market " + name, "M-" + name + "-1", "Other " + name));
+        }
+
+        DeviceIndex index = new DeviceIndex(buildIndex(json));
+        assertEquals(json.size(), index.getDeviceCount());
+        for (String name : json.keySet()) {
+            assertEquals("Market " + name, index.findMarketName(name, "M-" + name + "-0"));
+            assertEquals("Other " + name, index.findMarketName(name.toUpperCase(Locale.ROOT), "m-" + name + "-1"));
+        }
+    }
+}
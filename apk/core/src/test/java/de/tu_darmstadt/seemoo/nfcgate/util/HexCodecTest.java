@@ -0,0 +1,113 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Checks the table driven codec against the previous char[] based implementation on APDU-sized payloads.
+ */
+public class HexCodecTest {
+    private static final int PAYLOADS = 1_000;
+
+    private static final char[] hexArray = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Previous Utils.bytesToHex
+     */
+    private static String legacyHex(byte[] bytes, char separator) {
+        char[] hexChars = new char[bytes.length * 3];
+
+        for (int j = 0; j < bytes.length; j++) {
+            int v = bytes[j] & 0xFF;
+            hexChars[j * 3] = hexArray[v >>> 4];
+            hexChars[j * 3 + 1] = hexArray[v & 0x0F];
+            hexChars[j * 3 + 2] = separator;
+        }
+
+        return new String(hexChars, 0, hexChars.length - 1);
+    }
+
+    /**
+     * Previous Utils.bytesToHexDump
+     */
+    private static String legacyDump(byte[] bytes) {
+        int lines = bytes.length / 16 + 1;
+        int linePreamble = 5;
+        char[] hexChars = new char[bytes.length * 3 + lines * linePreamble];
+        for (int j = 0, l = 0; j < bytes.length; j++) {
+            int v = bytes[j] & 0xFF;
+            int baseIx = l * linePreamble + j * 3;
+
+            if ((j % 16) == 0) {
+                if (j != 0) {
+                    l++;
+                    baseIx = l * linePreamble + j * 3;
+                    hexChars[baseIx] = '\n';
+                }
+
+                hexChars[baseIx + 1] = hexArray[(j >>> 8) & 0x0F];
+                hexChars[baseIx + 2] = hexArray[(j >>> 4) & 0x0F];
+                hexChars[baseIx + 3] = hexArray[j & 0x0F];
+                hexChars[baseIx + 4] = ' ';
+            }
+
+            hexChars[baseIx + linePreamble] = ' ';
+            hexChars[baseIx + linePreamble + 1] = hexArray[v >>> 4];
+            hexChars[baseIx + linePreamble + 2] = hexArray[v & 0x0F];
+        }
+        return new String(hexChars, 1, hexChars.length - 1);
+    }
+
+    private static byte[][] makePayloads(Random random) {
+        byte[][] payloads = new byte[PAYLOADS][];
+        for (int i = 0; i < PAYLOADS; i++) {
+            payloads[i] = new byte[1 + random.nextInt(260)];
+            random.nextBytes(payloads[i]);
+        }
+        return payloads;
+    }
+
+    @Test
+    public void matchesLegacy() {
+        for (byte[] payload : makePayloads(new Random(1))) {
+            assertEquals(legacyHex(payload, ':'), HexCodec.toHex(payload, ':'));
+            // the previous dump left NUL padding behind payloads of a multiple of 16 bytes
+            assertEquals(legacyDump(payload).replace("\0", ""), HexCodec.toHexDump(payload));
+        }
+    }
+
+    @Test
+    public void dumpOffsetDoesNotWrap() {
+        byte[] payload = new byte[0x1010];
+        String[] lines = HexCodec.toHexDump(payload).split("\n");
+
+        assertEquals(0x101, lines.length);
+        assertTrue(lines[0].startsWith("0000  00"));
+        assertTrue(lines[0x100].startsWith("1000  00"));
+    }
+
+    @Test
+    public void parseRoundTrip() {
+        for (byte[] payload : makePayloads(new Random(2))) {
+            assertArrayEquals(payload, HexCodec.parse(HexCodec.toHex(payload, ':')));
+            assertArrayEquals(payload, HexCodec.parse(HexCodec.toHex(payload, HexCodec.NO_SEPARATOR).toLowerCase(Locale.ROOT)));
+        }
+
+        assertArrayEquals(new byte[] { 0x00, (byte) 0xA4, 0x04 }, HexCodec.parse(" 00 a4-04 "));
+        assertEquals(0, HexCodec.parse("").length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseRejectsOddLength() {
+        HexCodec.parse("00A");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseRejectsInvalidDigit() {
+        HexCodec.parse("0G");
+    }
+}
@@ -0,0 +1,41 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Checks registry lookups and the JSON snapshot of the diagnostics export.
+ */
+public class MetricsTest {
+    @Test
+    public void sameNameSameMetric() {
+        assertSame(Metrics.counter("test.counter"), Metrics.counter("test.counter"));
+        assertSame(Metrics.LOG_INSERT, Metrics.histogram("log.insert"));
+    }
+
+    @Test
+    public void gaugeKeepsMax() {
+        Metrics.Gauge gauge = Metrics.gauge("test.gauge");
+        gauge.set(5);
+        gauge.set(12);
+        gauge.set(3);
+
+        assertEquals(3, gauge.get());
+        assertEquals(12, gauge.getMax());
+    }
+
+    @Test
+    public void jsonSnapshot() {
+        Metrics.counter("test.json").add(7);
+        Metrics.histogram("test.latency").record(1_500);
+
+        String json = Metrics.toJson();
+        assertTrue(json.contains("\"test.json\": 7"));
+        assertTrue(json.contains("\"test.latency\": {\"count\": 1, \"mean_ns\": 1500, \"p50_ns\": 1500"));
+        assertTrue(json.startsWith("{") && json.trim().endsWith("}"));
+        // no dangling separators between entries
+        assertFalse(json.contains(",\n  }"));
+        assertFalse(json.contains("{,"));
+    }
+}
@@ -0,0 +1,57 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Checks ordering and trimming of the ring and that events survive many producer threads intact.
+ */
+public class RecentEventsTest {
+    private static final int PRODUCERS = 16;
+    private static final int EVENTS = 20_000;
+
+    @Test
+    public void keepsNewestInOrder() {
+        for (int i = 0; i < 300; i++)
+            RecentEvents.warn("event " + i);
+
+        List<String> lines = RecentEvents.snapshot(3);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).endsWith("[WARN] event 297"));
+        assertTrue(lines.get(2).endsWith("[WARN] event 299"));
+    }
+
+    @Test
+    public void trimsOnFormat() {
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < 500; i++)
+            message.append('x');
+
+        RecentEvents.error("  " + message + "  ", new IllegalStateException("bad"));
+        List<String> lines = RecentEvents.snapshot(1);
+        assertTrue(lines.get(0).endsWith("[ERROR] " + message.substring(0, 400) + "…"));
+    }
+
+    @Test
+    public void concurrentProducers() throws InterruptedException {
+        Thread[] threads = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < EVENTS; i++)
+                    RecentEvents.info("producer event");
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        // every event that survives must be intact
+        List<String> lines = RecentEvents.snapshot(256);
+        assertFalse(lines.isEmpty());
+        for (String line : lines)
+            assertTrue(line, line.endsWith("[INFO] producer event"));
+    }
+}
@@ -0,0 +1,91 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Checks slot ownership when writers lap each other, and that readers never accept a mixed record.
+ */
+public class SeqlockRingTest {
+    @Test
+    public void lappedWriterDrops() {
+        SeqlockRing ring = new SeqlockRing(2, 1);
+
+        // 1 is still being written when 3 claims the same slot
+        long first = ring.begin();
+        long second = ring.begin();
+        ring.put(second, 0, 2);
+        ring.publish(second);
+        assertEquals(0, ring.begin());
+        assertEquals(3, ring.last());
+
+        ring.put(first, 0, 1);
+        ring.publish(first);
+        assertTrue(ring.isPublished(1));
+        assertEquals(1, ring.get(1, 0));
+        assertFalse(ring.isPublished(3));
+
+        // a free slot holding an older record is reused
+        assertEquals(4, ring.begin());
+        assertEquals(5, ring.begin());
+        assertFalse(ring.isPublished(1));
+    }
+
+    @Test
+    public void concurrentWritersNeverMix() throws InterruptedException {
+        // a tiny ring makes writers lap each other constantly
+        final SeqlockRing ring = new SeqlockRing(4, 3);
+        final AtomicBoolean done = new AtomicBoolean(false);
+        Thread[] threads = new Thread[8];
+
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    long seq = ring.begin();
+                    if (seq == 0)
+                        continue;
+                    ring.put(seq, 0, seq);
+                    ring.put(seq, 1, ~seq);
+                    ring.put(seq, 2, seq * 31);
+                    ring.publish(seq);
+                }
+            });
+            threads[t].start();
+        }
+
+        Thread stopper = new Thread(() -> {
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException ignored) {
+                }
+            }
+            done.set(true);
+        });
+        stopper.start();
+
+        long accepted = 0;
+        while (!done.get()) {
+            long last = ring.last();
+            for (long seq = Math.max(1, last - 3); seq <= last; seq++) {
+                if (!ring.isPublished(seq))
+                    continue;
+                long a = ring.get(seq, 0), b = ring.get(seq, 1), c = ring.get(seq, 2);
+                if (!ring.isPublished(seq))
+                    continue;
+
+                assertEquals(seq, a);
+                assertEquals(~seq, b);
+                assertEquals(seq * 31, c);
+                accepted++;
+            }
+        }
+        stopper.join();
+
+        assertEquals(8 * 200_000L, ring.last());
+        assertTrue(accepted > 0);
+    }
+}
@@ -0,0 +1,70 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Checks record layout and that concurrent writers never produce torn records in a dump.
+ */
+public class TraceTest {
+    @Test
+    public void dumpsPrefixAndLength() {
+        byte[] apdu = new byte[20];
+        for (int i = 0; i < apdu.length; i++)
+            apdu[i] = (byte) (0xF0 + i);
+
+        Trace.record(Trace.Event.APDU_IN, apdu);
+        Trace.record(Trace.Event.APDU_OUT, new byte[] { (byte) 0x90, 0x00 });
+
+        String[] lines = Trace.dump(2).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("APDU_IN len=20 F0:F1:F2:F3:F4:F5:F6:F7:F8:F9:FA:FB:FC:FD:FE:FF…"));
+        assertTrue(lines[1].endsWith("APDU_OUT len=2 90:00"));
+    }
+
+    @Test
+    public void concurrentWritersKeepRecordsIntact() throws InterruptedException {
+        final int writers = 8, perWriter = 50_000;
+        Thread[] threads = new Thread[writers];
+
+        for (int t = 0; t < writers; t++) {
+            // every writer stores its id in all payload bytes and as the length
+            final byte id = (byte) (t + 1);
+            final byte[] payload = new byte[t + 1];
+            Arrays.fill(payload, id);
+
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < perWriter; i++)
+                    Trace.record(Trace.Event.NET_SEND, payload);
+            });
+        }
+
+        long before = Trace.count();
+        for (Thread thread : threads)
+            thread.start();
+
+        // dump while writing, every record that makes it out must be consistent
+        int checked = 0;
+        while (checked < 20) {
+            for (String line : Trace.dump(1024).split("\n")) {
+                if (!line.contains("NET_SEND"))
+                    continue;
+
+                int length = Integer.parseInt(line.substring(line.indexOf("len=") + 4, line.indexOf(' ', line.indexOf("len="))));
+                String expected = String.format(Locale.ROOT, "%02X", length);
+                for (String digits : line.substring(line.lastIndexOf(' ') + 1).split(":"))
+                    assertEquals(expected, digits);
+            }
+            checked++;
+        }
+
+        for (Thread thread : threads)
+            thread.join();
+
+        assertEquals(before + (long) writers * perWriter, Trace.count());
+    }
+}
@@ -0,0 +1,201 @@
+package de.tu_darmstadt.seemoo.nfcgate.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import de.tu_darmstadt.seemoo.nfcgate.db.pcapng.ISO14443Stream;
+import de.tu_darmstadt.seemoo.nfcgate.nfc.config.ConfigBuilder;
+import de.tu_darmstadt.seemoo.nfcgate.nfc.config.OptionType;
+
+/**
+ * Seeded reader/card traffic for benchmarks and stress tests, modeled on EMV payment taps.
+ * The stream starts with the initial card data, followed by transactions of
+ * SELECT PPSE, SELECT AID, GET PROCESSING OPTIONS, READ RECORD and GENERATE AC exchanges.
+ * Timestamps are milliseconds and include card processing time and pauses between taps.
+ *
+ * The card seed fixes the card: its UID, file layout and the response to every command header.
+ * The traffic seed varies the reader challenges and where taps are cut short, so two workloads
+ * of the same card send the same commands in a different sequence.
+ */
+public final class ApduWorkload {
+    /**
+     * Receives the generated entries in order
+     */
+    public interface Sink {
+        void accept(NfcComm comm) throws IOException;
+    }
+
+    private static final byte[] SELECT_PPSE = { 0x00, (byte) 0xA4, 0x04, 0x00, 0x0E,
+            '2', 'P', 'A', 'Y', '.', 'S', 'Y', 'S', '.', 'D', 'D', 'F', '0', '1', 0x00 };
+    private static final byte[] SELECT_AID = { 0x00, (byte) 0xA4, 0x04, 0x00, 0x07,
+            (byte) 0xA0, 0x00, 0x00, 0x00, 0x03, 0x10, 0x10, 0x00 };
+    private static final byte[] RECORD_NOT_FOUND = { 0x6A, (byte) 0x83 };
+    private static final long START_TIMESTAMP = 1_600_000_000_000L;
+
+    private final long mCardSeed;
+    private final Random mRandom;
+    // records of each short file identifier, index 0 is SFI 1
+    private final int[] mRecords;
+    private final byte[] mConfig;
+
+    private final Deque<NfcComm> mPending = new ArrayDeque<>();
+    private long mTimestamp = START_TIMESTAMP;
+    private boolean mStarted = false;
+
+    public ApduWorkload(long seed) {
+        this(seed, seed);
+    }
+
+    public ApduWorkload(long cardSeed, long trafficSeed) {
+        Random card = new Random(cardSeed);
+        mCardSeed = cardSeed;
+        mConfig = config(card);
+        mRecords = new int[1 + card.nextInt(3)];
+        for (int i = 0; i < mRecords.length; i++)
+            mRecords[i] = 1 + card.nextInt(6);
+
+        mRandom = new Random(trafficSeed);
+    }
+
+    /**
+     * Initial card data of a typical ISO-DEP type A card
+     */
+    public static byte[] config(Random random) {
+        byte[] uid = new byte[7], hist = new byte[8 + random.nextInt(8)];
+        random.nextBytes(uid);
+        random.nextBytes(hist);
+
+        ConfigBuilder builder = new ConfigBuilder();
+        builder.add(OptionType.LA_NFCID1, uid);
+        builder.add(OptionType.LA_SEL_INFO, (byte) 0x20);
+        builder.add(OptionType.LA_BIT_FRAME_SDD, (byte) 0x44);
+        builder.add(OptionType.LA_PLATFORM_CONFIG, (byte) 0x00);
+        builder.add(OptionType.LA_HIST_BY, hist);
+        return builder.build();
+    }
+
+    /**
+     * Returns the next entry, the first one is the initial card data
+     */
+    public NfcComm next() {
+        if (!mStarted) {
+            mStarted = true;
+            return new NfcComm(true, true, mConfig, mTimestamp);
+        }
+
+        if (mPending.isEmpty())
+            transaction();
+        return mPending.poll();
+    }
+
+    public List<NfcComm> generate(int entries) {
+        List<NfcComm> result = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++)
+            result.add(next());
+        return result;
+    }
+
+    public void writeTo(Sink sink, int entries) throws IOException {
+        for (int i = 0; i < entries; i++)
+            sink.accept(next());
+    }
+
+    /**
+     * Writes the entries as one pcapng file
+     */
+    public void writePcapng(OutputStream out, int entries) throws IOException {
+        new ISO14443Stream().append(generate(entries)).write(out);
+    }
+
+    /**
+     * Queues the exchanges of one tap, a tenth of all taps end early when the card is pulled away
+     */
+    private void transaction() {
+        // previous tap ended, card is presented again
+        if (mTimestamp != START_TIMESTAMP)
+            mTimestamp += 300 + mRandom.nextInt(1200);
+        int remaining = mRandom.nextInt(10) == 0 ? 1 + mRandom.nextInt(6) : Integer.MAX_VALUE;
+
+        if (!exchange(SELECT_PPSE, 2, 6, remaining--) || !exchange(SELECT_AID, 2, 6, remaining--))
+            return;
+
+        // PDOL data: amount, country, date and unpredictable number
+        byte[] gpo = command(0x80, 0xA8, 0x00, 0x00, 2 + 14 + mRandom.nextInt(20));
+        gpo[5] = (byte) 0x83;
+        gpo[6] = (byte) (gpo.length - 8);
+        if (!exchange(gpo, 3, 10, remaining--))
+            return;
+
+        // records in AFL order, the reader probes one past the last record of every file
+        for (int sfi = 1; sfi <= mRecords.length; sfi++)
+            for (int record = 1; record <= mRecords[sfi - 1] + 1; record++)
+                if (!exchange(new byte[] { 0x00, (byte) 0xB2, (byte) record, (byte) (sfi << 3 | 4), 0x00 }, 2, 6, remaining--))
+                    return;
+
+        exchange(command(0x80, 0xAE, 0x80, 0x00, 29 + mRandom.nextInt(38)), 40, 120, remaining);
+    }
+
+    /**
+     * Command APDU with random data of the given length and Le 00
+     */
+    private byte[] command(int cla, int ins, int p1, int p2, int length) {
+        byte[] apdu = new byte[5 + length + 1];
+        mRandom.nextBytes(apdu);
+        apdu[0] = (byte) cla;
+        apdu[1] = (byte) ins;
+        apdu[2] = (byte) p1;
+        apdu[3] = (byte) p2;
+        apdu[4] = (byte) length;
+        apdu[apdu.length - 1] = 0x00;
+        return apdu;
+    }
+
+    /**
+     * Queues a command and the card response after minMs..maxMs of processing time.
+     * Returns false once the tap was cut short.
+     */
+    private boolean exchange(byte[] command, int minMs, int maxMs, int remaining) {
+        if (remaining <= 0)
+            return false;
+
+        mPending.add(new NfcComm(false, false, command, mTimestamp));
+        mTimestamp += minMs + mRandom.nextInt(maxMs - minMs + 1);
+        mPending.add(new NfcComm(true, false, response(command), mTimestamp));
+        // reader turnaround
+        mTimestamp += 1 + mRandom.nextInt(4);
+        return true;
+    }
+
+    /**
+     * Response of this card to the command, it only depends on the command header
+     */
+    private byte[] response(byte[] command) {
+        int ins = command[1] & 0xFF;
+        int record = command[2] & 0xFF;
+        int sfi = (command[3] & 0xFF) >> 3;
+        if (ins == 0xB2 && (sfi > mRecords.length || record > mRecords[sfi - 1]))
+            return RECORD_NOT_FOUND;
+
+        int header = (command[0] & 0xFF) << 24 | ins << 16 | record << 8 | (command[3] & 0xFF);
+        Random random = new Random(mCardSeed * 31 + header);
+
+        int length;
+        switch (ins) {
+            case 0xA4: length = 30 + random.nextInt(60); break;
+            case 0xA8: length = 16 + random.nextInt(24); break;
+            case 0xB2: length = 30 + random.nextInt(220); break;
+            default: length = 28 + random.nextInt(12); break;
+        }
+
+        byte[] response = new byte[length + 2];
+        random.nextBytes(response);
+        response[length] = (byte) 0x90;
+        response[length + 1] = 0x00;
+        return response;
+    }
+}
@@ -0,0 +1,149 @@
+package de.tu_darmstadt.seemoo.nfcgate.xposed;
+
+import android.os.Bundle;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Low-overhead timing counters for hook sites.
+ * Every site keeps a call count, the total and maximum duration and a coarse histogram.
+ */
+public class HookStats {
+    // exclusive upper bounds of the histogram buckets in nanoseconds, the last bucket is open
+    public static final long[] BUCKET_BOUNDS_NS = new long[] {
+            10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L
+    };
+
+    /**
+     * Counters of a single hook site, safe to update from any thread
+     */
+    public static class Site {
+        private final String mName;
+        private final AtomicLong mCount = new AtomicLong();
+        private final AtomicLong mTotalNs = new AtomicLong();
+        private final AtomicLong mMaxNs = new AtomicLong();
+        private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_BOUNDS_NS.length + 1);
+
+        Site(String name) {
+            mName = name;
+        }
+
+        /**
+         * Records one call that started at the given System.nanoTime() value
+         */
+        public void record(long startNs) {
+            long elapsed = System.nanoTime() - startNs;
+
+            mCount.incrementAndGet();
+            mTotalNs.addAndGet(elapsed);
+            mBuckets.incrementAndGet(bucketOf(elapsed));
+
+            // only contended if two calls set a new maximum at the same time
+            for (long max = mMaxNs.get(); elapsed > max; max = mMaxNs.get())
+                if (mMaxNs.compareAndSet(max, elapsed))
+                    break;
+        }
+
+        Bundle toBundle() {
+            long[] buckets = new long[mBuckets.length()];
+            for (int i = 0; i < buckets.length; i++)
+                buckets[i] = mBuckets.get(i);
+
+            Bundle result = new Bundle();
+            result.putLong("count", mCount.get());
+            result.putLong("totalNs", mTotalNs.get());
+            result.putLong("maxNs", mMaxNs.get());
+            result.putLongArray("buckets", buckets);
+            return result;
+        }
+
+        private static int bucketOf(long elapsedNs) {
+            for (int i = 0; i < BUCKET_BOUNDS_NS.length; i++)
+                if (elapsedNs < BUCKET_BOUNDS_NS[i])
+                    return i;
+
+            return BUCKET_BOUNDS_NS.length;
+        }
+    }
+
+    /**
+     * Immutable copy of the counters of a single hook site
+     */
+    public static class Snapshot {
+        public final String name;
+        public final long count;
+        public final long totalNs;
+        public final long maxNs;
+        public final long[] buckets;
+
+        Snapshot(String name, Bundle site) {
+            this.name = name;
+            this.count = site.getLong("count");
+            this.totalNs = site.getLong("totalNs");
+            this.maxNs = site.getLong("maxNs");
+            this.buckets = site.getLongArray("buckets");
+        }
+
+        public long getAverageNs() {
+            return count > 0 ? totalNs / count : 0;
+        }
+    }
+
+    private final Map<String, Site> mSites = new LinkedHashMap<>();
+
+    /**
+     * Returns the site with the given name, creating it on first use
+     */
+    public synchronized Site site(String name) {
+        Site site = mSites.get(name);
+        if (site == null) {
+            site = new Site(name);
+            mSites.put(name, site);
+        }
+        return site;
+    }
+
+    /**
+     * Appends the current counters of all sites to the given Bundle
+     */
+    public synchronized Bundle writeTo(Bundle out) {
+        ArrayList<String> names = out.getStringArrayList("sites");
+        if (names == null)
+            names = new ArrayList<>();
+
+        for (Site site : mSites.values()) {
+            names.add(site.mName);
+            out.putBundle("site:" + site.mName, site.toBundle());
+        }
+
+        out.putStringArrayList("sites", names);
+        return out;
+    }
+
+    public Bundle toBundle() {
+        return writeTo(new Bundle());
+    }
+
+    /**
+     * Reads all site snapshots from a Bundle created by writeTo
+     */
+    public static List<Snapshot> fromBundle(Bundle in) {
+        List<Snapshot> result = new ArrayList<>();
+        ArrayList<String> names = in != null ? in.getStringArrayList("sites") : null;
+
+        if (names != null) {
+            for (String name : names) {
+                Bundle site = in.getBundle("site:" + name);
+                if (site != null)
+                    result.add(new Snapshot(name, site));
+            }
+        }
+
+        return result;
+    }
+}
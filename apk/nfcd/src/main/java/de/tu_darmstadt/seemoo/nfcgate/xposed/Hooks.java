@@ -17,6 +17,7 @@ import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
 
 import de.robv.android.xposed.IXposedHookLoadPackage;
 import de.robv.android.xposed.XC_MethodHook;
@@ -36,6 +37,17 @@ public class Hooks implements IXposedHookLoadPackage {
     private Object mReceiver;
     private Object mNfcServiceInstance;
 
+    // timing counters per hook site, reported through the receiver
+    private final HookStats mStats = new HookStats();
+    private final HookStats.Site mStatsFindSelectAidBefore = mStats.site("findSelectAid (before)");
+    private final HookStats.Site mStatsFindSelectAid = mStats.site("findSelectAid (after)");
+    private final HookStats.Site mStatsMaxTransceiveLength = mStats.site("getMaxTransceiveLength");
+    private final HookStats.Site mStatsTransceive = mStats.site("transceive");
+    private final HookStats.Site mStatsDispatchTag = mStats.site("dispatchTag");
+    private final HookStats.Site mStatsHostEmulationData = mStats.site("onHostEmulationData");
+    private final HookStats.Site mStatsHostEmulationActivated = mStats.site("onHostEmulationActivated");
+    private final HookStats.Site mStatsSendData = mStats.site("sendData");
+
     public void handleLoadPackage(final LoadPackageParam lpparam) {
         // hook our own NfcManager to indicate that the hook is loaded and active
         if ("de.tu_darmstadt.seemoo.nfcgate".equals(lpparam.packageName)) {
@@ -60,6 +72,9 @@ public class Hooks implements IXposedHookLoadPackage {
                     mReceiver = loadOrInjectClass((Application) param.args[0],
                             "de.tu_darmstadt.seemoo.nfcgate", getClass().getClassLoader(),
                             lpparam.classLoader, "de.tu_darmstadt.seemoo.nfcgate.xposed.InjectionBroadcastWrapper");
+
+                    // let the receiver report our hook timings alongside its own
+                    setHookStatsSource();
                 }
             });
 
@@ -69,21 +84,31 @@ public class Hooks implements IXposedHookLoadPackage {
                     byte[].class, new XC_MethodHook() {
                 @Override
                 protected void beforeHookedMethod(MethodHookParam param) throws Throwable {
-                    Log.i("HOOKNFC", "HostEmulationManager::findSelectAid; data: " + Utils.bytesToHex((byte[]) param.args[0]));
-                    super.beforeHookedMethod(param);
+                    final long start = System.nanoTime();
+                    try {
+                        Log.i("HOOKNFC", "HostEmulationManager::findSelectAid; data: " + Utils.bytesToHex((byte[]) param.args[0]));
+                        super.beforeHookedMethod(param);
+                    } finally {
+                        mStatsFindSelectAidBefore.record(start);
+                    }
                 }
 
                 @Override
                 protected void afterHookedMethod(MethodHookParam param) {
-                    Log.i("HOOKNFC", "HostEmulationManager::findSelectAid; old result: " + param.getResult());
-
-                    if (isPatchEnabled()) {
-                        // setting a result will overwrite the original result
-                        // F0010203040506 is an aid registered by the nfcgate hce service
-                        param.setResult("F0010203040506");
-                        Log.i("HOOKNFC", "HostEmulationManager::findSelectAid; changing result to F0010203040506");
-                    } else
-                        Log.i("HOOKNFC", "HostEmulationManager::findSelectAid; patch not enabled, not changing AID");
+                    final long start = System.nanoTime();
+                    try {
+                        Log.i("HOOKNFC", "HostEmulationManager::findSelectAid; old result: " + param.getResult());
+
+                        if (isPatchEnabled()) {
+                            // setting a result will overwrite the original result
+                            // F0010203040506 is an aid registered by the nfcgate hce service
+                            param.setResult("F0010203040506");
+                            Log.i("HOOKNFC", "HostEmulationManager::findSelectAid; changing result to F0010203040506");
+                        } else
+                            Log.i("HOOKNFC", "HostEmulationManager::findSelectAid; patch not enabled, not changing AID");
+                    } finally {
+                        mStatsFindSelectAid.record(start);
+                    }
                 }
             });
 
@@ -94,11 +119,14 @@ public class Hooks implements IXposedHookLoadPackage {
                     int.class, new XC_MethodHook() {
                 @Override
                 protected void beforeHookedMethod(MethodHookParam param) {
+                    final long start = System.nanoTime();
 
                     int technology = (int) param.args[0];
                     if (technology == 3 /* 3=TagTechnology.ISO_DEP */) {
                         param.setResult(2462);
                     }
+
+                    mStatsMaxTransceiveLength.record(start);
                 }
             });
 
@@ -108,16 +136,20 @@ public class Hooks implements IXposedHookLoadPackage {
                     int.class, byte[].class, boolean.class, new XC_MethodHook() {
                 @Override
                 protected void afterHookedMethod(MethodHookParam param) throws Throwable {
-                    if (isCaptureEnabled()) {
-                        byte[] commandData = (byte[]) param.args[1];
-                        addCaptureData(false, commandData);
-
-                        byte[] responseData = (byte[]) param.getResult().getClass().getMethod("getResponseOrThrow").invoke(param.getResult());
-                        addCaptureData(true, responseData);
-
-                        Log.i("HOOKNFC", "Captured tag read");
+                    final long start = System.nanoTime();
+                    try {
+                        if (isCaptureEnabled()) {
+                            byte[] commandData = (byte[]) param.args[1];
+                            addCaptureData(false, commandData);
+
+                            byte[] responseData = (byte[]) param.getResult().getClass().getMethod("getResponseOrThrow").invoke(param.getResult());
+                            addCaptureData(true, responseData);
+
+                            Log.i("HOOKNFC", "Captured tag read");
+                        }
+                    } finally {
+                        mStatsTransceive.record(start);
                     }
-
                 }
             });
 
@@ -127,6 +159,7 @@ public class Hooks implements IXposedHookLoadPackage {
                     Tag.class, new XC_MethodHook() {
                 @Override
                 protected void afterHookedMethod(MethodHookParam param) {
+                    final long start = System.nanoTime();
                     dumpAIDRegistrations();
 
                     if (isCaptureEnabled()) {
@@ -135,6 +168,8 @@ public class Hooks implements IXposedHookLoadPackage {
 
                         Log.i("HOOKNFC", "Captured initial data");
                     }
+
+                    mStatsDispatchTag.record(start);
                 }
             });
 
@@ -144,6 +179,7 @@ public class Hooks implements IXposedHookLoadPackage {
                     byte[].class, new XC_MethodHook() {
                 @Override
                 protected void afterHookedMethod(MethodHookParam param) {
+                    final long start = System.nanoTime();
 
                     if (isCaptureEnabled()) {
                         byte[] commandData = (byte[]) param.args[0];
@@ -151,6 +187,8 @@ public class Hooks implements IXposedHookLoadPackage {
 
                         Log.i("HOOKNFC", "Captured HCE request");
                     }
+
+                    mStatsHostEmulationData.record(start);
                 }
             });
 
@@ -160,6 +198,7 @@ public class Hooks implements IXposedHookLoadPackage {
                     new XC_MethodHook() {
                 @Override
                 protected void afterHookedMethod(MethodHookParam param) {
+                    final long start = System.nanoTime();
                     dumpAIDRegistrations();
 
                     if (isCaptureEnabled()) {
@@ -167,6 +206,8 @@ public class Hooks implements IXposedHookLoadPackage {
 
                         Log.i("HOOKNFC", "Captured HCE initial data");
                     }
+
+                    mStatsHostEmulationActivated.record(start);
                 }
             });
 
@@ -176,6 +217,7 @@ public class Hooks implements IXposedHookLoadPackage {
                     byte[].class, new XC_MethodHook() {
                 @Override
                 protected void afterHookedMethod(MethodHookParam param) {
+                    final long start = System.nanoTime();
 
                     if (isCaptureEnabled()) {
                         byte[] responseData = (byte[]) param.args[0];
@@ -183,6 +225,8 @@ public class Hooks implements IXposedHookLoadPackage {
 
                         Log.i("HOOKNFC", "Captured HCE response");
                     }
+
+                    mStatsSendData.record(start);
                 }
             });
         }
@@ -234,6 +278,17 @@ public class Hooks implements IXposedHookLoadPackage {
         }
     }
 
+    private void setHookStatsSource() {
+        // the receiver may live in another class loader, only share platform types with it
+        Callable<Bundle> source = mStats::toBundle;
+
+        try {
+            mReceiver.getClass().getMethod("setHookStatsSource", Callable.class).invoke(mReceiver, source);
+        } catch (Exception e) {
+            Log.e("HOOKNFC", "Failed to set hook stats source", e);
+        }
+    }
+
     private void dumpAIDRegistrations() {
         try {
             Object nfcService = mNfcServiceInstance;
@@ -13,12 +13,21 @@ import android.os.HandlerThread;
 import android.util.Log;
 
 import java.util.ArrayList;
+import java.util.concurrent.Callable;
 
 public class InjectionBroadcastWrapper extends BroadcastReceiver {
     private final Context mCtx;
     private boolean mCaptureEnabled = false;
     private final ArrayList<Bundle> mCaptured = new ArrayList<>();
 
+    // timing counters of native calls, hook timings are provided by Hooks
+    private final HookStats mNativeStats = new HookStats();
+    private final HookStats.Site mStatsInstallHooks = mNativeStats.site("native installHooks");
+    private final HookStats.Site mStatsIsPatchEnabled = mNativeStats.site("native isPatchEnabled");
+    private final HookStats.Site mStatsSetConfig = mNativeStats.site("native setConfig");
+    private final HookStats.Site mStatsResetConfig = mNativeStats.site("native resetConfig");
+    private Callable<Bundle> mHookStatsSource = null;
+
     @SuppressLint("UnspecifiedRegisterReceiverFlag")
     public InjectionBroadcastWrapper(Context ctx) {
         mCtx = ctx;
@@ -41,7 +50,10 @@ public class InjectionBroadcastWrapper extends BroadcastReceiver {
     }
 
     public HookResult installHooks() {
+        final long start = System.nanoTime();
         HookResult result = HookResult.fromValue(Native.Instance.installHooks());
+        mStatsInstallHooks.record(start);
+
         if (result == HookResult.ERROR_FATAL)
             Log.e("HOOKNFC", "Native hook failed (fatal)");
         else if (result == HookResult.ERROR_RETRY)
@@ -55,7 +67,10 @@ public class InjectionBroadcastWrapper extends BroadcastReceiver {
     /** @noinspection unused*/
     // used by Hooks
     public boolean isPatchEnabled() {
-        return Native.Instance.isPatchEnabled();
+        final long start = System.nanoTime();
+        boolean result = Native.Instance.isPatchEnabled();
+        mStatsIsPatchEnabled.record(start);
+        return result;
     }
 
     /** @noinspection unused*/
@@ -70,16 +85,26 @@ public class InjectionBroadcastWrapper extends BroadcastReceiver {
         mCaptured.add(capture);
     }
 
+    /** @noinspection unused*/
+    // used by Hooks
+    public void setHookStatsSource(Callable<Bundle> source) {
+        mHookStatsSource = source;
+    }
+
     @Override
     public void onReceive(Context context, Intent intent) {
         String op = intent.getStringExtra("op");
         Log.i("NATIVENFC", "Command: " + op);
 
         if ("SET_CONFIG".equals(op)) {
+            final long start = System.nanoTime();
             Native.Instance.setConfig(intent.getByteArrayExtra("config"));
+            mStatsSetConfig.record(start);
         }
         else if ("RESET_CONFIG".equals(op)) {
+            final long start = System.nanoTime();
             Native.Instance.resetConfig();
+            mStatsResetConfig.record(start);
         }
         else if ("SET_CAPTURE".equals(op)) {
             mCaptureEnabled = intent.getBooleanExtra("enabled", false);
@@ -100,6 +125,26 @@ public class InjectionBroadcastWrapper extends BroadcastReceiver {
                     .putExtra("type", "HOOK_STATUS")
                     .putExtra("hookEnabled", installHooks() == HookResult.SUCCESS));
         }
+        else if ("HOOK_STATS".equals(op)) {
+            // deliver hook and native call timings
+            mCtx.startActivity(makeResponseIntent()
+                    .putExtra("type", "HOOK_STATS")
+                    .putExtra("stats", collectHookStats()));
+        }
+    }
+
+    private Bundle collectHookStats() {
+        Bundle result = new Bundle();
+
+        if (mHookStatsSource != null) {
+            try {
+                result = mHookStatsSource.call();
+            } catch (Exception e) {
+                Log.e("HOOKNFC", "Failed to collect hook stats", e);
+            }
+        }
+
+        return mNativeStats.writeTo(result);
     }
 
     private Intent makeResponseIntent() {